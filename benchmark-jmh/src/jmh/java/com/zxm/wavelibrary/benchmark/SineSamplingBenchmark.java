@@ -0,0 +1,55 @@
+package com.zxm.wavelibrary.benchmark;
+
+import com.zxm.wavelibrary.MathHelper.SineTable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One row of sine samples, {@link SineTable} against {@link Math#sin(double)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SineSamplingBenchmark {
+
+    @Param({"360", "1080", "1440"})
+    public int width;
+
+    private float[] mOut;
+    private float mFrequency;
+    private SineTable mTable;
+
+    @Setup
+    public void setUp() {
+        mOut = new float[width + 1];
+        mFrequency = (float) (2 * Math.PI / width);
+        mTable = SineTable.getDefault();
+    }
+
+    @Benchmark
+    public float[] mathSin() {
+        final float[] out = mOut;
+        for (int x = 0; x < out.length; x++) {
+            out[x] = (float) Math.sin(mFrequency * x);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public float[] sineTable() {
+        final float[] out = mOut;
+        for (int x = 0; x < out.length; x++) {
+            out[x] = mTable.sin(mFrequency * x);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,56 @@
+package com.zxm.wavelibrary.benchmark;
+
+import com.zxm.wavelibrary.MathHelper.WaveLayer;
+import com.zxm.wavelibrary.MathHelper.WaveModel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heights of every wave layer at every px column, as the shader generator samples them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WaveHeightsBenchmark {
+
+    @Param({"360", "1080", "1440"})
+    public int width;
+
+    @Param({"200", "800"})
+    public int height;
+
+    @Param({"2", "5"})
+    public int layers;
+
+    private float[] mHeights;
+    private WaveModel mModel;
+
+    @Setup
+    public void setUp() {
+        mModel = new WaveModel();
+        mModel.setSize(width, height);
+        WaveLayer[] waveLayers = new WaveLayer[layers];
+        for (int i = 0; i < layers; i++) {
+            //parallax: the further back,the longer and slower
+            waveLayers[i] = new WaveLayer(0, 1f, layers - i, layers - i,
+                    i * WaveModel.FRONT_WAVE_OFFSET);
+        }
+        mModel.setLayers(waveLayers);
+        mHeights = new float[layers * (width + 1)];
+    }
+
+    @Benchmark
+    public float[] allLayers() {
+        mModel.sampleLayers(mHeights, width + 1);
+        return mHeights;
+    }
+}
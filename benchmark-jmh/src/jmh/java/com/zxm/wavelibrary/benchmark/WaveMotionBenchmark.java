@@ -0,0 +1,54 @@
+package com.zxm.wavelibrary.benchmark;
+
+import com.zxm.wavelibrary.MathHelper.WaveMotion;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parameter interpolation for every animated view in one frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WaveMotionBenchmark {
+
+    @Param({"1", "30", "100"})
+    public int views;
+
+    private WaveMotion[] mMotions;
+    private float[] mParams;
+    private long mPlayTime;
+
+    @Setup
+    public void setUp() {
+        mMotions = new WaveMotion[views];
+        for (int i = 0; i < views; i++) {
+            mMotions[i] = (i & 1) == 0 ? WaveMotion.background(1000 + i) : WaveMotion.loading(3000);
+        }
+        mParams = new float[views * 3];
+    }
+
+    @Benchmark
+    public float[] frame() {
+        //one 60 fps frame later
+        mPlayTime += 16;
+        final float[] params = mParams;
+        for (int i = 0; i < views; i++) {
+            WaveMotion motion = mMotions[i];
+            params[i * 3] = motion.getWaveShiftRatio(mPlayTime);
+            params[i * 3 + 1] = motion.getAmplitudeRatio(mPlayTime);
+            params[i * 3 + 2] = motion.hasWaterLevel() ?
+                    motion.getWaterLevelRatio(mPlayTime) : 0.5f;
+        }
+        return params;
+    }
+}
@@ -0,0 +1,48 @@
+package com.zxm.wavelibrary.benchmark;
+
+import com.zxm.wavelibrary.MathHelper.WaveSurface;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One display frame of the spring column surface, all the fixed steps it takes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WaveSurfaceBenchmark {
+
+    @Param({"64", "256", "1024", "2048"})
+    public int columns;
+
+    @Param({"60", "120"})
+    public int frameRate;
+
+    private WaveSurface mSurface;
+    private long mFrameNanos;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        mSurface = new WaveSurface(columns);
+        //undamped,so it never comes to rest while measured
+        mSurface.setDamping(0f);
+        mSurface.impulse(0.3f, -1f, 0.05f);
+        mSurface.impulse(0.7f, 0.5f, 0.2f);
+        mFrameNanos = 1000000000L / frameRate;
+    }
+
+    @Benchmark
+    public int frame() {
+        return mSurface.advance(mFrameNanos);
+    }
+}
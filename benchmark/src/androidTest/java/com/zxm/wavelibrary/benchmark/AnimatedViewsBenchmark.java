@@ -0,0 +1,90 @@
+package com.zxm.wavelibrary.benchmark;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.view.View;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.zxm.wavelibrary.AnimatorHelper.SimpleWaveAnimatorImp;
+import com.zxm.wavelibrary.WaveView;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One frame of N animated gauges: step every animator, then draw every view.
+ */
+@RunWith(Parameterized.class)
+public class AnimatedViewsBenchmark {
+    private static final int SIZE = 200;
+    private static final long FRAME_NANOS = 1000000000L / 60;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @Parameterized.Parameter
+    public int viewCount;
+
+    @Parameterized.Parameters(name = "views={0}")
+    public static List<Object[]> parameters() {
+        return Arrays.asList(
+                new Object[]{1}, new Object[]{10}, new Object[]{30}, new Object[]{100});
+    }
+
+    private WaveView[] mWaveViews;
+    private SimpleWaveAnimatorImp[] mHelpers;
+    private Bitmap mBitmap;
+    private Canvas mCanvas;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        mWaveViews = new WaveView[viewCount];
+        mHelpers = new SimpleWaveAnimatorImp[viewCount];
+        for (int i = 0; i < viewCount; i++) {
+            WaveView waveView = new WaveView(context);
+            mHelpers[i] = new SimpleWaveAnimatorImp(waveView);
+            mHelpers[i].setLoadingAnim(3000 + i * 10);
+            waveView.setShowWave(true);
+            waveView.measure(
+                    View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY));
+            waveView.layout(0, 0, SIZE, SIZE);
+            mWaveViews[i] = waveView;
+        }
+        mBitmap = Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+        mCanvas = new Canvas(mBitmap);
+    }
+
+    @After
+    public void tearDown() {
+        mBitmap.recycle();
+    }
+
+    @Test
+    public void frame() {
+        BenchmarkState state = benchmarkRule.getState();
+        long frameTimeNanos = 0;
+        while (state.keepRunning()) {
+            frameTimeNanos += FRAME_NANOS;
+            //what WaveFrameClock does on vsync,without a Choreographer
+            for (SimpleWaveAnimatorImp helper : mHelpers) {
+                helper.doWaveFrame(frameTimeNanos);
+            }
+            for (WaveView waveView : mWaveViews) {
+                waveView.draw(mCanvas);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.zxm.wavelibrary.benchmark;
+
+import android.graphics.Bitmap;
+
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.benchmark.BenchmarkState;
+
+import com.zxm.wavelibrary.ShaderHelper.WaveBitmapGenerator;
+import com.zxm.wavelibrary.ShaderHelper.WaveShaderKey;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Draw one wave tile, what createShader() pays on a cache miss.
+ */
+@RunWith(Parameterized.class)
+public class ShaderGenerationBenchmark {
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @Parameterized.Parameter(0)
+    public int width;
+
+    @Parameterized.Parameter(1)
+    public int height;
+
+    @Parameterized.Parameter(2)
+    public boolean legacyRasterizer;
+
+    @Parameterized.Parameter(3)
+    public boolean compact;
+
+    @Parameterized.Parameters(name = "{0}x{1} legacy={2} compact={3}")
+    public static List<Object[]> parameters() {
+        int[][] sizes = {{360, 200}, {720, 400}, {1080, 1080}, {1440, 2560}};
+        List<Object[]> parameters = new ArrayList<>();
+        for (int[] size : sizes) {
+            parameters.add(new Object[]{size[0], size[1], false, false});
+            parameters.add(new Object[]{size[0], size[1], true, false});
+            parameters.add(new Object[]{size[0], size[1], false, true});
+        }
+        return parameters;
+    }
+
+    @Test
+    public void generate() {
+        WaveBitmapGenerator generator = new WaveBitmapGenerator();
+        generator.setLegacyRasterizer(legacyRasterizer);
+        WaveShaderKey key = new WaveShaderKey(width, height, 0x28ffffff, 0x3cffffff,
+                0.45f, 0.5f, 1.0f, compact);
+
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            Bitmap tile = generator.generate(key);
+            state.pauseTiming();
+            tile.recycle();
+            state.resumeTiming();
+        }
+    }
+}
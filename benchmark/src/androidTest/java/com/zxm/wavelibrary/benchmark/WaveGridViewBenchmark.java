@@ -0,0 +1,88 @@
+package com.zxm.wavelibrary.benchmark;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.view.View;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.zxm.wavelibrary.WaveGridView;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One frame of N gauges in one {@link WaveGridView}, compare with {@link AnimatedViewsBenchmark}.
+ */
+@RunWith(Parameterized.class)
+public class WaveGridViewBenchmark {
+    private static final int SIZE = 200;
+    private static final int COLUMNS = 10;
+    private static final long FRAME_NANOS = 1000000000L / 60;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @Parameterized.Parameter
+    public int cellCount;
+
+    @Parameterized.Parameters(name = "cells={0}")
+    public static List<Object[]> parameters() {
+        return Arrays.asList(
+                new Object[]{1}, new Object[]{10}, new Object[]{30}, new Object[]{100});
+    }
+
+    private WaveGridView mGridView;
+    private float[] mLevels;
+    private Bitmap mBitmap;
+    private Canvas mCanvas;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        mGridView = new WaveGridView(context);
+        mGridView.setColumnCount(Math.min(COLUMNS, cellCount));
+        mGridView.setCellCount(cellCount);
+        mLevels = new float[cellCount];
+        final int columns = mGridView.getColumnCount();
+        final int width = columns * SIZE;
+        mGridView.measure(
+                View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        mGridView.layout(0, 0, width, mGridView.getMeasuredHeight());
+        mBitmap = Bitmap.createBitmap(width, mGridView.getMeasuredHeight(),
+                Bitmap.Config.ARGB_8888);
+        mCanvas = new Canvas(mBitmap);
+    }
+
+    @After
+    public void tearDown() {
+        mBitmap.recycle();
+    }
+
+    @Test
+    public void frame() {
+        BenchmarkState state = benchmarkRule.getState();
+        long frameTimeNanos = 0;
+        while (state.keepRunning()) {
+            frameTimeNanos += FRAME_NANOS;
+            for (int i = 0; i < cellCount; i++) {
+                mLevels[i] = (float) ((frameTimeNanos / FRAME_NANOS + i) % 100) / 100f;
+            }
+            mGridView.setWaterLevelRatios(mLevels);
+            //what WaveFrameClock does on vsync,without a Choreographer
+            mGridView.doWaveFrame(frameTimeNanos);
+            mGridView.draw(mCanvas);
+        }
+    }
+}
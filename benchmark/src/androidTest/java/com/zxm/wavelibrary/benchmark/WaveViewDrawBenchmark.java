@@ -0,0 +1,91 @@
+package com.zxm.wavelibrary.benchmark;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.view.View;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.zxm.wavelibrary.WaveView;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One animated frame of {@link WaveView#draw(Canvas)} for each shape type.
+ */
+@RunWith(Parameterized.class)
+public class WaveViewDrawBenchmark {
+    private static final int WIDTH = 720;
+    private static final int HEIGHT = 720;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @Parameterized.Parameter(0)
+    public int shapeType;
+
+    @Parameterized.Parameter(1)
+    public boolean border;
+
+    @Parameterized.Parameters(name = "shape={0} border={1}")
+    public static List<Object[]> parameters() {
+        return Arrays.asList(
+                new Object[]{WaveView.SHAPE_CIRCLE, false},
+                new Object[]{WaveView.SHAPE_CIRCLE, true},
+                new Object[]{WaveView.SHAPE_RECTANGLE, false},
+                new Object[]{WaveView.SHAPE_RECTANGLE, true});
+    }
+
+    private WaveView mWaveView;
+    private Bitmap mBitmap;
+    private Canvas mCanvas;
+
+    @Before
+    public void setUp() {
+        mWaveView = new WaveView(InstrumentationRegistry.getInstrumentation().getTargetContext());
+        mWaveView.setShapeType(shapeType);
+        if (border) {
+            mWaveView.setBorder(6, 0xff2196f3);
+        }
+        mWaveView.setShowWave(true);
+        mWaveView.measure(
+                View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        mWaveView.layout(0, 0, WIDTH, HEIGHT);
+        mBitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+        mCanvas = new Canvas(mBitmap);
+    }
+
+    @After
+    public void tearDown() {
+        mBitmap.recycle();
+    }
+
+    @Test
+    public void animatedFrame() {
+        BenchmarkState state = benchmarkRule.getState();
+        int frame = 0;
+        while (state.keepRunning()) {
+            mWaveView.setWaveShiftRatio((frame++ % 60) / 60f);
+            mWaveView.draw(mCanvas);
+        }
+    }
+
+    @Test
+    public void idleFrame() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            mWaveView.draw(mCanvas);
+        }
+    }
+}
@@ -30,18 +30,7 @@ public class MainActivity extends AppCompatActivity {
     private void initViews() {
         mWaveView = findViewById(R.id.waveview);
         mWaveView.setSimpleAnimatorToView();
-
-    }
-
-    @Override
-    protected void onResume() {
-        super.onResume();
+        //pauses by itself while the view can not be seen
         mWaveView.getWaveAnimatorHelper().startAnimators();
     }
-
-    @Override
-    protected void onPause() {
-        super.onPause();
-        mWaveView.getWaveAnimatorHelper().endAnimators();
-    }
 }
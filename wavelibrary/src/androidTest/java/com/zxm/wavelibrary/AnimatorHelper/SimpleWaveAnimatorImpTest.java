@@ -0,0 +1,86 @@
+package com.zxm.wavelibrary.AnimatorHelper;
+
+import android.os.SystemClock;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import com.zxm.wavelibrary.MathHelper.WaveMotion;
+import com.zxm.wavelibrary.WaveView;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Only the frames missed while running and hidden are counted as skipped, and an ended
+ * animation shows the end of its motion.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SimpleWaveAnimatorImpTest {
+
+    @Test
+    public void helperCreatedBeforeAttachSkipsNothing() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                //as in onCreate,the view is not attached yet
+                WaveView waveView = new WaveView(
+                        InstrumentationRegistry.getInstrumentation().getTargetContext());
+                assertFalse(waveView.isWaveVisible());
+                SimpleWaveAnimatorImp helper = new SimpleWaveAnimatorImp(waveView);
+                helper.startAnimators();
+                SystemClock.sleep(50);
+                //attached and shown
+                helper.onWaveVisibilityChanged(waveView, true);
+                //50ms are a few vsyncs,not the device uptime
+                assertTrue(String.valueOf(helper.getSkippedFrameCount()),
+                        helper.getSkippedFrameCount() < 30);
+                helper.endAnimators();
+            }
+        });
+    }
+
+    @Test
+    public void pauseWhileStoppedIsNotCounted() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                WaveView waveView = new WaveView(
+                        InstrumentationRegistry.getInstrumentation().getTargetContext());
+                SimpleWaveAnimatorImp helper = new SimpleWaveAnimatorImp(waveView);
+                helper.onWaveVisibilityChanged(waveView, true);
+                //hidden while stopped for a long time
+                helper.onWaveVisibilityChanged(waveView, false);
+                SystemClock.sleep(200);
+                helper.startAnimators();
+                helper.onWaveVisibilityChanged(waveView, true);
+                assertTrue(String.valueOf(helper.getSkippedFrameCount()),
+                        helper.getSkippedFrameCount() < 5);
+                helper.endAnimators();
+            }
+        });
+    }
+
+    @Test
+    public void endShowsTheEndOfTheMotion() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                WaveView waveView = new WaveView(
+                        InstrumentationRegistry.getInstrumentation().getTargetContext());
+                SimpleWaveAnimatorImp helper = new SimpleWaveAnimatorImp(waveView);
+                helper.setLoadingAnim(3000);
+                helper.startAnimators();
+                helper.endAnimators();
+                WaveMotion motion = WaveMotion.loading(3000);
+                assertEquals(motion.getEndWaveShiftRatio(), waveView.getWaveShiftRatio(), 0f);
+                assertEquals(motion.getEndAmplitudeRatio(), waveView.getAmplitudeRatio(), 0f);
+                assertEquals(motion.getEndWaterLevelRatio(), waveView.getWaterLevelRatio(), 0f);
+            }
+        });
+    }
+}
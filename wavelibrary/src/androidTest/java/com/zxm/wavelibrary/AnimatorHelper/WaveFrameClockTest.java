@@ -0,0 +1,63 @@
+package com.zxm.wavelibrary.AnimatorHelper;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * A callback removed by an earlier one of the same frame is not called anymore.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WaveFrameClockTest {
+
+    @Test
+    public void removedCallbacksAreSkipped() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                final WaveFrameClock clock = WaveFrameClock.getInstance();
+                final int[] calls = new int[3];
+                final WaveFrameClock.Callback last = new WaveFrameClock.Callback() {
+                    @Override
+                    public void doWaveFrame(long frameTimeNanos) {
+                        calls[2]++;
+                    }
+                };
+                final WaveFrameClock.Callback middle = new WaveFrameClock.Callback() {
+                    @Override
+                    public void doWaveFrame(long frameTimeNanos) {
+                        calls[1]++;
+                    }
+                };
+                WaveFrameClock.Callback first = new WaveFrameClock.Callback() {
+                    @Override
+                    public void doWaveFrame(long frameTimeNanos) {
+                        calls[0]++;
+                        //itself and a later one
+                        clock.removeCallback(this);
+                        clock.removeCallback(last);
+                    }
+                };
+                final int count = clock.getCallbackCount();
+                clock.addCallback(first);
+                clock.addCallback(middle);
+                clock.addCallback(last);
+
+                clock.doFrame(System.nanoTime());
+                assertEquals(1, calls[0]);
+                assertEquals(1, calls[1]);
+                assertEquals(0, calls[2]);
+
+                clock.doFrame(System.nanoTime());
+                assertEquals(1, calls[0]);
+                assertEquals(2, calls[1]);
+                clock.removeCallback(middle);
+                assertEquals(count, clock.getCallbackCount());
+            }
+        });
+    }
+}
@@ -0,0 +1,51 @@
+package com.zxm.wavelibrary.AnimatorHelper;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The play time stands still off the clock and starts over on restart.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WaveMotionClockTest {
+    private static final long MILLI = 1000000L;
+
+    @Test
+    public void pausesKeepThePhase() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                final long[] playTime = new long[1];
+                WaveMotionClock clock = new WaveMotionClock(new WaveMotionClock.Callback() {
+                    @Override
+                    public void onMotionFrame(long time, long frameTimeNanos) {
+                        playTime[0] = time;
+                    }
+                });
+                clock.setTicking(true);
+                clock.doWaveFrame(1000 * MILLI);
+                assertEquals(0, playTime[0]);
+                clock.doWaveFrame(1100 * MILLI);
+                assertEquals(100, playTime[0]);
+
+                //a long pause is left out
+                clock.setTicking(false);
+                clock.setTicking(true);
+                clock.doWaveFrame(5000 * MILLI);
+                assertEquals(100, playTime[0]);
+                clock.doWaveFrame(5016 * MILLI);
+                assertEquals(116, playTime[0]);
+
+                clock.restart();
+                clock.doWaveFrame(6000 * MILLI);
+                assertEquals(0, playTime[0]);
+                clock.setTicking(false);
+            }
+        });
+    }
+}
@@ -0,0 +1,185 @@
+package com.zxm.wavelibrary.ExportHelper;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.SystemClock;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import com.zxm.wavelibrary.MathHelper.WaveMotion;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Exports are deterministic, written in order where the sink needs it, stop on the
+ * first failing frame and close the sink after the last write.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WaveFrameExporterTest {
+    private static final int WIDTH = 120;
+    private static final int HEIGHT = 80;
+    private static final int FRAMES = 12;
+    private static final int FRAME_BYTES = WIDTH * HEIGHT * 4;
+
+    private static WaveFrameExporter newExporter() {
+        WaveFrameExporter exporter = new WaveFrameExporter(WIDTH, HEIGHT);
+        exporter.setWaveMotion(WaveMotion.loading(400));
+        exporter.setFrameRate(30);
+        exporter.setBackgroundColor(0xff000000);
+        return exporter;
+    }
+
+    @Test
+    public void rawStreamMatchesSingleFrames() throws Exception {
+        WaveFrameExporter exporter = newExporter();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.setEncoderThreadCount(4);
+        exporter.export(0, FRAMES, new RawRgbaFrameSink(out, true));
+        byte[] stream = out.toByteArray();
+        assertEquals(FRAMES * FRAME_BYTES, stream.length);
+
+        //every frame sits at its place in the stream,and the waves move
+        Bitmap bitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+        ByteBuffer buffer = ByteBuffer.allocate(FRAME_BYTES);
+        byte[] previous = null;
+        for (int frame = 0; frame < FRAMES; frame++) {
+            exporter.renderFrame(frame, bitmap);
+            buffer.clear();
+            bitmap.copyPixelsToBuffer(buffer);
+            byte[] expected = buffer.array().clone();
+            assertArrayEquals("frame " + frame, expected,
+                    Arrays.copyOfRange(stream, frame * FRAME_BYTES, (frame + 1) * FRAME_BYTES));
+            if (previous != null) {
+                assertFalse(Arrays.equals(previous, expected));
+            }
+            previous = expected;
+        }
+    }
+
+    @Test
+    public void virtualClockFollowsFrameRate() {
+        WaveFrameExporter exporter = newExporter();
+        assertEquals(0, exporter.getPlayTimeMillis(0));
+        assertEquals(1000, exporter.getPlayTimeMillis(30));
+        exporter.setFrameRate(60);
+        //16.67ms,rounded once
+        assertEquals(17, exporter.getPlayTimeMillis(1));
+        assertEquals(33, exporter.getPlayTimeMillis(2));
+        assertEquals(2000, exporter.getPlayTimeMillis(120));
+        exporter.setFrameRate(24);
+        assertEquals(42, exporter.getPlayTimeMillis(1));
+        assertEquals(1958, exporter.getPlayTimeMillis(47));
+    }
+
+    @Test
+    public void pngSequenceHasEveryFrame() throws Exception {
+        File directory = new File(InstrumentationRegistry.getInstrumentation()
+                .getTargetContext().getCacheDir(), "wave_frames");
+        PngFrameSink sink = new PngFrameSink(directory, "wave_");
+        WaveFrameExporter exporter = newExporter();
+        exporter.export(5, FRAMES, sink);
+
+        Bitmap expected = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+        for (int frame = 5; frame < 5 + FRAMES; frame++) {
+            File file = sink.getFile(frame);
+            assertTrue(file.getName(), file.isFile());
+            Bitmap decoded = BitmapFactory.decodeFile(file.getPath());
+            exporter.renderFrame(frame, expected);
+            //the background is opaque,so nothing is lost to premultiplication
+            assertTrue(file.getName(), expected.sameAs(decoded));
+            assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void failingSinkStopsTheExport() throws Exception {
+        final int[] written = new int[1];
+        final boolean[] closed = new boolean[1];
+        WaveFrameSink sink = new WaveFrameSink() {
+            @Override
+            public boolean isOrdered() {
+                return true;
+            }
+
+            @Override
+            public void writeFrame(int index, Bitmap frame) throws IOException {
+                if (index == 3) throw new IOException("disk full");
+                written[0]++;
+            }
+
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        try {
+            newExporter().export(0, 1000, sink);
+            fail("the failure should be rethrown");
+        } catch (IOException e) {
+            assertEquals("disk full", e.getMessage());
+        }
+        assertEquals(3, written[0]);
+        assertTrue(closed[0]);
+    }
+
+    @Test
+    public void interruptedExportClosesTheSinkLast() throws Exception {
+        final AtomicBoolean closed = new AtomicBoolean();
+        final AtomicBoolean writtenAfterClose = new AtomicBoolean();
+        final WaveFrameSink sink = new WaveFrameSink() {
+            @Override
+            public boolean isOrdered() {
+                return false;
+            }
+
+            @Override
+            public void writeFrame(int index, Bitmap frame) {
+                //slow and deaf to interrupts
+                SystemClock.sleep(20);
+                if (closed.get()) writtenAfterClose.set(true);
+            }
+
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+        final WaveFrameExporter exporter = newExporter();
+        exporter.setEncoderThreadCount(4);
+        final AtomicReference<Throwable> thrown = new AtomicReference<>();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    exporter.export(0, 1000, sink);
+                } catch (Throwable t) {
+                    thrown.set(t);
+                }
+            }
+        });
+        thread.start();
+        Thread.sleep(100);
+        thread.interrupt();
+        thread.join();
+
+        assertTrue(thrown.get() instanceof InterruptedException);
+        assertTrue(closed.get());
+        assertFalse(writtenAfterClose.get());
+    }
+}
@@ -0,0 +1,135 @@
+package com.zxm.wavelibrary.ShaderHelper;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import com.zxm.wavelibrary.MathHelper.WaveLayer;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Baked frames hold the waves between a transparent and a solid row, equal keys share
+ * one atlas, released atlases stay within the idle budget, and a failed bake completes
+ * its request.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WaveAtlasCacheTest {
+    private static final WaveLayer[] LAYERS = {
+            new WaveLayer(0x80ff0000, 0f),
+            new WaveLayer(0xff0000ff, 0.25f)};
+
+    private static WaveAtlasKey key(int width, int height) {
+        return new WaveAtlasKey(width, height, LAYERS, 0.1f, 0.5f, 8);
+    }
+
+    //same size,so the same bytes
+    private static WaveAtlasKey key(int width, int height, int frontColor) {
+        return new WaveAtlasKey(width, height,
+                new WaveLayer[]{LAYERS[0], LAYERS[1].withColor(frontColor)}, 0.1f, 0.5f, 8);
+    }
+
+    @Test
+    public void framesSpanTheBand() {
+        WaveAtlasCache cache = WaveAtlasCache.getInstance();
+        WaveAtlasKey key = key(101, 80);
+        Bitmap atlas = cache.acquire(key);
+        //one wavelength wide
+        assertEquals(51, atlas.getWidth());
+        assertEquals(key.getAtlasWidth(), atlas.getWidth());
+        assertEquals(key.getAtlasHeight(), atlas.getHeight());
+
+        final int bottom = key.getFrameHeight() - 1;
+        for (int frame = 0; frame < key.frameCount; frame++) {
+            final int top = key.getFrameTop(frame);
+            for (int x = 0; x < atlas.getWidth(); x += 5) {
+                //the crest may just touch it
+                assertTrue(Color.alpha(atlas.getPixel(x, top)) <= 1);
+                assertEquals(key.getWaterColor(), atlas.getPixel(x, top + bottom));
+            }
+        }
+        //the waves move from frame to frame
+        boolean moved = false;
+        for (int y = 0; y < key.getFrameHeight() && !moved; y++) {
+            moved = atlas.getPixel(0, y) != atlas.getPixel(0, key.getFrameTop(1) + y);
+        }
+        assertTrue(moved);
+        cache.release(key);
+    }
+
+    @Test
+    public void equalKeysShareOneAtlas() {
+        WaveAtlasCache cache = WaveAtlasCache.getInstance();
+        Bitmap first = cache.acquire(key(102, 80));
+        Bitmap second = cache.acquire(key(102, 80));
+        assertSame(first, second);
+        cache.release(key(102, 80));
+        cache.release(key(102, 80));
+        //idle,not baked again
+        assertSame(first, cache.acquire(key(102, 80)));
+        cache.release(key(102, 80));
+    }
+
+    @Test
+    public void idleAtlasesStayWithinTheBudget() {
+        WaveAtlasCache cache = WaveAtlasCache.getInstance();
+        final int maxIdleBytes = cache.getMaxIdleBytes();
+        try {
+            cache.evictAll();
+            Bitmap atlas = cache.acquire(key(103, 80, 0xff00ff00));
+            cache.setMaxIdleBytes(atlas.getAllocationByteCount());
+            cache.release(key(103, 80, 0xff00ff00));
+            assertEquals(atlas.getAllocationByteCount(), cache.getIdleBytes());
+
+            //the next one pushes it out
+            cache.acquire(key(103, 80, 0xff00ffff));
+            cache.release(key(103, 80, 0xff00ffff));
+            assertEquals(atlas.getAllocationByteCount(), cache.getIdleBytes());
+            assertNotSame(atlas, cache.acquire(key(103, 80, 0xff00ff00)));
+            cache.release(key(103, 80, 0xff00ff00));
+
+            cache.setMaxIdleBytes(0);
+            assertEquals(0, cache.getIdleBytes());
+        } finally {
+            cache.setMaxIdleBytes(maxIdleBytes);
+        }
+    }
+
+    @Test
+    public void failedBakeCompletesTheRequest() throws InterruptedException {
+        final WaveAtlasKey key = key(101, 4096);
+        assertFalse(key.fitsTexture());
+        final CountDownLatch failed = new CountDownLatch(1);
+        final WaveBitmapCache.Callback<WaveAtlasKey> callback =
+                new WaveBitmapCache.Callback<WaveAtlasKey>() {
+                    @Override
+                    public void onBitmapReady(WaveAtlasKey key, Bitmap atlas) {
+                    }
+
+                    @Override
+                    public void onBitmapFailed(WaveAtlasKey key, Throwable error) {
+                        assertTrue(error instanceof IllegalArgumentException);
+                        failed.countDown();
+                    }
+                };
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                WaveAtlasCache.getInstance().acquireAsync(key, callback);
+            }
+        });
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+    }
+}
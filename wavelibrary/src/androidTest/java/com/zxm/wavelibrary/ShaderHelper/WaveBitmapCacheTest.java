@@ -0,0 +1,129 @@
+package com.zxm.wavelibrary.ShaderHelper;
+
+import android.graphics.Bitmap;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Bitmaps are shared while held and kept idle within the budget, and a failed background
+ * creation completes its requests and is not reused by the next one.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WaveBitmapCacheTest {
+
+    //keys are bitmap widths,negative ones fail
+    private static final class TestCache extends WaveBitmapCache<Integer> {
+        final AtomicInteger creates = new AtomicInteger();
+
+        TestCache(int maxIdleBytes) {
+            super(maxIdleBytes);
+        }
+
+        @Override
+        protected Bitmap create(Integer key) {
+            creates.incrementAndGet();
+            if (key < 0) {
+                throw new IllegalArgumentException("no bitmap for " + key);
+            }
+            return Bitmap.createBitmap(key, 1, Bitmap.Config.ALPHA_8);
+        }
+
+        @Override
+        protected ExecutorService createExecutor() {
+            return Executors.newSingleThreadExecutor();
+        }
+    }
+
+    @Test
+    public void releasedBitmapsStayWithinTheBudget() {
+        TestCache cache = new TestCache(100);
+        Bitmap first = cache.acquire(64);
+        assertSame(first, cache.acquire(64));
+        cache.release(64);
+        cache.release(64);
+        assertEquals(first.getAllocationByteCount(), cache.getIdleBytes());
+        assertSame(first, cache.acquire(64));
+        assertEquals(1, cache.creates.get());
+        cache.release(64);
+
+        //the next one pushes it out
+        cache.acquire(50);
+        cache.release(50);
+        assertNotSame(first, cache.acquire(64));
+        cache.release(64);
+
+        cache.setMaxIdleBytes(0);
+        assertEquals(0, cache.getIdleBytes());
+    }
+
+    @Test
+    public void failedCreationCompletesTheRequests() throws InterruptedException {
+        final TestCache cache = new TestCache(100);
+        final Result first = new Result();
+        final Result second = new Result();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                first.request = cache.acquireAsync(-1, first);
+                second.request = cache.acquireAsync(-1, second);
+            }
+        });
+        first.await();
+        second.await();
+        assertNotNull(first.error);
+        assertSame(first.error, second.error);
+        assertTrue(first.request.isDone());
+        assertTrue(second.request.isDone());
+        assertEquals(1, cache.creates.get());
+
+        //created again,not attached to the failed one
+        final Result retry = new Result();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                retry.request = cache.acquireAsync(-1, retry);
+            }
+        });
+        retry.await();
+        assertNotNull(retry.error);
+        assertEquals(2, cache.creates.get());
+        assertEquals(0, cache.getCachedBytes());
+    }
+
+    private static final class Result implements WaveBitmapCache.Callback<Integer> {
+        final CountDownLatch latch = new CountDownLatch(1);
+        WaveBitmapCache.Request<Integer> request;
+        Throwable error;
+
+        @Override
+        public void onBitmapReady(Integer key, Bitmap bitmap) {
+            latch.countDown();
+        }
+
+        @Override
+        public void onBitmapFailed(Integer key, Throwable error) {
+            this.error = error;
+            latch.countDown();
+        }
+
+        void await() throws InterruptedException {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.zxm.wavelibrary.ShaderHelper;
+
+import android.graphics.Bitmap;
+
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Pooled bitmaps are reconfigured to the next tile and nothing is allocated.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WaveBitmapPoolTest {
+
+    @Test
+    public void reconfiguresTheSmallestFit() {
+        WaveBitmapPool pool = new WaveBitmapPool(1 << 20);
+        Bitmap large = Bitmap.createBitmap(200, 200, Bitmap.Config.ARGB_8888);
+        Bitmap small = Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888);
+        small.eraseColor(0xff336699);
+        pool.put(large);
+        pool.put(small);
+
+        Bitmap bitmap = pool.get(80, 90, Bitmap.Config.ARGB_8888);
+        assertSame(small, bitmap);
+        assertEquals(80, bitmap.getWidth());
+        assertEquals(90, bitmap.getHeight());
+        assertEquals(0, bitmap.getPixel(40, 45));
+        assertEquals(1, pool.getReuseCount());
+        assertEquals(large.getAllocationByteCount(), pool.getBytes());
+
+        //a mask of the same size fits into the ARGB bitmap
+        Bitmap mask = pool.get(200, 200, Bitmap.Config.ALPHA_8);
+        assertSame(large, mask);
+        assertEquals(Bitmap.Config.ALPHA_8, mask.getConfig());
+        assertEquals(0, pool.getBytes());
+    }
+
+    @Test
+    public void skipsBitmapsTooSmallOrFarTooLarge() {
+        WaveBitmapPool pool = new WaveBitmapPool(1 << 20);
+        pool.put(Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888));
+        assertNull(pool.get(120, 100, Bitmap.Config.ARGB_8888));
+        assertNull(pool.get(10, 10, Bitmap.Config.ARGB_8888));
+    }
+
+    @Test
+    public void staysWithinItsBytes() {
+        Bitmap bitmap = Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888);
+        WaveBitmapPool pool = new WaveBitmapPool(bitmap.getAllocationByteCount() * 2);
+        for (int i = 0; i < 5; i++) {
+            pool.put(Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888));
+        }
+        assertTrue(pool.getBytes() <= pool.getMaxBytes());
+        pool.clear();
+        assertEquals(0, pool.getBytes());
+        bitmap.recycle();
+    }
+}
@@ -0,0 +1,114 @@
+package com.zxm.wavelibrary.ShaderHelper;
+
+import android.graphics.Bitmap;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Background tiles reach every request of the key, and a failed generation completes
+ * its requests instead of leaving them pending.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WaveShaderCacheAsyncTest {
+
+    private static WaveShaderKey key(int width) {
+        return new WaveShaderKey(width, 80, 0xff00ff00, 0xff0000ff, 0.1f, 0.5f, 1f);
+    }
+
+    @Test
+    public void requestsShareOneTile() throws InterruptedException {
+        final WaveShaderCache cache = WaveShaderCache.getInstance();
+        final WaveShaderKey key = key(97);
+        final Result first = new Result();
+        final Result second = new Result();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                cache.evictAll();
+                first.request = cache.acquireAsync(key, first);
+                second.request = cache.acquireAsync(key, second);
+            }
+        });
+        first.await();
+        second.await();
+        assertNotNull(first.tile);
+        assertSame(first.tile, second.tile);
+        assertTrue(first.request.isDone());
+        cache.release(key);
+        cache.release(key);
+    }
+
+    @Test
+    public void failedGenerationCompletesTheRequests() throws InterruptedException {
+        final WaveShaderCache cache = WaveShaderCache.getInstance();
+        //no bitmap is 0 px wide
+        final WaveShaderKey key = key(0);
+        final Result first = new Result();
+        final Result second = new Result();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                first.request = cache.acquireAsync(key, first);
+                second.request = cache.acquireAsync(key, second);
+            }
+        });
+        first.await();
+        second.await();
+        assertNull(first.tile);
+        assertNotNull(first.error);
+        assertNotNull(second.error);
+        assertTrue(first.request.isDone());
+        assertTrue(second.request.isDone());
+
+        //not attached to the failed generation
+        final Result retry = new Result();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                retry.request = cache.acquireAsync(key, retry);
+            }
+        });
+        retry.await();
+        assertNotNull(retry.error);
+        assertEquals(1, retry.calls);
+    }
+
+    private static final class Result implements WaveBitmapCache.Callback<WaveShaderKey> {
+        final CountDownLatch latch = new CountDownLatch(1);
+        WaveBitmapCache.Request<WaveShaderKey> request;
+        Bitmap tile;
+        Throwable error;
+        int calls;
+
+        @Override
+        public void onBitmapReady(WaveShaderKey key, Bitmap tile) {
+            this.tile = tile;
+            calls++;
+            latch.countDown();
+        }
+
+        @Override
+        public void onBitmapFailed(WaveShaderKey key, Throwable error) {
+            this.error = error;
+            calls++;
+            latch.countDown();
+        }
+
+        void await() throws InterruptedException {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        }
+    }
+}
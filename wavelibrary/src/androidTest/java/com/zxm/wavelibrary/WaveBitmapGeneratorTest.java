@@ -0,0 +1,71 @@
+package com.zxm.wavelibrary;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.util.Log;
+
+import androidx.test.runner.AndroidJUnit4;
+
+import com.zxm.wavelibrary.ShaderHelper.WaveBitmapGenerator;
+import com.zxm.wavelibrary.ShaderHelper.WaveShaderKey;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compare the path rasterizer with the legacy per-column rasterizer.
+ * Timings live in the benchmark module.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WaveBitmapGeneratorTest {
+    private static final String TAG = WaveBitmapGeneratorTest.class.getSimpleName();
+
+    //common view widths in px
+    private static final int[] WIDTHS = {360, 720, 1080, 1440};
+    private static final int HEIGHT = 400;
+
+    @Test
+    public void pathOutputMatchesLines() throws Exception {
+        WaveBitmapGenerator pathGenerator = new WaveBitmapGenerator();
+        WaveBitmapGenerator lineGenerator = new WaveBitmapGenerator();
+        lineGenerator.setLegacyRasterizer(true);
+
+        for (int width : WIDTHS) {
+            WaveShaderKey key = newKey(width);
+            Bitmap path = pathGenerator.generate(key);
+            Bitmap lines = lineGenerator.generate(key);
+            assertEquals(lines.getWidth(), path.getWidth());
+            assertEquals(lines.getHeight(), path.getHeight());
+
+            //the two only differ along the anti-aliased wave edges
+            double meanAlphaDiff = meanAlphaDiff(path, lines);
+            Log.i(TAG, "width=" + width + " mean alpha diff=" + meanAlphaDiff);
+            assertTrue("mean alpha diff " + meanAlphaDiff, meanAlphaDiff < 4.0);
+        }
+    }
+
+    private static WaveShaderKey newKey(int width) {
+        return new WaveShaderKey(width, HEIGHT,
+                Color.argb(0x28, 0xff, 0xff, 0xff), Color.argb(0x3c, 0xff, 0xff, 0xff),
+                0.45f, 0.5f, 1.0f);
+    }
+
+    private static double meanAlphaDiff(Bitmap a, Bitmap b) {
+        int width = a.getWidth();
+        int height = a.getHeight();
+        int[] rowA = new int[width];
+        int[] rowB = new int[width];
+        long sum = 0;
+        for (int y = 0; y < height; y++) {
+            a.getPixels(rowA, 0, width, 0, y, width, 1);
+            b.getPixels(rowB, 0, width, 0, y, width, 1);
+            for (int x = 0; x < width; x++) {
+                sum += Math.abs(Color.alpha(rowA[x]) - Color.alpha(rowB[x]));
+            }
+        }
+        return (double) sum / ((long) width * height);
+    }
+}
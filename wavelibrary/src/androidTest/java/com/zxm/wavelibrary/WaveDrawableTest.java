@@ -0,0 +1,77 @@
+package com.zxm.wavelibrary;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import com.zxm.wavelibrary.AnimatorHelper.WaveFrameClock;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The drawable fills its own bounds like a view of the same size.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WaveDrawableTest {
+    private static final int SIZE = 200;
+    private static final int OFFSET = 50;
+
+    @Test
+    public void drawsInsideBounds() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                WaveDrawable drawable = new WaveDrawable(0xff336699, 0xff336699);
+                drawable.setBounds(OFFSET, OFFSET, OFFSET + SIZE, OFFSET + SIZE);
+                drawable.setWaveParams(0f, 0.02f, 0.5f);
+                Bitmap bitmap = Bitmap.createBitmap(SIZE + 2 * OFFSET, SIZE + 2 * OFFSET,
+                        Bitmap.Config.ARGB_8888);
+                drawable.draw(new Canvas(bitmap));
+
+                final int x = OFFSET + SIZE / 2;
+                assertEquals(0, Color.alpha(bitmap.getPixel(x, OFFSET + SIZE / 2 - 10)));
+                assertEquals(0xff, Color.alpha(bitmap.getPixel(x, OFFSET + SIZE / 2 + 10)));
+                //nothing outside the bounds
+                assertEquals(0, Color.alpha(bitmap.getPixel(x, OFFSET + SIZE + 10)));
+
+                bitmap.eraseColor(0);
+                drawable.setAlpha(0x80);
+                drawable.draw(new Canvas(bitmap));
+                int alpha = Color.alpha(bitmap.getPixel(x, OFFSET + SIZE / 2 + 10));
+                assertTrue("alpha " + alpha, Math.abs(alpha - 0x80) <= 1);
+                bitmap.recycle();
+            }
+        });
+    }
+
+    @Test
+    public void runsOnlyWhileVisible() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                WaveFrameClock clock = WaveFrameClock.getInstance();
+                final int count = clock.getCallbackCount();
+                WaveDrawable drawable = new WaveDrawable();
+                drawable.start();
+                assertTrue(drawable.isRunning());
+                assertEquals(count + 1, clock.getCallbackCount());
+                drawable.setVisible(false, false);
+                assertTrue(drawable.isRunning());
+                assertEquals(count, clock.getCallbackCount());
+                drawable.setVisible(true, false);
+                assertEquals(count + 1, clock.getCallbackCount());
+                drawable.stop();
+                assertFalse(drawable.isRunning());
+                assertEquals(count, clock.getCallbackCount());
+            }
+        });
+    }
+}
@@ -0,0 +1,87 @@
+package com.zxm.wavelibrary;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.view.View;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Every cell of the grid is filled up to its own water level.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WaveGridViewTest {
+    private static final int CELL = 100;
+    private static final int COLUMNS = 4;
+    private static final int CELLS = 8;
+
+    @Test
+    public void cellsFollowTheirOwnLevel() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                WaveGridView gridView = createGridView();
+                float[] levels = new float[CELLS];
+                for (int i = 0; i < CELLS; i++) {
+                    levels[i] = (i + 1) / (CELLS + 1f);
+                }
+                gridView.setWaterLevelRatios(levels);
+                for (int i = 0; i < CELLS; i++) {
+                    gridView.setAmplitudeRatio(i, 0.02f);
+                }
+                Bitmap bitmap = draw(gridView);
+
+                for (int i = 0; i < CELLS; i++) {
+                    int x = (i % COLUMNS) * CELL + CELL / 2;
+                    int top = (i / COLUMNS) * CELL;
+                    int surface = top + Math.round((1f - levels[i]) * CELL);
+                    //well above and below the 2px waves
+                    assertEquals("cell " + i, 0, Color.alpha(bitmap.getPixel(x, surface - 6)));
+                    assertEquals("cell " + i, 0xff, Color.alpha(bitmap.getPixel(x, surface + 6)));
+                }
+                bitmap.recycle();
+            }
+        });
+    }
+
+    @Test
+    public void measuresSquareCells() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                WaveGridView gridView = createGridView();
+                assertEquals(CELLS / COLUMNS * CELL, gridView.getMeasuredHeight());
+                assertFalse(gridView.hasOverlappingRendering());
+            }
+        });
+    }
+
+    private static WaveGridView createGridView() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        WaveGridView gridView = new WaveGridView(context);
+        gridView.setWaveColor(0xff336699, 0xff336699);
+        gridView.setColumnCount(COLUMNS);
+        gridView.setCellCount(CELLS);
+        gridView.measure(
+                View.MeasureSpec.makeMeasureSpec(COLUMNS * CELL, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        gridView.layout(0, 0, gridView.getMeasuredWidth(), gridView.getMeasuredHeight());
+        return gridView;
+    }
+
+    private static Bitmap draw(WaveGridView gridView) {
+        Bitmap bitmap = Bitmap.createBitmap(gridView.getWidth(), gridView.getHeight(),
+                Bitmap.Config.ARGB_8888);
+        gridView.draw(new Canvas(bitmap));
+        return bitmap;
+    }
+}
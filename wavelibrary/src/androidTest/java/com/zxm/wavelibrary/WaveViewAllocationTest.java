@@ -0,0 +1,109 @@
+package com.zxm.wavelibrary;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Debug;
+import android.view.View;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import com.zxm.wavelibrary.MathHelper.WaveMotion;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Animated frames of {@link WaveView} must not allocate, nor must color changes
+ * drawn from mask textures.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WaveViewAllocationTest {
+    private static final int WIDTH = 720;
+    private static final int HEIGHT = 400;
+    private static final int FRAMES = 100;
+    private static final int FRAME_MILLIS = 16;
+
+    @Test
+    public void steadyStateDrawDoesNotAllocate() throws Throwable {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                WaveView waveView = new WaveView(
+                        InstrumentationRegistry.getInstrumentation().getTargetContext());
+                waveView.setBorder(4, 0xff00ff00);
+                waveView.setShowWave(true);
+                waveView.measure(
+                        View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                        View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+                waveView.layout(0, 0, WIDTH, HEIGHT);
+
+                Bitmap bitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+                Canvas canvas = new Canvas(bitmap);
+                //the water rises and waves,every frame moves the shader matrix
+                WaveMotion motion = WaveMotion.loading(FRAMES * FRAME_MILLIS);
+                //the first frame computes the shader matrix
+                drawAt(waveView, motion, 0, canvas);
+                drawAt(waveView, motion, 0, canvas);
+
+                Debug.resetThreadAllocCount();
+                Debug.startAllocCounting();
+                for (int i = 1; i <= FRAMES; i++) {
+                    drawAt(waveView, motion, i * FRAME_MILLIS, canvas);
+                }
+                Debug.stopAllocCounting();
+                int allocations = Debug.getThreadAllocCount();
+
+                bitmap.recycle();
+                assertEquals("allocations in " + FRAMES + " frames", 0, allocations);
+            }
+        });
+    }
+
+    private static void drawAt(WaveView waveView, WaveMotion motion, long playTime,
+                               Canvas canvas) {
+        waveView.setWaveParams(motion.getWaveShiftRatio(playTime),
+                motion.getAmplitudeRatio(playTime), motion.getWaterLevelRatio(playTime));
+        waveView.draw(canvas);
+    }
+
+    @Test
+    public void colorAnimationDoesNotAllocate() throws Throwable {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                WaveView waveView = new WaveView(
+                        InstrumentationRegistry.getInstrumentation().getTargetContext());
+                waveView.setRuntimeShaderEnabled(false);
+                waveView.setMaskTexture(true);
+                waveView.setShowWave(true);
+                waveView.measure(
+                        View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                        View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+                waveView.layout(0, 0, WIDTH, HEIGHT);
+
+                Bitmap bitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+                Canvas canvas = new Canvas(bitmap);
+                waveView.draw(canvas);
+                waveView.draw(canvas);
+
+                Debug.resetThreadAllocCount();
+                Debug.startAllocCounting();
+                for (int i = 0; i < FRAMES; i++) {
+                    //blue turning red
+                    int red = i * 255 / FRAMES;
+                    waveView.setWaveColor(0x80000000 | red << 16 | (255 - red),
+                            0xff000000 | red << 16 | (255 - red));
+                    waveView.draw(canvas);
+                }
+                Debug.stopAllocCounting();
+                int allocations = Debug.getThreadAllocCount();
+
+                bitmap.recycle();
+                assertEquals("allocations in " + FRAMES + " frames", 0, allocations);
+            }
+        });
+    }
+}
@@ -0,0 +1,55 @@
+package com.zxm.wavelibrary;
+
+import android.os.SystemClock;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Levels posted from another thread reach a view that was never attached.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WaveViewLevelInputTest {
+
+    @Test
+    public void postedLevelsReachADetachedView() throws Throwable {
+        final WaveView[] waveView = new WaveView[1];
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                waveView[0] = new WaveView(
+                        InstrumentationRegistry.getInstrumentation().getTargetContext());
+            }
+        });
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 1; i <= 10; i++) {
+                    waveView[0].postWaterLevelRatio(i * 0.08f);
+                }
+            }
+        });
+        writer.start();
+        writer.join();
+
+        final float last = 10 * 0.08f;
+        final float[] level = new float[1];
+        final long deadline = SystemClock.uptimeMillis() + 1000;
+        do {
+            SystemClock.sleep(16);
+            InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+                @Override
+                public void run() {
+                    level[0] = waveView[0].getWaterLevelRatio();
+                }
+            });
+        } while (level[0] != last && SystemClock.uptimeMillis() < deadline);
+        //no smoothing,straight to the latest level
+        assertEquals(last, level[0], 0f);
+    }
+}
@@ -0,0 +1,87 @@
+package com.zxm.wavelibrary;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.view.View;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Clipping the fill to the wave band must not change a pixel.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WaveViewOverdrawTest {
+    private static final int WIDTH = 480;
+    private static final int HEIGHT = 320;
+
+    @Test
+    public void bandClippingKeepsPixels() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                for (int shapeType : new int[]{WaveView.SHAPE_CIRCLE, WaveView.SHAPE_RECTANGLE}) {
+                    WaveView waveView = createWaveView();
+                    waveView.setShapeType(shapeType);
+                    waveView.setWaveParams(0.3f, 0.08f, 0.35f);
+
+                    waveView.setWaveBandClipping(false);
+                    Bitmap full = draw(waveView);
+                    waveView.setWaveBandClipping(true);
+                    Bitmap clipped = draw(waveView);
+
+                    assertTrue("shape " + shapeType, full.sameAs(clipped));
+                    full.recycle();
+                    clipped.recycle();
+                }
+            }
+        });
+    }
+
+    @Test
+    public void fullOpaqueRectangleIsOpaque() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                WaveView waveView = createWaveView();
+                waveView.setWaveColor(0x80336699, 0xff336699);
+                waveView.setWaveParams(0f, 0.05f, 0.5f);
+                assertFalse(waveView.isOpaque());
+                waveView.setWaveParams(0f, 0.05f, 1.1f);
+                assertTrue(waveView.isOpaque());
+                //the views behind show through a translucent one
+                waveView.setAlpha(0.5f);
+                assertFalse(waveView.isOpaque());
+                waveView.setAlpha(1f);
+                assertTrue(waveView.isOpaque());
+                waveView.setBorder(2, 0xff000000);
+                assertFalse(waveView.isOpaque());
+                assertFalse(waveView.hasOverlappingRendering());
+            }
+        });
+    }
+
+    private static WaveView createWaveView() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        WaveView waveView = new WaveView(context);
+        waveView.setShowWave(true);
+        waveView.measure(
+                View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        waveView.layout(0, 0, WIDTH, HEIGHT);
+        return waveView;
+    }
+
+    private static Bitmap draw(WaveView waveView) {
+        Bitmap bitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+        waveView.draw(new Canvas(bitmap));
+        return bitmap;
+    }
+}
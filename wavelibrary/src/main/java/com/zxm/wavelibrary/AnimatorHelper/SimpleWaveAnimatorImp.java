@@ -1,11 +1,7 @@
 package com.zxm.wavelibrary.AnimatorHelper;
 
-import android.animation.AnimatorSet;
-import android.animation.ObjectAnimator;
-import android.animation.ValueAnimator;
-import android.view.animation.DecelerateInterpolator;
-import android.view.animation.LinearInterpolator;
-
+import com.zxm.wavelibrary.MathHelper.WaveMotion;
+import com.zxm.wavelibrary.MetricsHelper.WaveMetrics;
 import com.zxm.wavelibrary.WaveView;
 
 import static com.zxm.wavelibrary.WaveView.SHAPE_CIRCLE;
@@ -16,12 +12,48 @@ import static com.zxm.wavelibrary.WaveView.SHAPE_RECTANGLE;
  * Copyright (c) 2017 . All rights reserved.
  * This is the implementation class of WaveAnimtorHelper.This class help developers implement
  * the wave effect.
+ * <p>
+ * All helpers are stepped by the shared {@link WaveFrameClock} through a
+ * {@link WaveMotionClock}: each frame computes the wave params from {@link WaveMotion}
+ * and hands them to the view at once, so the view invalidates once per frame and no
+ * animator objects are created.
+ * <p>
+ * The helper leaves the clock on its own while the view can not be seen
+ * (see {@link WaveView#isWaveVisible()}) and picks up at the same phase once it can.
+ * <p>
+ * Ambient waves can be capped with {@link #setTargetFrameRate(int)}, see
+ * {@link WaveMotionClock}.
  */
 
-public class SimpleWaveAnimatorImp implements WaveAnimatorHelper {
+public class SimpleWaveAnimatorImp implements WaveAnimatorHelper, WaveFrameClock.Callback,
+        WaveView.OnWaveVisibilityChangedListener {
+    //draw on every vsync
+    public static final int FRAME_RATE_NATIVE = 0;
+    //measure the effective frame rate over this window
+    private static final long FPS_WINDOW_NANOS = 1000000000L;
 
     private WaveView mWaveView;
-    private AnimatorSet mAnimatorSet;
+    private WaveMotion mWaveMotion;
+    private final WaveMotionClock mMotionClock = new WaveMotionClock(
+            new WaveMotionClock.Callback() {
+                @Override
+                public void onMotionFrame(long playTime, long frameTimeNanos) {
+                    playFrame(playTime, frameTimeNanos);
+                }
+            });
+    //started by startAnimators()
+    private boolean mRunning;
+    //paused because the view can not be seen
+    private boolean mPaused;
+    //when the current pause began,or the animation started into it
+    private long mPauseTimeNanos;
+    private long mSkippedFrameCount;
+    //frame rate cap
+    private int mTargetFrameRate = FRAME_RATE_NATIVE;
+    //effective frame rate measuring
+    private long mFpsWindowStartNanos = -1;
+    private int mFpsWindowFrames;
+    private float mEffectiveFrameRate;
 
     public SimpleWaveAnimatorImp() {
         this(null);
@@ -35,6 +67,9 @@ public class SimpleWaveAnimatorImp implements WaveAnimatorHelper {
     //init animators
     private void initParams() {
         if (mWaveView == null) return;
+        mWaveView.addOnWaveVisibilityChangedListener(this);
+        mPaused = !mWaveView.isWaveVisible();
+        mPauseTimeNanos = System.nanoTime();
         setForBackGround(1000);
     }
 
@@ -45,37 +80,13 @@ public class SimpleWaveAnimatorImp implements WaveAnimatorHelper {
      * @param duration how long the loading animation should last in ms
      */
     public void setLoadingAnim(long duration) {
-        if (mAnimatorSet == null) {
-            mAnimatorSet = new AnimatorSet();
-        }
         //circle shape
         mWaveView.setShapeType(SHAPE_CIRCLE);
 
-        // horizontal animation.
-        // wave waves infinitely.
-        ObjectAnimator waveShiftAnim = ObjectAnimator.ofFloat(
-                mWaveView, "waveShiftRatio", 0f, 1f);
-        waveShiftAnim.setRepeatCount(ValueAnimator.INFINITE);
-        waveShiftAnim.setDuration(800);
-        waveShiftAnim.setInterpolator(new LinearInterpolator());
-
-        // vertical animation.
-        // water level increases from 0 to 1 of WaveView
-        ObjectAnimator waterLevelAnim = ObjectAnimator.ofFloat(
-                mWaveView, "waterLevelRatio", 0.0f, 1.0f);
-        waterLevelAnim.setDuration(duration);
-        waterLevelAnim.setInterpolator(new DecelerateInterpolator());
-
-        // amplitude animation.
-        // wave grows big then grows small, repeatedly
-        ObjectAnimator amplitudeAnim = ObjectAnimator.ofFloat(
-                mWaveView, "amplitudeRatio", 0.0001f, 0.05f);
-        amplitudeAnim.setRepeatCount(ValueAnimator.INFINITE);
-        amplitudeAnim.setRepeatMode(ValueAnimator.REVERSE);
-        amplitudeAnim.setDuration(5000);
-        amplitudeAnim.setInterpolator(new LinearInterpolator());
-
-        mAnimatorSet.playTogether(waveShiftAnim, waterLevelAnim, amplitudeAnim);
+        // horizontal animation,wave waves infinitely.
+        // vertical animation,water level increases from 0 to 1 of WaveView
+        // amplitude animation,wave grows big then grows small, repeatedly
+        mWaveMotion = WaveMotion.loading(duration);
     }
 
     /**
@@ -84,52 +95,158 @@ public class SimpleWaveAnimatorImp implements WaveAnimatorHelper {
      * @param duration how long the water shift animation should last in ms
      */
     public void setForBackGround(long duration) {
-        if (mAnimatorSet == null) {
-            mAnimatorSet = new AnimatorSet();
-        }
-        //circle shape
+        //rectangle shape
         mWaveView.setShapeType(SHAPE_RECTANGLE);
 
-        // horizontal animation.
-        // wave waves infinitely.
-        ObjectAnimator waveShiftAnim = ObjectAnimator.ofFloat(
-                mWaveView, "waveShiftRatio", 0f, 1f);
-        waveShiftAnim.setRepeatCount(ValueAnimator.INFINITE);
-        waveShiftAnim.setDuration(duration);
-        waveShiftAnim.setInterpolator(new LinearInterpolator());
-
-        // amplitude animation.
-        // wave grows big then grows small, repeatedly
-        ObjectAnimator amplitudeAnim = ObjectAnimator.ofFloat(
-                mWaveView, "amplitudeRatio", 0.01f, 0.03f);
-        amplitudeAnim.setRepeatCount(ValueAnimator.INFINITE);
-        amplitudeAnim.setRepeatMode(ValueAnimator.REVERSE);
-        amplitudeAnim.setDuration(5000);
-        amplitudeAnim.setInterpolator(new LinearInterpolator());
-
-        mAnimatorSet.playTogether(waveShiftAnim,amplitudeAnim);
+        // horizontal animation,wave waves infinitely.
+        // amplitude animation,wave grows big then grows small, repeatedly
+        mWaveMotion = WaveMotion.background(duration);
     }
 
     @Override
     public void startAnimators() {
         mWaveView.setShowWave(true);
-        if (mAnimatorSet != null) {
-            mAnimatorSet.start();
+        if (mWaveMotion != null) {
+            mMotionClock.restart();
+            if (!mRunning && mPaused) {
+                //frames are only missed from now on
+                mPauseTimeNanos = System.nanoTime();
+            }
+            mRunning = true;
+            updateClock();
         }
     }
 
     @Override
     public void endAnimators() {
-        if (mAnimatorSet != null) {
-            mAnimatorSet.end();
+        if (!mRunning) return;
+        mRunning = false;
+        updateClock();
+        //where the ended animators of an AnimatorSet stopped
+        final WaveMotion motion = mWaveMotion;
+        mWaveView.setWaveParams(motion.getEndWaveShiftRatio(), motion.getEndAmplitudeRatio(),
+                motion.hasWaterLevel() ?
+                        motion.getEndWaterLevelRatio() : mWaveView.getWaterLevelRatio());
+    }
+
+    @Override
+    public void onWaveVisibilityChanged(WaveView waveView, boolean visible) {
+        if (mPaused == !visible) return;
+        mPaused = !visible;
+        if (mPaused) {
+            mPauseTimeNanos = System.nanoTime();
+        } else if (mRunning) {
+            //count the vsyncs slept through
+            long skipped = (System.nanoTime() - mPauseTimeNanos)
+                    / WaveFrameClock.getInstance().getFrameIntervalNanos();
+            mSkippedFrameCount += skipped;
+            WaveMetrics metrics = WaveMetrics.getInstance();
+            if (metrics.isEnabled()) {
+                metrics.recordFramesSkipped(skipped);
+            }
+        }
+        updateClock();
+    }
+
+    //be on the clock only while started and visible
+    private void updateClock() {
+        final boolean tick = mRunning && !mPaused;
+        if (!tick) {
+            mEffectiveFrameRate = 0f;
         }
+        mMotionClock.setTicking(tick);
+    }
+
+    /**
+     * Step one frame, what {@link WaveFrameClock} does on vsync while the waves play.
+     */
+    @Override
+    public void doWaveFrame(long frameTimeNanos) {
+        mMotionClock.doWaveFrame(frameTimeNanos);
+    }
+
+    private void playFrame(long playTime, long frameTimeNanos) {
+        measureFrameRate(frameTimeNanos);
+        final WaveMotion motion = mWaveMotion;
+        mWaveView.setWaveParams(
+                motion.getWaveShiftRatio(playTime),
+                motion.getAmplitudeRatio(playTime),
+                motion.hasWaterLevel() ?
+                        motion.getWaterLevelRatio(playTime) : mWaveView.getWaterLevelRatio());
+    }
+
+    private void measureFrameRate(long frameTimeNanos) {
+        if (mFpsWindowStartNanos < 0
+                || frameTimeNanos - mFpsWindowStartNanos > FPS_WINDOW_NANOS * 2) {
+            //first frame or back from a pause
+            mFpsWindowStartNanos = frameTimeNanos;
+            mFpsWindowFrames = 0;
+            return;
+        }
+        mFpsWindowFrames++;
+        long elapsed = frameTimeNanos - mFpsWindowStartNanos;
+        if (elapsed >= FPS_WINDOW_NANOS) {
+            mEffectiveFrameRate = mFpsWindowFrames * 1e9f / elapsed;
+            mFpsWindowStartNanos = frameTimeNanos;
+            mFpsWindowFrames = 0;
+        }
+    }
+
+    /**
+     * Cap how often the waves are redrawn, e.g. 15, 24 or 30 for background waves.
+     *
+     * @param fps frames per second, {@link #FRAME_RATE_NATIVE} to draw on every vsync
+     */
+    public void setTargetFrameRate(int fps) {
+        mTargetFrameRate = Math.max(FRAME_RATE_NATIVE, fps);
+        mMotionClock.setTargetFrameRate(mTargetFrameRate);
+    }
+
+    public int getTargetFrameRate() {
+        return mTargetFrameRate;
+    }
+
+    /**
+     * @return frames drawn per second over the last second of animation
+     */
+    public float getEffectiveFrameRate() {
+        return mEffectiveFrameRate;
+    }
+
+    /**
+     * @return vsyncs skipped by the frame rate cap
+     */
+    public long getThrottledFrameCount() {
+        return mMotionClock.getThrottledFrameCount();
+    }
+
+    /**
+     * @return frames not drawn because the view could not be seen
+     */
+    public long getSkippedFrameCount() {
+        return mSkippedFrameCount;
+    }
+
+    public boolean isRunning() {
+        return mRunning;
     }
 
     public void setWaveView(WaveView waveView) {
+        if (mWaveView != null) {
+            mWaveView.removeOnWaveVisibilityChangedListener(this);
+        }
         this.mWaveView = waveView;
+        if (waveView != null) {
+            waveView.addOnWaveVisibilityChangedListener(this);
+            onWaveVisibilityChanged(waveView, waveView.isWaveVisible());
+        }
+    }
+
+    public void setWaveMotion(WaveMotion waveMotion) {
+        this.mWaveMotion = waveMotion;
     }
 
-    public void setAnimatorSet(AnimatorSet animatorSet) {
-        this.mAnimatorSet = animatorSet;
+    public WaveMotion getWaveMotion() {
+        return mWaveMotion;
     }
 }
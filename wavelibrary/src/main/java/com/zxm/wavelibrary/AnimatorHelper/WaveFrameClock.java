@@ -0,0 +1,134 @@
+package com.zxm.wavelibrary.AnimatorHelper;
+
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * One {@link Choreographer} frame callback shared by every animated wave in the process.
+ * It only posts itself while callbacks are registered.
+ * <p>
+ * Main thread only.
+ */
+
+public final class WaveFrameClock implements Choreographer.FrameCallback {
+    //60 fps until two frames were seen
+    private static final long DEFAULT_FRAME_INTERVAL_NANOS = 1000000000L / 60;
+
+    private static WaveFrameClock sInstance;
+
+    private final ArrayList<Callback> mCallbacks;
+    //snapshot of mCallbacks while dispatching, reused between frames
+    private Callback[] mDispatching;
+    //callbacks left in mDispatching,removed ones are cleared from it
+    private int mDispatchCount;
+    private boolean mFramePosted;
+    private long mLastFrameTimeNanos = -1;
+    private long mFrameIntervalNanos = DEFAULT_FRAME_INTERVAL_NANOS;
+
+    public static WaveFrameClock getInstance() {
+        if (sInstance == null) {
+            sInstance = new WaveFrameClock();
+        }
+        return sInstance;
+    }
+
+    private WaveFrameClock() {
+        mCallbacks = new ArrayList<>();
+        mDispatching = new Callback[8];
+    }
+
+    /**
+     * Start receiving frames. Adding a callback twice has no effect.
+     *
+     * @param callback the callback
+     */
+    public void addCallback(Callback callback) {
+        if (mCallbacks.contains(callback)) return;
+        mCallbacks.add(callback);
+        postFrame();
+    }
+
+    /**
+     * Stop receiving frames.
+     *
+     * @param callback the callback
+     */
+    public void removeCallback(Callback callback) {
+        if (!mCallbacks.remove(callback)) return;
+        //removed by an earlier callback of this frame,skip it
+        final Callback[] dispatching = mDispatching;
+        for (int i = 0; i < mDispatchCount; i++) {
+            if (dispatching[i] == callback) {
+                dispatching[i] = null;
+                break;
+            }
+        }
+    }
+
+    /**
+     * @return how many callbacks are registered
+     */
+    public int getCallbackCount() {
+        return mCallbacks.size();
+    }
+
+    /**
+     * @return the shortest vsync interval seen so far, 1/60 s before frames ran
+     */
+    public long getFrameIntervalNanos() {
+        return mFrameIntervalNanos;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        mFramePosted = false;
+        if (mLastFrameTimeNanos > 0) {
+            long interval = frameTimeNanos - mLastFrameTimeNanos;
+            //consecutive frames only,a gap means the clock was idle or janked
+            if (interval > 0 && interval < DEFAULT_FRAME_INTERVAL_NANOS * 2
+                    && (mFrameIntervalNanos == DEFAULT_FRAME_INTERVAL_NANOS
+                    || interval < mFrameIntervalNanos)) {
+                mFrameIntervalNanos = interval;
+            }
+        }
+        mLastFrameTimeNanos = frameTimeNanos;
+        final int count = mCallbacks.size();
+        if (mDispatching.length < count) {
+            mDispatching = new Callback[Math.max(count, mDispatching.length * 2)];
+        }
+        final Callback[] dispatching = mCallbacks.toArray(mDispatching);
+        mDispatchCount = count;
+        for (int i = 0; i < count; i++) {
+            Callback callback = dispatching[i];
+            dispatching[i] = null;
+            if (callback != null) {
+                callback.doWaveFrame(frameTimeNanos);
+            }
+        }
+        mDispatchCount = 0;
+        postFrame();
+    }
+
+    private void postFrame() {
+        if (mFramePosted) return;
+        if (mCallbacks.isEmpty()) {
+            mLastFrameTimeNanos = -1;
+            return;
+        }
+        mFramePosted = true;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    /**
+     * Receive frames from {@link WaveFrameClock}.
+     */
+    public interface Callback {
+        /**
+         * @param frameTimeNanos the vsync time of the frame, in {@link System#nanoTime()} base
+         */
+        void doWaveFrame(long frameTimeNanos);
+    }
+}
@@ -0,0 +1,63 @@
+package com.zxm.wavelibrary.AnimatorHelper;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * Pick the vsyncs to draw on for a frame rate cap.
+ * <p>
+ * Target frames are due on a timeline advanced by one target interval per drawn
+ * frame, not measured from the last drawn frame, so a cap that is no divisor of the
+ * display rate still averages out: 24 fps on 60 Hz draws every 2nd and 3rd vsync in
+ * turn. A vsync within half an interval of the due time draws. After a pause or a
+ * long jank the timeline starts again at the next frame instead of catching up.
+ * <p>
+ * Plain Java, not thread safe.
+ */
+
+public final class WaveFrameThrottle {
+    //0 for no cap
+    private long mIntervalNanos;
+    //when the next target frame is due,-1 to draw the next vsync
+    private long mNextFrameNanos = -1;
+
+    /**
+     * @param fps frames per second, 0 to draw on every vsync
+     */
+    public void setTargetFrameRate(int fps) {
+        mIntervalNanos = fps <= 0 ? 0 : 1000000000L / fps;
+        reset();
+    }
+
+    public long getTargetFrameIntervalNanos() {
+        return mIntervalNanos;
+    }
+
+    /**
+     * Start the timeline again at the next vsync, e.g. after a pause.
+     */
+    public void reset() {
+        mNextFrameNanos = -1;
+    }
+
+    /**
+     * @param frameTimeNanos     the vsync time
+     * @param vsyncIntervalNanos time between vsyncs of the display
+     * @return true to draw this vsync, false to skip it
+     */
+    public boolean shouldDraw(long frameTimeNanos, long vsyncIntervalNanos) {
+        final long interval = mIntervalNanos;
+        if (interval <= 0) return true;
+        if (mNextFrameNanos < 0) {
+            mNextFrameNanos = frameTimeNanos + interval;
+            return true;
+        }
+        //half a vsync of slack,the vsync nearest to the due time draws
+        if (frameTimeNanos < mNextFrameNanos - vsyncIntervalNanos / 2) return false;
+        mNextFrameNanos += interval;
+        if (mNextFrameNanos <= frameTimeNanos) {
+            //fell a whole frame behind,do not draw a burst to catch up
+            mNextFrameNanos = frameTimeNanos + interval;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,119 @@
+package com.zxm.wavelibrary.AnimatorHelper;
+
+import com.zxm.wavelibrary.MetricsHelper.WaveMetrics;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * The play time of a {@link com.zxm.wavelibrary.MathHelper.WaveMotion}, stepped by the
+ * shared {@link WaveFrameClock}, for {@link SimpleWaveAnimatorImp} and
+ * {@link com.zxm.wavelibrary.WaveDrawable}.
+ * <p>
+ * The owner puts it on the clock while its waves play and can be seen, see
+ * {@link #setTicking(boolean)}. Off the clock the play time stands still and picks
+ * up at the same phase. Vsyncs between target frames of {@link #setTargetFrameRate(int)}
+ * are skipped, see {@link WaveFrameThrottle}, the play time always follows the frame
+ * time so motion speed does not depend on the frame rate.
+ * <p>
+ * Main thread only.
+ */
+
+public final class WaveMotionClock implements WaveFrameClock.Callback {
+    private final Callback mCallback;
+    //registered with the frame clock
+    private boolean mTicking;
+    //frame time the motion (re)started at,-1 until the next frame
+    private long mStartTimeNanos = -1;
+    //play time before the last pause
+    private long mPlayedNanos;
+    //frame time of the last frame played
+    private long mLastFrameTimeNanos;
+    private final WaveFrameThrottle mThrottle = new WaveFrameThrottle();
+    private long mThrottledFrameCount;
+
+    /**
+     * @param callback told the play time of every frame drawn
+     */
+    public WaveMotionClock(Callback callback) {
+        mCallback = callback;
+    }
+
+    /**
+     * Play from the start again with the next frame.
+     */
+    public void restart() {
+        mStartTimeNanos = -1;
+        mPlayedNanos = 0;
+    }
+
+    public boolean isTicking() {
+        return mTicking;
+    }
+
+    /**
+     * @param ticking true to get frames, false to leave the clock and keep the phase
+     */
+    public void setTicking(boolean ticking) {
+        if (mTicking == ticking) return;
+        mTicking = ticking;
+        final WaveFrameClock clock = WaveFrameClock.getInstance();
+        if (ticking) {
+            clock.addCallback(this);
+        } else {
+            if (mStartTimeNanos >= 0) {
+                //keep the phase for resume
+                mPlayedNanos = mLastFrameTimeNanos - mStartTimeNanos;
+                mStartTimeNanos = -1;
+            }
+            //back on the cap timeline with the first frame after the pause
+            mThrottle.reset();
+            clock.removeCallback(this);
+        }
+    }
+
+    /**
+     * @param fps frames per second, 0 to draw on every vsync
+     */
+    public void setTargetFrameRate(int fps) {
+        mThrottle.setTargetFrameRate(fps);
+    }
+
+    /**
+     * @return vsyncs skipped by the frame rate cap
+     */
+    public long getThrottledFrameCount() {
+        return mThrottledFrameCount;
+    }
+
+    @Override
+    public void doWaveFrame(long frameTimeNanos) {
+        if (mStartTimeNanos < 0) {
+            mStartTimeNanos = frameTimeNanos - mPlayedNanos;
+        }
+        mLastFrameTimeNanos = frameTimeNanos;
+        final WaveMetrics metrics = WaveMetrics.getInstance();
+        if (!mThrottle.shouldDraw(frameTimeNanos,
+                WaveFrameClock.getInstance().getFrameIntervalNanos())) {
+            mThrottledFrameCount++;
+            if (metrics.isEnabled()) {
+                metrics.recordFramesSkipped(1);
+            }
+            return;
+        }
+        if (metrics.isEnabled()) {
+            metrics.recordFrameDrawn();
+        }
+        mCallback.onMotionFrame((frameTimeNanos - mStartTimeNanos) / 1000000L, frameTimeNanos);
+    }
+
+    /**
+     * Receive the frames of a {@link WaveMotionClock}.
+     */
+    public interface Callback {
+        /**
+         * @param playTime       ms played, pauses left out
+         * @param frameTimeNanos the vsync time of the frame
+         */
+        void onMotionFrame(long playTime, long frameTimeNanos);
+    }
+}
@@ -0,0 +1,63 @@
+package com.zxm.wavelibrary.ExportHelper;
+
+import android.graphics.Bitmap;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * Frames as a numbered PNG sequence, e.g. wave_00000.png, wave_00001.png, ...
+ * Files are independent, so several frames are compressed at once.
+ */
+
+public class PngFrameSink implements WaveFrameSink {
+    private final File mDirectory;
+    private final String mPrefix;
+
+    /**
+     * @param directory where the files go, created if missing
+     * @param prefix    file names start with it
+     */
+    public PngFrameSink(File directory, String prefix) {
+        mDirectory = directory;
+        mPrefix = prefix;
+    }
+
+    /**
+     * @return the file of one frame
+     */
+    public File getFile(int index) {
+        return new File(mDirectory, String.format(Locale.US, "%s%05d.png", mPrefix, index));
+    }
+
+    @Override
+    public boolean isOrdered() {
+        return false;
+    }
+
+    @Override
+    public void writeFrame(int index, Bitmap frame) throws IOException {
+        if (!mDirectory.isDirectory() && !mDirectory.mkdirs() && !mDirectory.isDirectory()) {
+            throw new IOException("can not create " + mDirectory);
+        }
+        final File file = getFile(index);
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+        try {
+            if (!frame.compress(Bitmap.CompressFormat.PNG, 100, out)) {
+                throw new IOException("can not encode " + file);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,60 @@
+package com.zxm.wavelibrary.ExportHelper;
+
+import android.graphics.Bitmap;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * Frames back to back as raw RGBA, 4 bytes per pixel, row by row, premultiplied,
+ * the way {@link Bitmap.Config#ARGB_8888} keeps them in memory. For example:
+ * <p>
+ * ffmpeg -f rawvideo -pixel_format rgba -video_size WxH -framerate FPS -i frames.rgba
+ * <p>
+ * No header, the size and frame rate are the exporter's. Frames are written in order
+ * through one buffer kept between frames.
+ */
+
+public class RawRgbaFrameSink implements WaveFrameSink {
+    private final OutputStream mOut;
+    private final boolean mCloseStream;
+    //pixels of the frame being written,reused
+    private ByteBuffer mBuffer;
+
+    /**
+     * @param out         receives the frames, buffer it if writes are costly
+     * @param closeStream if true,{@link #close()} closes the stream, else only flushes it
+     */
+    public RawRgbaFrameSink(OutputStream out, boolean closeStream) {
+        mOut = out;
+        mCloseStream = closeStream;
+    }
+
+    @Override
+    public boolean isOrdered() {
+        return true;
+    }
+
+    @Override
+    public void writeFrame(int index, Bitmap frame) throws IOException {
+        final int bytes = frame.getByteCount();
+        if (mBuffer == null || mBuffer.capacity() < bytes) {
+            mBuffer = ByteBuffer.allocate(bytes);
+        }
+        mBuffer.clear();
+        frame.copyPixelsToBuffer(mBuffer);
+        mOut.write(mBuffer.array(), 0, bytes);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (mCloseStream) {
+            mOut.close();
+        } else {
+            mOut.flush();
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.zxm.wavelibrary.ExportHelper;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+
+import com.zxm.wavelibrary.MathHelper.WaveMotion;
+import com.zxm.wavelibrary.WaveDrawable;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * Render the wave animation offline, e.g. for previews and marketing assets, without
+ * a window or a display.
+ * <p>
+ * Frame n shows the {@link WaveMotion} at play time n * 1000 / frame rate ms, rounded
+ * to the nearest ms, a virtual clock, so an export gives the same frames on every run and every device
+ * speed. The waves are a {@link WaveDrawable} of a fixed size, configure it with
+ * {@link #getWaveDrawable()} before exporting.
+ * <p>
+ * {@link #export(int, int, WaveFrameSink)} renders on the calling thread into a few
+ * bitmaps taken in turn, and hands each frame to a pool of encoder threads, so the
+ * next frame is rendered while the previous ones are encoded and written. The
+ * renderer waits for a bitmap once all are being encoded. Only {@link Canvas} and
+ * {@link Bitmap} are used, so it runs on any background thread, and under Robolectric
+ * with native graphics.
+ * <p>
+ * An exporter runs one export at a time.
+ */
+
+public class WaveFrameExporter {
+    public static final int DEFAULT_FRAME_RATE = 30;
+    //bitmaps frames are rendered into,one rendering and the others encoding
+    private static final int DEFAULT_BUFFER_COUNT = 3;
+
+    private final int mWidth;
+    private final int mHeight;
+    private final WaveDrawable mWaveDrawable;
+    private final Canvas mCanvas = new Canvas();
+    private WaveMotion mWaveMotion = WaveMotion.background(1000);
+    private int mFrameRate = DEFAULT_FRAME_RATE;
+    private int mBufferCount = DEFAULT_BUFFER_COUNT;
+    private int mEncoderThreadCount = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    //every frame is cleared to it first,transparent by default
+    private int mBackgroundColor;
+
+    /**
+     * @param width  frame width in px
+     * @param height frame height in px
+     */
+    public WaveFrameExporter(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("width and height should be > 0");
+        }
+        mWidth = width;
+        mHeight = height;
+        mWaveDrawable = new WaveDrawable();
+        //tiles are drawn in place,there may be no main thread to deliver them
+        mWaveDrawable.setAsyncShaderGeneration(false);
+        mWaveDrawable.setBounds(0, 0, width, height);
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+
+    /**
+     * @return the waves, set colors, layers, shape and border here. Its motion is not
+     * used, see {@link #setWaveMotion(WaveMotion)}
+     */
+    public WaveDrawable getWaveDrawable() {
+        return mWaveDrawable;
+    }
+
+    public WaveMotion getWaveMotion() {
+        return mWaveMotion;
+    }
+
+    /**
+     * @param waveMotion the animation, e.g. {@link WaveMotion#loading(long)}
+     */
+    public void setWaveMotion(WaveMotion waveMotion) {
+        if (waveMotion == null) return;
+        mWaveMotion = waveMotion;
+    }
+
+    public int getFrameRate() {
+        return mFrameRate;
+    }
+
+    /**
+     * @param frameRate frames per second of the virtual clock
+     */
+    public void setFrameRate(int frameRate) {
+        if (frameRate <= 0) {
+            throw new IllegalArgumentException("frameRate should be > 0");
+        }
+        mFrameRate = frameRate;
+    }
+
+    /**
+     * @param bufferCount bitmaps in flight, at least 2 to render while encoding
+     */
+    public void setBufferCount(int bufferCount) {
+        mBufferCount = Math.max(1, bufferCount);
+    }
+
+    /**
+     * @param encoderThreadCount threads encoding at once, ordered sinks always use one
+     */
+    public void setEncoderThreadCount(int encoderThreadCount) {
+        mEncoderThreadCount = Math.max(1, encoderThreadCount);
+    }
+
+    /**
+     * @param backgroundColor ARGB color behind the waves
+     */
+    public void setBackgroundColor(int backgroundColor) {
+        mBackgroundColor = backgroundColor;
+    }
+
+    /**
+     * @param frame the frame number
+     * @return the play time of the motion shown in the frame, in ms
+     */
+    public long getPlayTimeMillis(int frame) {
+        //rounded once,truncating would run every frame up to 1ms early
+        return Math.round(frame * 1000d / mFrameRate);
+    }
+
+    /**
+     * Render one frame on the calling thread.
+     *
+     * @param frame  the frame number
+     * @param bitmap receives the frame, mutable and of the exporter size
+     */
+    public void renderFrame(int frame, Bitmap bitmap) {
+        if (bitmap.getWidth() != mWidth || bitmap.getHeight() != mHeight) {
+            throw new IllegalArgumentException("bitmap should be " + mWidth + "x" + mHeight);
+        }
+        final long playTime = getPlayTimeMillis(frame);
+        final WaveMotion motion = mWaveMotion;
+        final WaveDrawable drawable = mWaveDrawable;
+        drawable.setWaveParams(
+                motion.getWaveShiftRatio(playTime),
+                motion.getAmplitudeRatio(playTime),
+                motion.hasWaterLevel() ?
+                        motion.getWaterLevelRatio(playTime) : drawable.getWaterLevelRatio());
+
+        bitmap.eraseColor(mBackgroundColor);
+        final Canvas canvas = mCanvas;
+        canvas.setBitmap(bitmap);
+        drawable.draw(canvas);
+        canvas.setBitmap(null);
+    }
+
+    /**
+     * Render frames and write them, blocking until every frame was written. Call on a
+     * background thread.
+     *
+     * @param firstFrame the first frame number
+     * @param frameCount how many frames, e.g. frame rate * seconds
+     * @param sink       receives the frames, closed at the end
+     * @throws IOException          if the sink failed, no more frames are rendered then
+     * @throws InterruptedException if the calling thread was interrupted
+     */
+    public void export(int firstFrame, int frameCount, final WaveFrameSink sink)
+            throws IOException, InterruptedException {
+        final BlockingQueue<Bitmap> freeBuffers = new ArrayBlockingQueue<>(mBufferCount);
+        for (int i = 0; i < mBufferCount; i++) {
+            freeBuffers.add(Bitmap.createBitmap(mWidth, mHeight, Bitmap.Config.ARGB_8888));
+        }
+        final int threads = sink.isOrdered() ? 1 : mEncoderThreadCount;
+        final ExecutorService encoders = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger mCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                return new Thread(r, "WaveFrameEncoder-" + mCount.incrementAndGet());
+            }
+        });
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        mWaveDrawable.setVisible(true, false);
+        boolean finished = false;
+        try {
+            for (int i = 0; i < frameCount && failure.get() == null; i++) {
+                final int frame = firstFrame + i;
+                final Bitmap buffer = freeBuffers.take();
+                renderFrame(frame, buffer);
+                encoders.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            if (failure.get() == null) {
+                                sink.writeFrame(frame, buffer);
+                            }
+                        } catch (Throwable t) {
+                            failure.compareAndSet(null, t);
+                        } finally {
+                            freeBuffers.add(buffer);
+                        }
+                    }
+                });
+            }
+            encoders.shutdown();
+            encoders.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            finished = true;
+        } finally {
+            if (!finished) {
+                encoders.shutdownNow();
+                //no frame may be written into a closed sink
+                awaitTerminationUninterruptibly(encoders);
+            }
+            //let the shared tiles go until the next export
+            mWaveDrawable.setVisible(false, false);
+            try {
+                sink.close();
+            } finally {
+                //the encoders are done with them
+                for (Bitmap buffer : freeBuffers) {
+                    buffer.recycle();
+                }
+            }
+        }
+
+        final Throwable t = failure.get();
+        if (t instanceof IOException) throw (IOException) t;
+        if (t instanceof RuntimeException) throw (RuntimeException) t;
+        if (t instanceof Error) throw (Error) t;
+        if (t != null) throw new IOException(t);
+    }
+
+    private static void awaitTerminationUninterruptibly(ExecutorService executor) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
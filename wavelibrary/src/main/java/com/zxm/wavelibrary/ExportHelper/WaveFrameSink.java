@@ -0,0 +1,34 @@
+package com.zxm.wavelibrary.ExportHelper;
+
+import android.graphics.Bitmap;
+
+import java.io.IOException;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * Where {@link WaveFrameExporter} hands its frames, e.g. {@link PngFrameSink} or
+ * {@link RawRgbaFrameSink}.
+ */
+
+public interface WaveFrameSink {
+
+    /**
+     * @return true if frames must arrive one at a time and in order, e.g. for a
+     * stream. Otherwise several frames are written at once on the encoder threads.
+     */
+    boolean isOrdered();
+
+    /**
+     * Encode and write one frame, on an encoder thread.
+     *
+     * @param index the frame number, see {@link WaveFrameExporter#getPlayTimeMillis(int)}
+     * @param frame the frame, only valid until this returns, the bitmap is reused
+     */
+    void writeFrame(int index, Bitmap frame) throws IOException;
+
+    /**
+     * Called once after the last frame was written, or the export failed.
+     */
+    void close() throws IOException;
+}
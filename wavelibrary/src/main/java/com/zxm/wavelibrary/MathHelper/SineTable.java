@@ -0,0 +1,123 @@
+package com.zxm.wavelibrary.MathHelper;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * Sine lookup table with linear interpolation.
+ * <p>
+ * Linear interpolation of sin over a step h is off by at most h²/8, so a table of
+ * N entries per period keeps the error under (2π/N)²/8. Tables are immutable and
+ * shared process-wide, one per size.
+ */
+
+public final class SineTable {
+    //error bound used by the wave generator, far below one pixel
+    public static final float DEFAULT_MAX_ERROR = 1e-4f;
+
+    private static final double TWO_PI = 2.0 * Math.PI;
+    //sizes are powers of two up to 2^MAX_SHIFT
+    private static final int MAX_SHIFT = 20;
+    private static final SineTable[] sTables = new SineTable[MAX_SHIFT + 1];
+
+    //one period plus the first entry again, so interpolation never wraps
+    private final float[] mValues;
+    private final int mMask;
+    private final float mIndexPerRadian;
+
+    /**
+     * @return the shared table for {@link #DEFAULT_MAX_ERROR}
+     */
+    public static SineTable getDefault() {
+        return forMaxError(DEFAULT_MAX_ERROR);
+    }
+
+    /**
+     * Get the smallest shared table whose interpolation error stays under maxError.
+     *
+     * @param maxError max absolute error against {@link Math#sin(double)}, should be > 0
+     * @return the shared table
+     */
+    public static SineTable forMaxError(float maxError) {
+        if (!(maxError > 0)) {
+            throw new IllegalArgumentException("maxError must be > 0 : " + maxError);
+        }
+        //(2π/N)²/8 <= maxError
+        double minSize = TWO_PI / Math.sqrt(8.0 * maxError);
+        int shift = 2;
+        while (shift < MAX_SHIFT && (1 << shift) < minSize) {
+            shift++;
+        }
+        synchronized (sTables) {
+            SineTable table = sTables[shift];
+            if (table == null) {
+                table = new SineTable(1 << shift);
+                sTables[shift] = table;
+            }
+            return table;
+        }
+    }
+
+    private SineTable(int size) {
+        mValues = new float[size + 1];
+        for (int i = 0; i <= size; i++) {
+            mValues[i] = (float) Math.sin(TWO_PI * i / size);
+        }
+        mMask = size - 1;
+        mIndexPerRadian = (float) (size / TWO_PI);
+    }
+
+    /**
+     * @return entries per period
+     */
+    public int size() {
+        return mMask + 1;
+    }
+
+    /**
+     * @return the worst case error of this table for angles within a few periods
+     */
+    public float maxError() {
+        double step = TWO_PI / size();
+        //plus float rounding of the stored values and of the scaled angle
+        return (float) (step * step / 8.0) + 4 * Math.ulp(1.0f);
+    }
+
+    /**
+     * @param radians the angle
+     * @return the interpolated sine of the angle
+     */
+    public float sin(float radians) {
+        float x = radians * mIndexPerRadian;
+        int i = (int) x;
+        if (x < i) i--;//floor for negative angles
+        float fraction = x - i;
+        i &= mMask;
+        float a = mValues[i];
+        return a + (mValues[i + 1] - a) * fraction;
+    }
+
+    /**
+     * @param radians the angle
+     * @return the interpolated cosine of the angle
+     */
+    public float cos(float radians) {
+        return sin(radians + (float) (Math.PI / 2.0));
+    }
+
+    /**
+     * Sample y=Asin(ωx+φ)+h at x = 0, 1, ... count - 1 without allocating.
+     *
+     * @param out              receives the samples, at least count long
+     * @param count            how many samples
+     * @param amplitude        A
+     * @param angularFrequency ω in radians per sample
+     * @param phase            φ in radians
+     * @param offset           h
+     */
+    public void sample(float[] out, int count, float amplitude, float angularFrequency,
+                       float phase, float offset) {
+        for (int x = 0; x < count; x++) {
+            out[x] = amplitude * sin(angularFrequency * x + phase) + offset;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.zxm.wavelibrary.MathHelper;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * One wave of a {@link WaveModel}, relative to the params of the model:
+ * <p>
+ * amplitude = amplitudeScale * A
+ * wave length = waveLengthScale * λ
+ * shift = speed * s
+ * φ = 2π * offset
+ * <p>
+ * The shift ratio of the animation goes 0 ~ 1 and starts over, a layer only loops
+ * seamlessly if speed * width is a whole number of its wavelengths, e.g. a whole
+ * speed with the default wave length.
+ */
+
+public final class WaveLayer {
+    //ARGB color
+    public final int color;
+    //of the model amplitude
+    public final float amplitudeScale;
+    //of the model wave length
+    public final float waveLengthScale;
+    //of the model shift,negative to move the other way
+    public final float speed;
+    //phase in wavelengths
+    public final float offset;
+
+    private final int mHashCode;
+
+    public WaveLayer(int color, float offset) {
+        this(color, 1f, 1f, 1f, offset);
+    }
+
+    public WaveLayer(int color, float amplitudeScale, float waveLengthScale,
+                     float speed, float offset) {
+        if (waveLengthScale <= 0f) {
+            throw new IllegalArgumentException("waveLengthScale should be > 0");
+        }
+        this.color = color;
+        this.amplitudeScale = amplitudeScale;
+        this.waveLengthScale = waveLengthScale;
+        this.speed = speed;
+        this.offset = offset;
+
+        int result = color;
+        result = 31 * result + Float.floatToIntBits(amplitudeScale);
+        result = 31 * result + Float.floatToIntBits(waveLengthScale);
+        result = 31 * result + Float.floatToIntBits(speed);
+        result = 31 * result + Float.floatToIntBits(offset);
+        mHashCode = result;
+    }
+
+    /**
+     * @return a copy with another color
+     */
+    public WaveLayer withColor(int color) {
+        if (this.color == color) return this;
+        return new WaveLayer(color, amplitudeScale, waveLengthScale, speed, offset);
+    }
+
+    /**
+     * Layers moving together can share one tile and one shader matrix.
+     *
+     * @param layer the other layer
+     * @return true if both have the same wave length and speed
+     */
+    public boolean movesWith(WaveLayer layer) {
+        return Float.floatToIntBits(waveLengthScale) == Float.floatToIntBits(layer.waveLengthScale)
+                && Float.floatToIntBits(speed) == Float.floatToIntBits(layer.speed);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof WaveLayer)) return false;
+        WaveLayer layer = (WaveLayer) o;
+        return color == layer.color
+                && Float.floatToIntBits(amplitudeScale)
+                == Float.floatToIntBits(layer.amplitudeScale)
+                && Float.floatToIntBits(offset) == Float.floatToIntBits(layer.offset)
+                && movesWith(layer);
+    }
+
+    @Override
+    public int hashCode() {
+        return mHashCode;
+    }
+
+    @Override
+    public String toString() {
+        return "WaveLayer{#" + Integer.toHexString(color)
+                + ", amplitude x" + amplitudeScale
+                + ", wave length x" + waveLengthScale
+                + ", speed x" + speed
+                + ", offset " + offset + "}";
+    }
+}
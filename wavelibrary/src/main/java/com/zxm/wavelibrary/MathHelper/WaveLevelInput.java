@@ -0,0 +1,146 @@
+package com.zxm.wavelibrary.MathHelper;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * Water levels streamed from any thread, e.g. sensor or network data at a high rate,
+ * read once per frame.
+ * <p>
+ * {@link #post(float)} only swaps the latest value into one atomic slot, writers never
+ * block and older values are simply overwritten. At most one frame request is
+ * outstanding however often values arrive, {@link #post(float)} tells the caller when
+ * to ask for one. Each frame {@link #update(long)} takes the latest value as the target
+ * and moves the level toward it:
+ * <p>
+ * level += (target - level) * (1 - e^(-dt/τ))
+ * <p>
+ * With τ = 0 the level jumps to the latest value.
+ * <p>
+ * Any thread may post, {@link #update(long)} and the getters belong to one reader thread.
+ */
+
+public final class WaveLevelInput {
+    //the slot holds no new value,float bits never fill the high word
+    private static final long EMPTY = Long.MIN_VALUE;
+    //closer than this to the target counts as there
+    private static final float SETTLE_EPSILON = 1e-4f;
+    //dt of the first frame after a rest,and the longest step ever taken
+    private static final long FIRST_FRAME_NANOS = 1000000000L / 60;
+    private static final long MAX_FRAME_NANOS = 100000000L;
+
+    //latest posted level
+    private final AtomicLong mSlot = new AtomicLong(EMPTY);
+    //a frame has been asked for and has not run yet
+    private final AtomicBoolean mFrameRequested = new AtomicBoolean();
+
+    //reader state
+    private float mLevel;
+    private float mTarget;
+    private long mTimeConstantNanos;
+    private long mLastFrameTimeNanos = -1;
+
+    /**
+     * @param level where the level starts
+     */
+    public WaveLevelInput(float level) {
+        mLevel = level;
+        mTarget = level;
+    }
+
+    /**
+     * Hand over a new level, from any thread.
+     *
+     * @param level the level, replaces any value not read yet
+     * @return true if the caller should request a frame that calls {@link #update(long)}
+     */
+    public boolean post(float level) {
+        mSlot.set(Float.floatToIntBits(level) & 0xffffffffL);
+        return requestFrame();
+    }
+
+    /**
+     * @return true if no frame was requested yet and the caller should request one
+     */
+    public boolean requestFrame() {
+        return mFrameRequested.compareAndSet(false, true);
+    }
+
+    /**
+     * Take the latest value and move toward it, on the reader thread once per frame.
+     *
+     * @param frameTimeNanos the frame time
+     * @return true if the level is not there yet and another frame should be requested
+     */
+    public boolean update(long frameTimeNanos) {
+        //values posted from now on ask for the next frame
+        mFrameRequested.set(false);
+        final long slot = mSlot.getAndSet(EMPTY);
+        if (slot != EMPTY) {
+            mTarget = Float.intBitsToFloat((int) slot);
+        }
+
+        if (mLastFrameTimeNanos < 0) {
+            mLastFrameTimeNanos = frameTimeNanos - FIRST_FRAME_NANOS;
+        }
+        final long dt = Math.max(0, Math.min(MAX_FRAME_NANOS,
+                frameTimeNanos - mLastFrameTimeNanos));
+        mLastFrameTimeNanos = frameTimeNanos;
+
+        if (mTimeConstantNanos <= 0 || Math.abs(mTarget - mLevel) < SETTLE_EPSILON) {
+            mLevel = mTarget;
+        } else {
+            final double fraction = 1.0 - Math.exp(-(double) dt / mTimeConstantNanos);
+            mLevel += (float) ((mTarget - mLevel) * fraction);
+        }
+        if (mLevel == mTarget) {
+            //the next value starts from a rest
+            mLastFrameTimeNanos = -1;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the smoothed level of the last {@link #update(long)}
+     */
+    public float getLevel() {
+        return mLevel;
+    }
+
+    /**
+     * @return the latest value taken by {@link #update(long)}
+     */
+    public float getTarget() {
+        return mTarget;
+    }
+
+    /**
+     * @return true if the level reached the target
+     */
+    public boolean isSettled() {
+        return mLevel == mTarget;
+    }
+
+    /**
+     * Jump to a level, e.g. when it was set by other means. Values not read yet stay.
+     */
+    public void snapTo(float level) {
+        mLevel = level;
+        mTarget = level;
+        mLastFrameTimeNanos = -1;
+    }
+
+    public long getTimeConstantMillis() {
+        return mTimeConstantNanos / 1000000L;
+    }
+
+    /**
+     * @param timeConstantMillis τ, the level covers 63% of the way in this time, 0 to jump
+     */
+    public void setTimeConstantMillis(long timeConstantMillis) {
+        mTimeConstantNanos = Math.max(0, timeConstantMillis) * 1000000L;
+    }
+}
@@ -0,0 +1,289 @@
+package com.zxm.wavelibrary.MathHelper;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * The wave surface of a view as plain math, free of android.graphics,
+ * so it runs and profiles on any JVM.
+ * <p>
+ * y=Asin(ω(x-s)+φ)+h, in view pixels with y pointing down:
+ * A = amplitudeRatio * height
+ * ω = 2π / (waveLengthRatio * width)
+ * s = waveShiftRatio * width
+ * h = (1 - waterLevelRatio) * height
+ * <p>
+ * Each {@link WaveLayer} scales A, the wave length and s, and adds its own φ.
+ * By default there are two layers, the behind wave and the front wave a fifth
+ * of a wavelength ahead of it. Sampling writes into caller buffers and never
+ * allocates. A model is not thread safe.
+ */
+
+public final class WaveModel {
+    //params of water,see WaveView
+    public static final float DEFAULT_AMPLITUDE_RATIO = 0.45f;//默认水位振幅比率
+    public static final float DEFAULT_WATER_LEVEL_RATIO = 0.5f;//默认水位比率
+    public static final float DEFAULT_WAVE_LENGTH_RATIO = 1.0f;//默认波长比率
+    public static final float DEFAULT_WAVE_SHIFT_RATIO = 0.0f;//默认波浪偏移比率
+    //the front wave leads the behind wave by a fifth of a wavelength
+    public static final float FRONT_WAVE_OFFSET = 0.2f;
+
+    private static final double TWO_PI = 2.0 * Math.PI;
+
+    //shared sine lookup
+    private final SineTable mSineTable;
+    //view size in px
+    private int mWidth;
+    private int mHeight;
+    //wave params
+    private float mAmplitudeRatio = DEFAULT_AMPLITUDE_RATIO;
+    private float mWaterLevelRatio = DEFAULT_WATER_LEVEL_RATIO;
+    private float mWaveLengthRatio = DEFAULT_WAVE_LENGTH_RATIO;
+    private float mWaveShiftRatio = DEFAULT_WAVE_SHIFT_RATIO;
+    //behind to front
+    private WaveLayer[] mLayers = {new WaveLayer(0, 0f), new WaveLayer(0, FRONT_WAVE_OFFSET)};
+    private int mLayerCount = 2;
+
+    public WaveModel() {
+        this(SineTable.getDefault());
+    }
+
+    public WaveModel(SineTable sineTable) {
+        if (sineTable == null) {
+            throw new IllegalArgumentException("sineTable == null");
+        }
+        mSineTable = sineTable;
+    }
+
+    /**
+     * @param width  view width in px
+     * @param height view height in px
+     */
+    public void setSize(int width, int height) {
+        mWidth = width;
+        mHeight = height;
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+
+    public float getAmplitudeRatio() {
+        return mAmplitudeRatio;
+    }
+
+    /**
+     * @param amplitudeRatio ratio of amplitude to height
+     */
+    public void setAmplitudeRatio(float amplitudeRatio) {
+        mAmplitudeRatio = amplitudeRatio;
+    }
+
+    public float getWaterLevelRatio() {
+        return mWaterLevelRatio;
+    }
+
+    /**
+     * @param waterLevelRatio ratio of water level to height, 0 empty and 1 full
+     */
+    public void setWaterLevelRatio(float waterLevelRatio) {
+        mWaterLevelRatio = waterLevelRatio;
+    }
+
+    public float getWaveLengthRatio() {
+        return mWaveLengthRatio;
+    }
+
+    /**
+     * @param waveLengthRatio ratio of wave length to width
+     */
+    public void setWaveLengthRatio(float waveLengthRatio) {
+        mWaveLengthRatio = waveLengthRatio;
+    }
+
+    public float getWaveShiftRatio() {
+        return mWaveShiftRatio;
+    }
+
+    /**
+     * @param waveShiftRatio ratio of horizontal shift to width
+     */
+    public void setWaveShiftRatio(float waveShiftRatio) {
+        mWaveShiftRatio = waveShiftRatio;
+    }
+
+    public int getLayerCount() {
+        return mLayerCount;
+    }
+
+    /**
+     * Replace the layers, behind to front.
+     *
+     * @param layers at least one layer
+     */
+    public void setLayers(WaveLayer... layers) {
+        if (layers.length == 0) {
+            throw new IllegalArgumentException("no layers");
+        }
+        if (mLayers.length < layers.length) {
+            mLayers = new WaveLayer[layers.length];
+        }
+        System.arraycopy(layers, 0, mLayers, 0, layers.length);
+        //drop stale references
+        for (int i = layers.length; i < mLayerCount; i++) {
+            mLayers[i] = null;
+        }
+        mLayerCount = layers.length;
+    }
+
+    /**
+     * @param layer the layer index
+     * @return the layer
+     */
+    public WaveLayer getLayer(int layer) {
+        checkLayer(layer);
+        return mLayers[layer];
+    }
+
+    /**
+     * @return A in px
+     */
+    public float getAmplitude() {
+        return mAmplitudeRatio * mHeight;
+    }
+
+    /**
+     * @return h in px from the top
+     */
+    public float getWaterLevel() {
+        return (1f - mWaterLevelRatio) * mHeight;
+    }
+
+    /**
+     * @return one wavelength in px
+     */
+    public float getWaveLength() {
+        return mWaveLengthRatio * mWidth;
+    }
+
+    /**
+     * @return ω in radians per px
+     */
+    public float getAngularFrequency() {
+        return (float) (TWO_PI / getWaveLength());
+    }
+
+    /**
+     * @return s in px
+     */
+    public float getWaveShift() {
+        return mWaveShiftRatio * mWidth;
+    }
+
+    /**
+     * @return the highest point of any layer, px from the top
+     */
+    public float getCrest() {
+        return getWaterLevel() - getMaxAmplitude();
+    }
+
+    /**
+     * @return the lowest point of any layer, px from the top
+     */
+    public float getTrough() {
+        return getWaterLevel() + getMaxAmplitude();
+    }
+
+    //largest |amplitude| of the layers
+    private float getMaxAmplitude() {
+        float scale = 0f;
+        for (int i = 0; i < mLayerCount; i++) {
+            scale = Math.max(scale, Math.abs(mLayers[i].amplitudeScale));
+        }
+        return Math.abs(getAmplitude()) * scale;
+    }
+
+    /**
+     * @param layer the layer index
+     * @param x     px from the left
+     * @return the surface y of the layer at x, px from the top
+     */
+    public float heightAt(int layer, float x) {
+        checkLayer(layer);
+        final WaveLayer waveLayer = mLayers[layer];
+        final float frequency = getAngularFrequency() / waveLayer.waveLengthScale;
+        return getAmplitude() * waveLayer.amplitudeScale
+                * mSineTable.sin(frequency * (x - getWaveShift() * waveLayer.speed)
+                + phaseOf(waveLayer))
+                + getWaterLevel();
+    }
+
+    /**
+     * Sample one layer at x = startX + i * stepX for i in [0, count).
+     *
+     * @param layer  the layer index
+     * @param out    receives the surface y values, at least count long
+     * @param count  how many samples
+     * @param startX x of the first sample in px
+     * @param stepX  px between samples
+     */
+    public void sampleLayer(int layer, float[] out, int count, float startX, float stepX) {
+        checkLayer(layer);
+        final WaveLayer waveLayer = mLayers[layer];
+        final float frequency = getAngularFrequency() / waveLayer.waveLengthScale;
+        mSineTable.sample(out, count, getAmplitude() * waveLayer.amplitudeScale,
+                frequency * stepX,
+                frequency * (startX - getWaveShift() * waveLayer.speed) + phaseOf(waveLayer),
+                getWaterLevel());
+    }
+
+    /**
+     * Sample one layer at every px column, x = 0, 1, ... count - 1.
+     */
+    public void sampleLayer(int layer, float[] out, int count) {
+        sampleLayer(layer, out, count, 0f, 1f);
+    }
+
+    /**
+     * Sample every layer at every px column, layer after layer:
+     * out[layer * count + x] is the surface y of the layer at x.
+     *
+     * @param out   at least {@link #getLayerCount()} * count long
+     * @param count samples per layer
+     */
+    public void sampleLayers(float[] out, int count) {
+        if (out.length < mLayerCount * count) {
+            throw new IllegalArgumentException("out is shorter than "
+                    + mLayerCount + " x " + count);
+        }
+        final float angularFrequency = getAngularFrequency();
+        final float amplitude = getAmplitude();
+        final float waterLevel = getWaterLevel();
+        final float shift = getWaveShift();
+        final float[] values = out;
+        for (int layer = 0; layer < mLayerCount; layer++) {
+            final WaveLayer waveLayer = mLayers[layer];
+            final int base = layer * count;
+            final float frequency = angularFrequency / waveLayer.waveLengthScale;
+            final float layerAmplitude = amplitude * waveLayer.amplitudeScale;
+            final float phase = phaseOf(waveLayer) - frequency * shift * waveLayer.speed;
+            for (int x = 0; x < count; x++) {
+                values[base + x] = layerAmplitude * mSineTable.sin(frequency * x + phase)
+                        + waterLevel;
+            }
+        }
+    }
+
+    private static float phaseOf(WaveLayer layer) {
+        return (float) (TWO_PI * layer.offset);
+    }
+
+    private void checkLayer(int layer) {
+        if (layer < 0 || layer >= mLayerCount) {
+            throw new IndexOutOfBoundsException("layer " + layer + " of " + mLayerCount);
+        }
+    }
+}
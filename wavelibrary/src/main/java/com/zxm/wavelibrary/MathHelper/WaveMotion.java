@@ -0,0 +1,117 @@
+package com.zxm.wavelibrary.MathHelper;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * The wave animation as plain functions of play time, so every view can be
+ * stepped from one clock without animator objects.
+ * <p>
+ * shift: 0 ~ 1 linearly, repeats forever.
+ * amplitude: between two ratios linearly, back and forth forever.
+ * water level: optional, from one ratio to another once, decelerating.
+ */
+
+public final class WaveMotion {
+    //horizontal animation
+    private final long mShiftDuration;
+    //amplitude animation
+    private final float mAmplitudeFrom;
+    private final float mAmplitudeTo;
+    private final long mAmplitudeDuration;
+    //vertical animation,mLevelDuration <= 0 means the level is not animated
+    private final float mLevelFrom;
+    private final float mLevelTo;
+    private final long mLevelDuration;
+
+    public WaveMotion(long shiftDuration,
+                      float amplitudeFrom, float amplitudeTo, long amplitudeDuration,
+                      float levelFrom, float levelTo, long levelDuration) {
+        mShiftDuration = Math.max(1, shiftDuration);
+        mAmplitudeFrom = amplitudeFrom;
+        mAmplitudeTo = amplitudeTo;
+        mAmplitudeDuration = Math.max(1, amplitudeDuration);
+        mLevelFrom = levelFrom;
+        mLevelTo = levelTo;
+        mLevelDuration = levelDuration;
+    }
+
+    /**
+     * The loading animation: water rises from empty to full while waving.
+     *
+     * @param duration how long the water level animation should last in ms
+     */
+    public static WaveMotion loading(long duration) {
+        return new WaveMotion(800, 0.0001f, 0.05f, 5000, 0.0f, 1.0f, duration);
+    }
+
+    /**
+     * The water ripple background: the level stays where it is.
+     *
+     * @param duration how long the water shift animation should last in ms
+     */
+    public static WaveMotion background(long duration) {
+        return new WaveMotion(duration, 0.01f, 0.03f, 5000, 0f, 0f, 0);
+    }
+
+    /**
+     * @param playTime ms since the animation started
+     * @return the wave shift ratio, 0 ~ 1
+     */
+    public float getWaveShiftRatio(long playTime) {
+        return (float) (playTime % mShiftDuration) / mShiftDuration;
+    }
+
+    /**
+     * @param playTime ms since the animation started
+     * @return the amplitude ratio
+     */
+    public float getAmplitudeRatio(long playTime) {
+        long cycle = playTime / mAmplitudeDuration;
+        float fraction = (float) (playTime % mAmplitudeDuration) / mAmplitudeDuration;
+        //reverse every other cycle
+        if ((cycle & 1) == 1) {
+            fraction = 1f - fraction;
+        }
+        return mAmplitudeFrom + (mAmplitudeTo - mAmplitudeFrom) * fraction;
+    }
+
+    /**
+     * @return true if the water level is animated
+     */
+    public boolean hasWaterLevel() {
+        return mLevelDuration > 0;
+    }
+
+    /**
+     * @param playTime ms since the animation started
+     * @return the water level ratio, only valid if {@link #hasWaterLevel()}
+     */
+    public float getWaterLevelRatio(long playTime) {
+        if (playTime >= mLevelDuration) return mLevelTo;
+        float fraction = (float) playTime / mLevelDuration;
+        //same curve as DecelerateInterpolator
+        fraction = 1f - (1f - fraction) * (1f - fraction);
+        return mLevelFrom + (mLevelTo - mLevelFrom) * fraction;
+    }
+
+    /**
+     * @return the shift ratio an ended animation shows, a whole period
+     */
+    public float getEndWaveShiftRatio() {
+        return 1f;
+    }
+
+    /**
+     * @return the amplitude ratio an ended animation shows
+     */
+    public float getEndAmplitudeRatio() {
+        return mAmplitudeTo;
+    }
+
+    /**
+     * @return the final water level ratio
+     */
+    public float getEndWaterLevelRatio() {
+        return mLevelTo;
+    }
+}
@@ -0,0 +1,310 @@
+package com.zxm.wavelibrary.MathHelper;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * A water surface that reacts to touches and tilt: a row of spring columns coupled
+ * to their neighbours, i.e. the damped 1D wave equation
+ * <p>
+ * u = h - rest, u'' = c²·∂²u/∂x² - k·u - d·u'
+ * <p>
+ * c = wave speed, k = stiffness, d = damping
+ * <p>
+ * Heights are ratios of the view height above the water level, positive is up.
+ * The rest shape is flat, or sloped by {@link #setTilt(float)}, the offsets from it
+ * reflect at the ends.
+ * <p>
+ * Stepped with semi-implicit Euler at a fixed rate, a whole multiple of
+ * {@link #MIN_STEP_RATE} fast enough for the wave speed to stay stable, so
+ * 60 and 120 Hz frames take a whole number of steps. The state is two float
+ * arrays, stepping never allocates. A surface is not thread safe.
+ */
+
+public final class WaveSurface {
+    //steps per second at least,a multiple of 60 and 120 Hz frames
+    public static final int MIN_STEP_RATE = 240;
+
+    public static final float DEFAULT_WAVE_SPEED = 1f;//默认波速，每秒经过的宽度
+    public static final float DEFAULT_STIFFNESS = 20f;//默认回复刚度
+    public static final float DEFAULT_DAMPING = 2f;//默认阻尼
+    public static final float DEFAULT_MAX_HEIGHT = 0.1f;//默认最大高度比率
+
+    //longest time one advance catches up with
+    private static final long MAX_ADVANCE_NANOS = 100000000L;
+    private static final long NANOS_PER_SECOND = 1000000000L;
+    //a surface this close to rest and this slow is at rest
+    private static final float REST_HEIGHT = 1e-5f;
+    private static final float REST_VELOCITY = 1e-4f;
+
+    private final int mColumns;
+    private final float[] mHeights;
+    private final float[] mVelocities;
+
+    private float mWaveSpeed = DEFAULT_WAVE_SPEED;
+    private float mStiffness = DEFAULT_STIFFNESS;
+    private float mDamping = DEFAULT_DAMPING;
+    private float mMaxHeight = DEFAULT_MAX_HEIGHT;
+    //height of the right end minus the left end at rest
+    private float mTilt;
+
+    private int mStepRate;
+    private float mStepSeconds;
+    //elapsed nanos times the step rate not stepped yet
+    private long mPending;
+    private boolean mAtRest = true;
+    //bumped whenever the heights change
+    private int mChangeCount;
+
+    /**
+     * @param columns columns across the surface, at least 2
+     */
+    public WaveSurface(int columns) {
+        if (columns < 2) {
+            throw new IllegalArgumentException("columns should be >= 2");
+        }
+        mColumns = columns;
+        mHeights = new float[columns];
+        mVelocities = new float[columns];
+        updateStepRate();
+    }
+
+    //fast enough that the stiffest mode turns less than a radian per step
+    private void updateStepRate() {
+        final double c = mWaveSpeed * mColumns;
+        final double omega = Math.sqrt(4 * c * c + Math.max(0f, mStiffness));
+        final int steps = (int) Math.ceil(omega / MIN_STEP_RATE);
+        mStepRate = Math.max(1, steps) * MIN_STEP_RATE;
+        mStepSeconds = 1f / mStepRate;
+    }
+
+    public int getColumnCount() {
+        return mColumns;
+    }
+
+    /**
+     * @param column 0 ~ {@link #getColumnCount()}
+     * @return the height as a ratio of the view height, positive is up
+     */
+    public float heightAt(int column) {
+        return mHeights[column];
+    }
+
+    public float velocityAt(int column) {
+        return mVelocities[column];
+    }
+
+    /**
+     * @return steps per second
+     */
+    public int getStepRate() {
+        return mStepRate;
+    }
+
+    public float getWaveSpeed() {
+        return mWaveSpeed;
+    }
+
+    /**
+     * @param waveSpeed surface widths a ripple travels per second, more steps are
+     *                  taken the faster it is
+     */
+    public void setWaveSpeed(float waveSpeed) {
+        if (waveSpeed < 0f) {
+            throw new IllegalArgumentException("waveSpeed should be >= 0");
+        }
+        mWaveSpeed = waveSpeed;
+        updateStepRate();
+    }
+
+    public float getStiffness() {
+        return mStiffness;
+    }
+
+    /**
+     * @param stiffness pull of every column back to rest, (2π·Hz)² of the bobbing
+     */
+    public void setStiffness(float stiffness) {
+        if (stiffness < 0f) {
+            throw new IllegalArgumentException("stiffness should be >= 0");
+        }
+        mStiffness = stiffness;
+        updateStepRate();
+    }
+
+    public float getDamping() {
+        return mDamping;
+    }
+
+    /**
+     * @param damping velocity lost per second, 0 never calms down
+     */
+    public void setDamping(float damping) {
+        if (damping < 0f) {
+            throw new IllegalArgumentException("damping should be >= 0");
+        }
+        mDamping = damping;
+    }
+
+    public float getMaxHeight() {
+        return mMaxHeight;
+    }
+
+    /**
+     * @param maxHeight no column rises or sinks further, a ratio of the view height
+     */
+    public void setMaxHeight(float maxHeight) {
+        if (maxHeight <= 0f) {
+            throw new IllegalArgumentException("maxHeight should be > 0");
+        }
+        mMaxHeight = maxHeight;
+    }
+
+    public float getTilt() {
+        return mTilt;
+    }
+
+    /**
+     * Slope the rest shape, e.g. from the accelerometer: the water sloshes over.
+     *
+     * @param tilt height of the right end minus the left end at rest, a ratio of the
+     *             view height, e.g. sideways acceleration / g * width / height.
+     *             Kept within twice {@link #getMaxHeight()}
+     */
+    public void setTilt(float tilt) {
+        tilt = Math.max(-2f * mMaxHeight, Math.min(2f * mMaxHeight, tilt));
+        if (mTilt != tilt) {
+            mTilt = tilt;
+            mAtRest = false;
+        }
+    }
+
+    /**
+     * Push the surface around one point, e.g. where it was touched.
+     *
+     * @param position 0 ~ 1 from the left end
+     * @param velocity added at the point, view heights per second, positive is up
+     * @param radius   0 ~ 1 of the width, falls off as a cosine bell
+     */
+    public void impulse(float position, float velocity, float radius) {
+        final int last = mColumns - 1;
+        final float center = position * last;
+        final float reach = Math.max(1f, radius * last);
+        final int from = Math.max(0, (int) Math.ceil(center - reach));
+        final int to = Math.min(last, (int) Math.floor(center + reach));
+        final float[] velocities = mVelocities;
+        for (int i = from; i <= to; i++) {
+            final double weight = 0.5 * (1.0 + Math.cos(Math.PI * (i - center) / reach));
+            velocities[i] += (float) (velocity * weight);
+        }
+        if (from <= to) {
+            mAtRest = false;
+        }
+    }
+
+    /**
+     * Flatten the surface to its rest shape.
+     */
+    public void reset() {
+        final float[] heights = mHeights;
+        for (int i = 0; i < mColumns; i++) {
+            heights[i] = restAt(i);
+            mVelocities[i] = 0f;
+        }
+        mPending = 0;
+        mAtRest = true;
+        mChangeCount++;
+    }
+
+    private float restAt(int column) {
+        return mTilt * ((float) column / (mColumns - 1) - 0.5f);
+    }
+
+    /**
+     * @return bumped by every step and reset, equal counts mean equal heights
+     */
+    public int getChangeCount() {
+        return mChangeCount;
+    }
+
+    /**
+     * @return true if nothing moves, stepping would not change a thing
+     */
+    public boolean isAtRest() {
+        return mAtRest;
+    }
+
+    /**
+     * Catch up with the time that passed, in fixed steps.
+     *
+     * @param elapsedNanos since the last advance, at most 100 ms are stepped
+     * @return the steps taken, the rest is carried to the next advance
+     */
+    public int advance(long elapsedNanos) {
+        if (mAtRest) {
+            //nothing to catch up with once something moves
+            mPending = 0;
+            return 0;
+        }
+        final long nanos = Math.max(0, Math.min(MAX_ADVANCE_NANOS, elapsedNanos));
+        mPending += nanos * mStepRate;
+        final int steps = (int) (mPending / NANOS_PER_SECOND);
+        mPending -= steps * NANOS_PER_SECOND;
+        for (int i = 0; i < steps && !mAtRest; i++) {
+            step();
+        }
+        return steps;
+    }
+
+    /**
+     * Take one step of 1 / {@link #getStepRate()} seconds.
+     */
+    public void step() {
+        final int columns = mColumns;
+        final int last = columns - 1;
+        final float[] heights = mHeights;
+        final float[] velocities = mVelocities;
+        final float dt = mStepSeconds;
+        //c² in columns per second,one column apart
+        final float c = mWaveSpeed * columns;
+        final float tension = c * c;
+        final float stiffness = mStiffness;
+        final float damping = mDamping;
+        final float tiltStep = mTilt / last;
+        final float tiltStart = -0.5f * mTilt;
+
+        //velocities first,from the heights of the previous step.
+        //tension pulls on the offsets from the rest shape,so a tilted plane is at rest
+        float left = heights[0] - tiltStart;
+        float center = left;
+        for (int i = 0; i < columns; i++) {
+            final float right = i < last ? heights[i + 1] - tiltStart - tiltStep * (i + 1)
+                    : center;
+            final float accel = tension * (left + right - 2f * center)
+                    - stiffness * center
+                    - damping * velocities[i];
+            velocities[i] += accel * dt;
+            left = center;
+            center = right;
+        }
+
+        final float maxHeight = mMaxHeight;
+        boolean calm = true;
+        for (int i = 0; i < columns; i++) {
+            float velocity = velocities[i];
+            float height = heights[i] + velocity * dt;
+            if (height > maxHeight || height < -maxHeight) {
+                //the column hits the container
+                height = height > 0 ? maxHeight : -maxHeight;
+                velocity = 0f;
+                velocities[i] = 0f;
+            }
+            heights[i] = height;
+            final float rest = tiltStart + tiltStep * i;
+            calm &= Math.abs(velocity) < REST_VELOCITY && Math.abs(height - rest) < REST_HEIGHT;
+        }
+        mChangeCount++;
+        if (calm) {
+            reset();
+        }
+    }
+}
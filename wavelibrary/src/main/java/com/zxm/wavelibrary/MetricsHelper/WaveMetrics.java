@@ -0,0 +1,272 @@
+package com.zxm.wavelibrary.MetricsHelper;
+
+import java.util.Arrays;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * Opt-in counters of what the waves cost, for every view and drawable in the process:
+ * how long shader updates, tile generation and draws take, how many tile bytes were
+ * allocated, frames drawn versus skipped and cache hits.
+ * <p>
+ * Off by default. While off the call sites only read one volatile flag and never
+ * take the time, so it can stay compiled into release builds. Read the counters with
+ * {@link #snapshot()}, or get told of every tile with a {@link Listener}.
+ * <p>
+ * The trace section names are used with {@link android.os.Trace}, so shader builds and
+ * draws show up in Perfetto and systrace whether or not the counters are on.
+ * <p>
+ * Plain Java and thread safe, tiles are recorded on background threads.
+ */
+
+public final class WaveMetrics {
+    //trace sections
+    public static final String TRACE_CREATE_SHADER = "Wave#createShader";
+    public static final String TRACE_GENERATE_TILE = "Wave#generateTile";
+    public static final String TRACE_BAKE_ATLAS = "Wave#bakeAtlas";
+    public static final String TRACE_DRAW = "Wave#draw";
+
+    //upper bounds of the draw time buckets,the last bucket is unbounded
+    private static final long[] DRAW_BUCKET_BOUNDS_NANOS = {
+            125000L, 250000L, 500000L, 1000000L, 2000000L, 4000000L, 8000000L, 16000000L};
+    public static final int DRAW_BUCKET_COUNT = DRAW_BUCKET_BOUNDS_NANOS.length + 1;
+
+    private static final WaveMetrics sInstance = new WaveMetrics();
+
+    private volatile boolean mEnabled;
+    private volatile Listener mListener;
+
+    private long mShaderUpdateCount;
+    private long mShaderUpdateNanos;
+    private long mTileCount;
+    private long mTileNanos;
+    private long mTileBytes;
+    private long mDrawCount;
+    private long mDrawNanos;
+    private long mMaxDrawNanos;
+    private final long[] mDrawBuckets = new long[DRAW_BUCKET_COUNT];
+    private long mFramesDrawn;
+    private long mFramesSkipped;
+    private long mCacheHits;
+    private long mCacheMisses;
+
+    public static WaveMetrics getInstance() {
+        return sInstance;
+    }
+
+    private WaveMetrics() {
+    }
+
+    public boolean isEnabled() {
+        return mEnabled;
+    }
+
+    /**
+     * @param enabled if true,start counting, the counters are kept when turned off
+     */
+    public void setEnabled(boolean enabled) {
+        mEnabled = enabled;
+    }
+
+    /**
+     * @param listener told of every tile generated while enabled, null to remove
+     */
+    public void setListener(Listener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * A view or drawable acquired its shaders on the main thread.
+     *
+     * @param durationNanos how long it took, including tiles drawn in place
+     */
+    public synchronized void recordShaderUpdate(long durationNanos) {
+        mShaderUpdateCount++;
+        mShaderUpdateNanos += durationNanos;
+    }
+
+    /**
+     * A tile bitmap was drawn, on any thread.
+     *
+     * @param durationNanos how long allocating and drawing it took
+     * @param bytes         bytes of the new bitmap, 0 if a pooled one was reused
+     */
+    public void recordTile(long durationNanos, long bytes) {
+        synchronized (this) {
+            mTileCount++;
+            mTileNanos += durationNanos;
+            mTileBytes += bytes;
+        }
+        final Listener listener = mListener;
+        if (listener != null) {
+            listener.onTileGenerated(durationNanos, bytes);
+        }
+    }
+
+    /**
+     * @param durationNanos how long one draw of a view or drawable took
+     */
+    public synchronized void recordDraw(long durationNanos) {
+        mDrawCount++;
+        mDrawNanos += durationNanos;
+        mMaxDrawNanos = Math.max(mMaxDrawNanos, durationNanos);
+        mDrawBuckets[bucketOf(durationNanos)]++;
+    }
+
+    //first bucket whose bound is not below the duration
+    static int bucketOf(long durationNanos) {
+        final long[] bounds = DRAW_BUCKET_BOUNDS_NANOS;
+        for (int i = 0; i < bounds.length; i++) {
+            if (durationNanos <= bounds[i]) return i;
+        }
+        return bounds.length;
+    }
+
+    /**
+     * @param bucket from 0 to {@link #DRAW_BUCKET_COUNT}
+     * @return the longest draw counted in the bucket, {@link Long#MAX_VALUE} for the last
+     */
+    public static long getDrawBucketBoundNanos(int bucket) {
+        if (bucket >= DRAW_BUCKET_BOUNDS_NANOS.length) return Long.MAX_VALUE;
+        return DRAW_BUCKET_BOUNDS_NANOS[bucket];
+    }
+
+    /**
+     * An animator stepped the waves for a frame.
+     */
+    public synchronized void recordFrameDrawn() {
+        mFramesDrawn++;
+    }
+
+    /**
+     * @param count vsyncs an animator let pass, throttled or while the waves were hidden
+     */
+    public synchronized void recordFramesSkipped(long count) {
+        mFramesSkipped += count;
+    }
+
+    /**
+     * @param hit true if a tile came from the cache, false if it had to be drawn
+     */
+    public synchronized void recordCacheLookup(boolean hit) {
+        if (hit) {
+            mCacheHits++;
+        } else {
+            mCacheMisses++;
+        }
+    }
+
+    /**
+     * @return the counters since the start or the last {@link #reset()}
+     */
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * Set every counter back to 0.
+     */
+    public synchronized void reset() {
+        mShaderUpdateCount = mShaderUpdateNanos = 0;
+        mTileCount = mTileNanos = mTileBytes = 0;
+        mDrawCount = mDrawNanos = mMaxDrawNanos = 0;
+        Arrays.fill(mDrawBuckets, 0);
+        mFramesDrawn = mFramesSkipped = 0;
+        mCacheHits = mCacheMisses = 0;
+    }
+
+    /**
+     * The counters at one point in time.
+     */
+    public static final class Snapshot {
+        public final long shaderUpdateCount;
+        public final long shaderUpdateNanos;
+        public final long tileCount;
+        public final long tileNanos;
+        public final long tileBytes;
+        public final long drawCount;
+        public final long drawNanos;
+        public final long maxDrawNanos;
+        public final long framesDrawn;
+        public final long framesSkipped;
+        public final long cacheHits;
+        public final long cacheMisses;
+        private final long[] mDrawBuckets;
+
+        private Snapshot(WaveMetrics metrics) {
+            shaderUpdateCount = metrics.mShaderUpdateCount;
+            shaderUpdateNanos = metrics.mShaderUpdateNanos;
+            tileCount = metrics.mTileCount;
+            tileNanos = metrics.mTileNanos;
+            tileBytes = metrics.mTileBytes;
+            drawCount = metrics.mDrawCount;
+            drawNanos = metrics.mDrawNanos;
+            maxDrawNanos = metrics.mMaxDrawNanos;
+            framesDrawn = metrics.mFramesDrawn;
+            framesSkipped = metrics.mFramesSkipped;
+            cacheHits = metrics.mCacheHits;
+            cacheMisses = metrics.mCacheMisses;
+            mDrawBuckets = metrics.mDrawBuckets.clone();
+        }
+
+        /**
+         * @param bucket from 0 to {@link #DRAW_BUCKET_COUNT},
+         *               see {@link #getDrawBucketBoundNanos(int)}
+         * @return draws counted in the bucket
+         */
+        public long getDrawCount(int bucket) {
+            return mDrawBuckets[bucket];
+        }
+
+        /**
+         * @param percentile 0 ~ 1, e.g. 0.9 for the 90th percentile
+         * @return the bound of the bucket holding that draw, 0 without draws
+         */
+        public long getDrawPercentileNanos(float percentile) {
+            if (drawCount == 0) return 0;
+            final long rank = (long) Math.ceil(percentile * drawCount);
+            long count = 0;
+            for (int i = 0; i < mDrawBuckets.length; i++) {
+                count += mDrawBuckets[i];
+                if (count >= rank) {
+                    return Math.min(getDrawBucketBoundNanos(i), maxDrawNanos);
+                }
+            }
+            return maxDrawNanos;
+        }
+
+        /**
+         * @return share of tile lookups served from the cache, 0 ~ 1
+         */
+        public float getCacheHitRate() {
+            final long lookups = cacheHits + cacheMisses;
+            return lookups == 0 ? 0f : (float) cacheHits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return "WaveMetrics{shader updates " + shaderUpdateCount
+                    + " in " + shaderUpdateNanos / 1000 + "us"
+                    + ", tiles " + tileCount + " in " + tileNanos / 1000 + "us"
+                    + ", " + tileBytes + " bytes"
+                    + ", draws " + drawCount + " in " + drawNanos / 1000 + "us"
+                    + ", p90 " + getDrawPercentileNanos(0.9f) / 1000 + "us"
+                    + ", max " + maxDrawNanos / 1000 + "us"
+                    + ", frames " + framesDrawn + " drawn " + framesSkipped + " skipped"
+                    + ", cache " + cacheHits + " hits " + cacheMisses + " misses}";
+        }
+    }
+
+    /**
+     * Told of every tile generated while the metrics are enabled.
+     */
+    public interface Listener {
+        /**
+         * Called on the thread that drew the tile.
+         *
+         * @param durationNanos how long allocating and drawing it took
+         * @param bytes         bytes of the new bitmap, 0 if a pooled one was reused
+         */
+        void onTileGenerated(long durationNanos, long bytes);
+    }
+}
@@ -0,0 +1,125 @@
+package com.zxm.wavelibrary.ShaderHelper;
+
+import com.zxm.wavelibrary.MathHelper.WaveLayer;
+import com.zxm.wavelibrary.MathHelper.WaveModel;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * AGSL source of the GPU wave and the layout of its uniforms.
+ * <p>
+ * The fragment shader evaluates y=Asin(ω(x-s)+φ)+h of every layer at the pixel,
+ * the same as {@link WaveModel}, and stacks the layers source over. Edges are
+ * antialiased over one pixel. Coordinates are view pixels, so the shader needs no
+ * local matrix.
+ * <p>
+ * Plain Java, the source and the packing are checked on the JVM.
+ */
+
+public final class WaveAgsl {
+    //uniform arrays are fixed size in AGSL
+    public static final int MAX_LAYERS = 8;
+    //floats per layer in the array uniforms
+    public static final int LAYER_STRIDE = 4;
+
+    //float: A in px
+    public static final String UNIFORM_AMPLITUDE = "uAmplitude";
+    //float: one wavelength in px
+    public static final String UNIFORM_WAVE_LENGTH = "uWaveLength";
+    //float: s in px
+    public static final String UNIFORM_SHIFT = "uShift";
+    //float: h in px from the top
+    public static final String UNIFORM_WATER_LEVEL = "uWaterLevel";
+    //int: layers in use
+    public static final String UNIFORM_LAYER_COUNT = "uLayerCount";
+    //float4[MAX_LAYERS]: amplitude scale, wave length scale, speed, offset
+    public static final String UNIFORM_LAYERS = "uLayers";
+    //float4[MAX_LAYERS]: premultiplied r, g, b, a
+    public static final String UNIFORM_COLORS = "uColors";
+
+    public static final String SOURCE = ""
+            + "uniform float " + UNIFORM_AMPLITUDE + ";\n"
+            + "uniform float " + UNIFORM_WAVE_LENGTH + ";\n"
+            + "uniform float " + UNIFORM_SHIFT + ";\n"
+            + "uniform float " + UNIFORM_WATER_LEVEL + ";\n"
+            + "uniform int " + UNIFORM_LAYER_COUNT + ";\n"
+            + "uniform float4 " + UNIFORM_LAYERS + "[" + MAX_LAYERS + "];\n"
+            + "uniform float4 " + UNIFORM_COLORS + "[" + MAX_LAYERS + "];\n"
+            + "\n"
+            + "const float TWO_PI = 6.283185307179586;\n"
+            + "\n"
+            + "half4 main(float2 fragCoord) {\n"
+            + "    half4 color = half4(0);\n"
+            + "    for (int i = 0; i < " + MAX_LAYERS + "; i++) {\n"
+            + "        if (i >= " + UNIFORM_LAYER_COUNT + ") {\n"
+            + "            break;\n"
+            + "        }\n"
+            + "        float4 layer = " + UNIFORM_LAYERS + "[i];\n"
+            + "        float cycles = (fragCoord.x - " + UNIFORM_SHIFT + " * layer.z)\n"
+            + "                / (" + UNIFORM_WAVE_LENGTH + " * layer.y) + layer.w;\n"
+            + "        float surface = " + UNIFORM_AMPLITUDE + " * layer.x"
+            + " * sin(TWO_PI * fract(cycles))\n"
+            + "                + " + UNIFORM_WATER_LEVEL + ";\n"
+            + "        half coverage = half(clamp(fragCoord.y - surface + 0.5, 0.0, 1.0));\n"
+            + "        half4 src = half4(" + UNIFORM_COLORS + "[i]) * coverage;\n"
+            + "        color = src + color * (1.0 - src.a);\n"
+            + "    }\n"
+            + "    return color;\n"
+            + "}\n";
+
+    private WaveAgsl() {
+    }
+
+    /**
+     * @param layerCount layers of the model
+     * @return true if the shader can draw that many layers
+     */
+    public static boolean supports(int layerCount) {
+        return layerCount > 0 && layerCount <= MAX_LAYERS;
+    }
+
+    /**
+     * Fill the array uniforms from the layers of the model.
+     *
+     * @param model  the waves, at most {@link #MAX_LAYERS} layers
+     * @param layers receives {@link #UNIFORM_LAYERS}, MAX_LAYERS * LAYER_STRIDE long
+     * @param colors receives {@link #UNIFORM_COLORS}, MAX_LAYERS * LAYER_STRIDE long
+     */
+    public static void packLayers(WaveModel model, float[] layers, float[] colors) {
+        final int count = model.getLayerCount();
+        if (!supports(count)) {
+            throw new IllegalArgumentException(count + " layers, at most " + MAX_LAYERS);
+        }
+        for (int i = 0; i < MAX_LAYERS; i++) {
+            final int base = i * LAYER_STRIDE;
+            if (i >= count) {
+                //unused slots stay transparent
+                layers[base] = 0f;
+                layers[base + 1] = 1f;
+                layers[base + 2] = 0f;
+                layers[base + 3] = 0f;
+                colors[base] = colors[base + 1] = colors[base + 2] = colors[base + 3] = 0f;
+                continue;
+            }
+            WaveLayer layer = model.getLayer(i);
+            layers[base] = layer.amplitudeScale;
+            layers[base + 1] = layer.waveLengthScale;
+            layers[base + 2] = layer.speed;
+            layers[base + 3] = layer.offset;
+            packColor(layer.color, colors, base);
+        }
+    }
+
+    /**
+     * @param color ARGB color
+     * @param out   receives premultiplied r, g, b, a in 0 ~ 1
+     * @param index where r goes
+     */
+    public static void packColor(int color, float[] out, int index) {
+        final float alpha = (color >>> 24) / 255f;
+        out[index] = ((color >> 16) & 0xff) / 255f * alpha;
+        out[index + 1] = ((color >> 8) & 0xff) / 255f * alpha;
+        out[index + 2] = (color & 0xff) / 255f * alpha;
+        out[index + 3] = alpha;
+    }
+}
@@ -0,0 +1,89 @@
+package com.zxm.wavelibrary.ShaderHelper;
+
+import android.graphics.Bitmap;
+import android.os.Process;
+import android.os.Trace;
+
+import com.zxm.wavelibrary.MetricsHelper.WaveMetrics;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * Process-wide cache of frame atlases, see {@link WaveAtlasKey}.
+ * <p>
+ * Like {@link WaveShaderCache}, atlases are reference-counted and views with the same
+ * key share one bitmap, see {@link WaveBitmapCache}. Once the last holder releases an
+ * atlas it stays idle in an LRU bounded by {@link #setMaxIdleBytes(int)}, so a view
+ * coming back, e.g. a loading indicator shown again, skips the bake.
+ * <p>
+ * Atlases are baked one at a time on a single background thread, an atlas is many
+ * tiles worth of drawing and should not compete with the tiles views wait on.
+ * Concurrent requests for one key share a single bake.
+ */
+
+public class WaveAtlasCache extends WaveBitmapCache<WaveAtlasKey> {
+    //idle atlases may use up to 1/32 of the heap
+    public static final int DEFAULT_MAX_IDLE_BYTES =
+            (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 32);
+
+    private static volatile WaveAtlasCache sInstance;
+
+    //bake on the calling thread or the baker thread
+    private final ThreadLocal<WaveBitmapGenerator> mGenerators;
+
+    public static WaveAtlasCache getInstance() {
+        if (sInstance == null) {
+            synchronized (WaveAtlasCache.class) {
+                if (sInstance == null) {
+                    sInstance = new WaveAtlasCache(DEFAULT_MAX_IDLE_BYTES);
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    private WaveAtlasCache(int maxIdleBytes) {
+        super(maxIdleBytes);
+        mGenerators = new ThreadLocal<WaveBitmapGenerator>() {
+            @Override
+            protected WaveBitmapGenerator initialValue() {
+                return new WaveBitmapGenerator();
+            }
+        };
+    }
+
+    //bake the atlas with the generator of the calling thread
+    @Override
+    protected Bitmap create(WaveAtlasKey key) {
+        if (!key.fitsTexture()) {
+            throw new IllegalArgumentException(key + " is larger than "
+                    + WaveAtlasKey.MAX_ATLAS_SIZE);
+        }
+        Trace.beginSection(WaveMetrics.TRACE_BAKE_ATLAS);
+        try {
+            return mGenerators.get().generateAtlas(key);
+        } finally {
+            Trace.endSection();
+        }
+    }
+
+    @Override
+    protected ExecutorService createExecutor() {
+        return Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable r) {
+                return new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        r.run();
+                    }
+                }, "WaveAtlas");
+            }
+        });
+    }
+}
@@ -0,0 +1,203 @@
+package com.zxm.wavelibrary.ShaderHelper;
+
+import com.zxm.wavelibrary.MathHelper.WaveLayer;
+
+import java.util.Arrays;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * Identifies a frame atlas: one period of the wave shift baked into frames, views with
+ * equal keys share one bitmap.
+ * <p>
+ * A frame is one wavelength wide like a compact tile, see {@link #getFrameWidth()},
+ * and repeats horizontally across the view. Frame n shows all layers shifted by
+ * n / frameCount of the frame width, so layers with a whole speed loop seamlessly.
+ * A frame covers the band the waves reach at {@link #amplitudeRatio}, the water line
+ * in its middle, one transparent row on top and one solid row at the bottom. Frames
+ * are stacked in one column, the atlas must stay within {@link #MAX_ATLAS_SIZE}.
+ */
+
+public final class WaveAtlasKey {
+    //largest atlas side,what low end GPUs take as a texture
+    public static final int MAX_ATLAS_SIZE = 4096;
+
+    //view size
+    public final int width;
+    public final int height;
+    //amplitude the frames are baked with,smaller ones are drawn scaled
+    public final float amplitudeRatio;
+    public final float waveLengthRatio;
+    public final int frameCount;
+    //waves of the atlas behind to front,with their colors
+    final WaveLayer[] layers;
+
+    private final int mHashCode;
+
+    /**
+     * @param layers the waves, they may move at different speeds
+     */
+    public WaveAtlasKey(int width, int height, WaveLayer[] layers,
+                        float amplitudeRatio, float waveLengthRatio, int frameCount) {
+        if (layers.length == 0) {
+            throw new IllegalArgumentException("no layers");
+        }
+        if (frameCount <= 0) {
+            throw new IllegalArgumentException("frameCount should be > 0");
+        }
+        this.width = width;
+        this.height = height;
+        this.layers = layers.clone();
+        this.amplitudeRatio = amplitudeRatio;
+        this.waveLengthRatio = waveLengthRatio;
+        this.frameCount = frameCount;
+
+        int result = width;
+        result = 31 * result + height;
+        result = 31 * result + Arrays.hashCode(this.layers);
+        result = 31 * result + Float.floatToIntBits(amplitudeRatio);
+        result = 31 * result + Float.floatToIntBits(waveLengthRatio);
+        result = 31 * result + frameCount;
+        mHashCode = result;
+    }
+
+    public int getLayerCount() {
+        return layers.length;
+    }
+
+    public WaveLayer getLayer(int index) {
+        return layers[index];
+    }
+
+    /**
+     * @return rows from the water line to the frame top, and to the frame bottom
+     */
+    public int getReach() {
+        float scale = 0f;
+        for (WaveLayer layer : layers) {
+            scale = Math.max(scale, Math.abs(layer.amplitudeScale));
+        }
+        return (int) Math.ceil(Math.abs(amplitudeRatio) * scale * height) + 1;
+    }
+
+    public int getFrameHeight() {
+        return 2 * getReach();
+    }
+
+    /**
+     * @return true if a frame holds one wavelength, narrower than the view
+     */
+    public boolean isCompact() {
+        for (WaveLayer layer : layers) {
+            //no common period of a frame width
+            if (layer.waveLengthScale != layers[0].waveLengthScale) return false;
+        }
+        return getWaveLength() < width;
+    }
+
+    //one rounded wavelength of the layers in px
+    private int getWaveLength() {
+        return Math.max(1, Math.round(width * waveLengthRatio * layers[0].waveLengthScale));
+    }
+
+    /**
+     * The frame is one period of the waves and of the shift: one wavelength if the
+     * layers share it, as wide as the view otherwise. A compact frame rounds the
+     * wavelength to whole px.
+     *
+     * @return the frame and atlas width
+     */
+    public int getFrameWidth() {
+        return isCompact() ? getWaveLength() : width;
+    }
+
+    public int getAtlasWidth() {
+        return getFrameWidth();
+    }
+
+    public int getAtlasHeight() {
+        return frameCount * getFrameHeight();
+    }
+
+    /**
+     * @return false if the atlas would be larger than {@link #MAX_ATLAS_SIZE}
+     */
+    public boolean fitsTexture() {
+        return width > 0 && height > 0
+                && getAtlasWidth() <= MAX_ATLAS_SIZE && getAtlasHeight() <= MAX_ATLAS_SIZE;
+    }
+
+    public int getFrameTop(int frame) {
+        return frame * getFrameHeight();
+    }
+
+    /**
+     * @param waveShiftRatio shift ratio of the view, shift px = ratio * width
+     * @return the frame nearest to the shift
+     */
+    public int getFrame(float waveShiftRatio) {
+        final float periods = waveShiftRatio * width / getFrameWidth();
+        final float phase = periods - (float) Math.floor(periods);
+        return Math.round(phase * frameCount) % frameCount;
+    }
+
+    /**
+     * @return the layers stacked where they all cover, the color under the frames
+     */
+    public int getWaterColor() {
+        float a = 0f;
+        float r = 0f;
+        float g = 0f;
+        float b = 0f;
+        for (WaveLayer layer : layers) {
+            final int color = layer.color;
+            final float sa = (color >>> 24) / 255f;
+            final float keep = 1f - sa;
+            a = sa + a * keep;
+            r = ((color >> 16) & 0xff) * sa + r * keep;
+            g = ((color >> 8) & 0xff) * sa + g * keep;
+            b = (color & 0xff) * sa + b * keep;
+        }
+        if (a <= 0f) return 0;
+        return Math.round(a * 255f) << 24
+                | Math.min(255, Math.round(r / a)) << 16
+                | Math.min(255, Math.round(g / a)) << 8
+                | Math.min(255, Math.round(b / a));
+    }
+
+    /**
+     * @return bytes of the ARGB_8888 atlas
+     */
+    public long getByteCount() {
+        return (long) getAtlasWidth() * getAtlasHeight() * 4;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof WaveAtlasKey)) return false;
+        WaveAtlasKey key = (WaveAtlasKey) o;
+        return width == key.width
+                && height == key.height
+                && Arrays.equals(layers, key.layers)
+                && Float.floatToIntBits(amplitudeRatio) == Float.floatToIntBits(key.amplitudeRatio)
+                && Float.floatToIntBits(waveLengthRatio) == Float.floatToIntBits(key.waveLengthRatio)
+                && frameCount == key.frameCount;
+    }
+
+    @Override
+    public int hashCode() {
+        return mHashCode;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("WaveAtlasKey{")
+                .append(width).append('x').append(height)
+                .append(", ").append(frameCount).append(" frames");
+        for (WaveLayer layer : layers) {
+            builder.append(", #").append(Integer.toHexString(layer.color));
+        }
+        return builder.append('}').toString();
+    }
+}
@@ -0,0 +1,270 @@
+package com.zxm.wavelibrary.ShaderHelper;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Shader;
+
+import com.zxm.wavelibrary.MathHelper.WaveLayer;
+import com.zxm.wavelibrary.MathHelper.WaveModel;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * Play the waves from a frame atlas of {@link WaveAtlasCache}, for devices where even
+ * the tiles cost too much per frame.
+ * <p>
+ * The atlas holds one period of the shift, drawing a frame is a fill with the atlas
+ * shader moved onto the frame and repeated across the view, clipped to the band, and
+ * a flat fill of the water below. The amplitude is baked in steps of
+ * {@link #AMPLITUDE_STEP} and scaled down by the shader matrix, the water level only
+ * moves the matrix, so the loading and background motions play from one bake. A
+ * larger amplitude, a new wave length, size, layers or colors bake a new atlas, the
+ * old one keeps playing until it arrives.
+ * <p>
+ * Used on the main thread only.
+ */
+
+public class WaveAtlasPlayer {
+    //frames per period,at 800ms per wavelength that is 30 fps
+    public static final int DEFAULT_FRAME_COUNT = 24;
+    //amplitudes are baked rounded up to it
+    public static final float AMPLITUDE_STEP = 0.05f;
+    //thinnest band drawn,keeps the matrix invertible
+    private static final float MIN_SCALE = 1e-3f;
+
+    private final WaveModel mWaveModel;
+    private final Callback mCallback;
+    private final Paint mPaint;
+    //the water under the band
+    private final Paint mWaterPaint;
+    private final Matrix mMatrix = new Matrix();
+    //frames per period,0 for off
+    private int mFrameCount;
+    //the atlas playing
+    private WaveAtlasKey mKey;
+    private BitmapShader mShader;
+    //the atlas the last bake failed for,drawn with the tiles instead
+    private WaveAtlasKey mFailedKey;
+    private WaveBitmapCache.Request<WaveAtlasKey> mRequest;
+    private final WaveBitmapCache.Callback<WaveAtlasKey> mAtlasCallback =
+            new WaveBitmapCache.Callback<WaveAtlasKey>() {
+                @Override
+                public void onBitmapReady(WaveAtlasKey key, Bitmap atlas) {
+                    mRequest = null;
+                    install(key, atlas);
+                    mCallback.onAtlasChanged();
+                }
+
+                @Override
+                public void onBitmapFailed(WaveAtlasKey key, Throwable error) {
+                    mRequest = null;
+                    mFailedKey = key;
+                    mCallback.onAtlasFailed(error);
+                }
+            };
+    //view rows of the band,filled from the atlas
+    private int mBandTop;
+    private int mBandBottom;
+
+    /**
+     * @param waveModel the waves
+     * @param callback  told when an atlas arrives from the background
+     */
+    public WaveAtlasPlayer(WaveModel waveModel, Callback callback) {
+        mWaveModel = waveModel;
+        mCallback = callback;
+        mPaint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.FILTER_BITMAP_FLAG);
+        mWaterPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    }
+
+    public int getFrameCount() {
+        return mFrameCount;
+    }
+
+    /**
+     * @param frameCount frames per period, 0 turns the atlas off and releases it
+     */
+    public void setFrameCount(int frameCount) {
+        mFrameCount = Math.max(0, frameCount);
+        if (mFrameCount == 0) {
+            release();
+        }
+    }
+
+    public boolean isEnabled() {
+        return mFrameCount > 0;
+    }
+
+    /**
+     * Ask for the atlas of the current params and layers of the renderer, baked in the
+     * background unless another view already has it.
+     *
+     * @return false if the atlas would not fit a texture or failed to bake, draw the
+     * tiles instead
+     */
+    public boolean update(WaveRenderer renderer) {
+        final WaveAtlasKey key = createKey(renderer);
+        if (!key.fitsTexture() || key.equals(mFailedKey)) {
+            release();
+            return false;
+        }
+        if (key.equals(mKey)) {
+            cancelRequest();
+            return true;
+        }
+        if (mRequest != null) {
+            if (mRequest.getKey().equals(key)) return true;
+            cancelRequest();
+        }
+        WaveBitmapCache.Request<WaveAtlasKey> request =
+                WaveAtlasCache.getInstance().acquireAsync(key, mAtlasCallback);
+        if (!request.isDone()) {
+            mRequest = request;
+        }
+        return true;
+    }
+
+    private WaveAtlasKey createKey(WaveRenderer renderer) {
+        final WaveModel model = mWaveModel;
+        final WaveLayer[] layers = new WaveLayer[renderer.getLayerCount()];
+        for (int i = 0; i < layers.length; i++) {
+            layers[i] = renderer.getLayer(i);
+        }
+        return new WaveAtlasKey(model.getWidth(), model.getHeight(), layers,
+                getBakedAmplitude(), model.getWaveLengthRatio(), mFrameCount);
+    }
+
+    //the amplitude rounded up to a step,small ones get one step
+    private float getBakedAmplitude() {
+        final float steps = (float) Math.ceil(
+                Math.abs(mWaveModel.getAmplitudeRatio()) / AMPLITUDE_STEP - 1e-3);
+        return Math.max(1f, steps) * AMPLITUDE_STEP;
+    }
+
+    private void install(WaveAtlasKey key, Bitmap atlas) {
+        releaseAtlas();
+        mKey = key;
+        //a frame is one period of the waves
+        mShader = new BitmapShader(atlas, Shader.TileMode.REPEAT, Shader.TileMode.CLAMP);
+        mPaint.setShader(mShader);
+        mWaterPaint.setColor(key.getWaterColor());
+    }
+
+    /**
+     * @return true if the params moved past what the playing atlas covers,
+     * {@link #update(WaveRenderer)} then asks for a new one
+     */
+    public boolean isStale() {
+        final WaveAtlasKey key = mRequest != null ? mRequest.getKey() : mKey;
+        if (key == null) return false;
+        final WaveModel model = mWaveModel;
+        return key.width != model.getWidth() || key.height != model.getHeight()
+                || key.waveLengthRatio != model.getWaveLengthRatio()
+                || key.amplitudeRatio < getBakedAmplitude();
+    }
+
+    public boolean hasAtlas() {
+        return mShader != null;
+    }
+
+    /**
+     * @return true while the first atlas is being baked
+     */
+    public boolean isPending() {
+        return mShader == null && mRequest != null;
+    }
+
+    /**
+     * Move the atlas shader onto the frame of the current shift, amplitude and water
+     * level, and work out the band it fills.
+     */
+    public void updateMatrix() {
+        final WaveAtlasKey key = mKey;
+        final WaveModel model = mWaveModel;
+        final int frame = key.getFrame(model.getWaveShiftRatio());
+        final int reach = key.getReach();
+        final float scale = Math.max(MIN_SCALE,
+                Math.abs(model.getAmplitudeRatio()) / key.amplitudeRatio);
+        final float waterLevel = model.getWaterLevel();
+
+        //water line of the frame onto the water level
+        mMatrix.setTranslate(0f, -(key.getFrameTop(frame) + reach));
+        mMatrix.postScale(1f, scale);
+        mMatrix.postTranslate(0f, waterLevel);
+        mShader.setLocalMatrix(mMatrix);
+
+        //a row in from the frame edges,filtering never reads the next frame down
+        mBandTop = (int) Math.ceil(waterLevel - (reach - 1) * scale);
+        mBandBottom = (int) Math.floor(waterLevel + (reach - 1) * scale);
+    }
+
+    /**
+     * @return paint filling the band, see {@link #getBandTop()}
+     */
+    public Paint getPaint() {
+        return mPaint;
+    }
+
+    /**
+     * @return paint filling the water from {@link #getBandBottom()} down
+     */
+    public Paint getWaterPaint() {
+        return mWaterPaint;
+    }
+
+    public int getBandTop() {
+        return mBandTop;
+    }
+
+    /**
+     * @return the first row of flat water, may be above {@link #getBandTop()} when the
+     * waves are flat
+     */
+    public int getBandBottom() {
+        return mBandBottom;
+    }
+
+    /**
+     * Give the atlas back to {@link WaveAtlasCache}.
+     */
+    public void release() {
+        cancelRequest();
+        releaseAtlas();
+    }
+
+    private void releaseAtlas() {
+        if (mKey != null) {
+            WaveAtlasCache.getInstance().release(mKey);
+            mKey = null;
+        }
+        mShader = null;
+        mPaint.setShader(null);
+    }
+
+    private void cancelRequest() {
+        if (mRequest != null) {
+            mRequest.cancel();
+            mRequest = null;
+        }
+    }
+
+    /**
+     * Told on the main thread about background bakes.
+     */
+    public interface Callback {
+        /**
+         * A baked atlas was installed.
+         */
+        void onAtlasChanged();
+
+        /**
+         * The atlas could not be baked, {@link #update(WaveRenderer)} returns false for
+         * it from now on.
+         *
+         * @param error what the bake threw
+         */
+        void onAtlasFailed(Throwable error);
+    }
+}
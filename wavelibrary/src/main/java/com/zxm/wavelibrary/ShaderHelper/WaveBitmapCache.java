@@ -0,0 +1,445 @@
+package com.zxm.wavelibrary.ShaderHelper;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * Process-wide cache of shared bitmaps, the base of {@link WaveShaderCache} and
+ * {@link WaveAtlasCache}.
+ * <p>
+ * Bitmaps are reference-counted: a bitmap stays alive while any view holds it, and moves
+ * into an {@link LruCache} bounded by {@link #setMaxIdleBytes(int)} once the last holder
+ * releases it. Dropped bitmaps are not recycled, a display list may still draw them.
+ * <p>
+ * {@link #acquireAsync(Object, Callback)} creates bitmaps on the executor of the cache
+ * and delivers them on the main thread, concurrent requests for one key share a
+ * single creation. A creation that throws completes its requests with the error.
+ *
+ * @param <K> the key, equal keys share one bitmap
+ */
+
+public abstract class WaveBitmapCache<K> {
+    //bitmaps held by at least one view
+    private final HashMap<K, Entry> mActiveEntries;
+    //bitmaps no view holds, least recently used first
+    private final LruCache<K, Bitmap> mIdleEntries;
+    //bitmaps being created in the background
+    private final HashMap<K, Pending> mPendingEntries;
+    //deliver async bitmaps
+    private final Handler mMainHandler;
+    private ExecutorService mExecutor;
+
+    private int mMaxIdleBytes;
+    private long mHitCount;
+    private long mMissCount;
+    private long mActiveBytes;
+
+    /**
+     * @param maxIdleBytes see {@link #setMaxIdleBytes(int)}
+     */
+    protected WaveBitmapCache(int maxIdleBytes) {
+        mMaxIdleBytes = Math.max(0, maxIdleBytes);
+        mActiveEntries = new HashMap<>();
+        //bounded by mMaxIdleBytes,LruCache can only be resized since Lollipop
+        mIdleEntries = new LruCache<K, Bitmap>(Integer.MAX_VALUE) {
+            @Override
+            protected int sizeOf(K key, Bitmap value) {
+                return value.getAllocationByteCount();
+            }
+        };
+        mPendingEntries = new HashMap<>();
+        mMainHandler = new Handler(Looper.getMainLooper());
+    }
+
+    /**
+     * Create the bitmap for a miss, on the calling thread of {@link #acquire(Object)}
+     * or on the executor.
+     *
+     * @param key the key
+     * @return a new bitmap
+     */
+    protected abstract Bitmap create(K key);
+
+    /**
+     * @return the executor {@link #acquireAsync(Object, Callback)} creates bitmaps on,
+     * created on first use
+     */
+    protected abstract ExecutorService createExecutor();
+
+    /**
+     * Told about every lookup, with the lock of the cache held.
+     *
+     * @param hit true if a cached bitmap was handed out
+     */
+    protected void onLookup(boolean hit) {
+    }
+
+    /**
+     * Told about a created bitmap that was never handed out, a bitmap created twice at
+     * once or one nobody waited for anymore while another is cached.
+     *
+     * @param bitmap nothing has drawn it
+     */
+    protected void onUnused(Bitmap bitmap) {
+    }
+
+    /**
+     * Get the bitmap for the key, creating it on the calling thread on a miss. Each
+     * call must be balanced with {@link #release(Object)}.
+     *
+     * @param key the key
+     * @return the shared bitmap, must not be modified
+     */
+    public Bitmap acquire(K key) {
+        synchronized (this) {
+            Bitmap bitmap = obtainCachedLocked(key);
+            if (bitmap != null) return bitmap;
+            recordLookupLocked(false);
+        }
+        Bitmap bitmap = create(key);
+        synchronized (this) {
+            return putActiveLocked(key, bitmap);
+        }
+    }
+
+    /**
+     * Get the bitmap for the key without creating it on the calling thread. A cached
+     * bitmap is handed to the callback right away, otherwise it is created in the
+     * background and delivered on the main thread. Unless cancelled or failed, each
+     * call must be balanced with {@link #release(Object)} once the bitmap arrived.
+     * <p>
+     * Call on the main thread.
+     *
+     * @param key      the key
+     * @param callback receives the bitmap, or the failure, on the main thread
+     * @return the request, cancel it when the bitmap is no longer wanted
+     */
+    public Request<K> acquireAsync(K key, Callback<K> callback) {
+        Request<K> request = new Request<>(this, key, callback);
+        Bitmap bitmap;
+        synchronized (this) {
+            bitmap = obtainCachedLocked(key);
+            if (bitmap == null) {
+                Pending pending = mPendingEntries.get(key);
+                if (pending == null) {
+                    recordLookupLocked(false);
+                    pending = new Pending(key);
+                    mPendingEntries.put(key, pending);
+                    pending.future = getExecutor().submit(pending);
+                }
+                pending.requests.add(request);
+                request.mPending = pending;
+                return request;
+            }
+        }
+        request.mDone = true;
+        callback.onBitmapReady(key, bitmap);
+        return request;
+    }
+
+    //hand out an active or idle bitmap, caller holds the lock
+    private Bitmap obtainCachedLocked(K key) {
+        Entry entry = mActiveEntries.get(key);
+        if (entry != null) {
+            entry.refCount++;
+            recordLookupLocked(true);
+            return entry.bitmap;
+        }
+
+        Bitmap bitmap = mIdleEntries.remove(key);
+        if (bitmap != null) {
+            recordLookupLocked(true);
+            putActiveLocked(key, bitmap);
+        }
+        return bitmap;
+    }
+
+    private void recordLookupLocked(boolean hit) {
+        if (hit) {
+            mHitCount++;
+        } else {
+            mMissCount++;
+        }
+        onLookup(hit);
+    }
+
+    //hold a freshly created bitmap, or the one another thread created meanwhile
+    private Bitmap putActiveLocked(K key, Bitmap bitmap) {
+        Entry entry = mActiveEntries.get(key);
+        if (entry != null) {
+            entry.refCount++;
+            if (entry.bitmap != bitmap) {
+                //created twice,the copy was never handed out
+                onUnused(bitmap);
+            }
+            return entry.bitmap;
+        }
+        mActiveEntries.put(key, new Entry(bitmap));
+        mActiveBytes += bitmap.getAllocationByteCount();
+        return bitmap;
+    }
+
+    //keep a bitmap nobody holds, while it fits the budget
+    private void putIdleLocked(K key, Bitmap bitmap) {
+        mIdleEntries.put(key, bitmap);
+        mIdleEntries.trimToSize(mMaxIdleBytes);
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (mExecutor == null) {
+            mExecutor = createExecutor();
+        }
+        return mExecutor;
+    }
+
+    /**
+     * Release a bitmap obtained from {@link #acquire(Object)}.
+     *
+     * @param key the key
+     */
+    public synchronized void release(K key) {
+        Entry entry = mActiveEntries.get(key);
+        if (entry == null) return;
+        if (--entry.refCount > 0) return;
+
+        mActiveEntries.remove(key);
+        mActiveBytes -= entry.bitmap.getAllocationByteCount();
+        putIdleLocked(key, entry.bitmap);
+    }
+
+    /**
+     * Bound the memory of bitmaps no view holds. Held bitmaps are not counted.
+     *
+     * @param maxIdleBytes 0 drops bitmaps as soon as they are released
+     */
+    public synchronized void setMaxIdleBytes(int maxIdleBytes) {
+        mMaxIdleBytes = Math.max(0, maxIdleBytes);
+        mIdleEntries.trimToSize(mMaxIdleBytes);
+    }
+
+    public synchronized int getMaxIdleBytes() {
+        return mMaxIdleBytes;
+    }
+
+    /**
+     * Drop idle bitmaps according to the trim level.
+     *
+     * @param level the level from {@link ComponentCallbacks2#onTrimMemory(int)}
+     */
+    public synchronized void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            mIdleEntries.evictAll();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            mIdleEntries.trimToSize(mMaxIdleBytes / 2);
+        }
+    }
+
+    /**
+     * Drop all idle bitmaps. Bitmaps still held by views are kept.
+     */
+    public synchronized void evictAll() {
+        mIdleEntries.evictAll();
+    }
+
+    /**
+     * @return how many acquires were served without creating a bitmap
+     */
+    public synchronized long getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * @return how many acquires had to create a new bitmap
+     */
+    public synchronized long getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * @return bytes of idle bitmaps, bounded by {@link #getMaxIdleBytes()}
+     */
+    public synchronized long getIdleBytes() {
+        return mIdleEntries.size();
+    }
+
+    /**
+     * @return bytes of all cached bitmaps, active and idle
+     */
+    public synchronized long getCachedBytes() {
+        return mActiveBytes + mIdleEntries.size();
+    }
+
+    private static final class Entry {
+        final Bitmap bitmap;
+        int refCount;
+
+        Entry(Bitmap bitmap) {
+            this.bitmap = bitmap;
+            this.refCount = 1;
+        }
+    }
+
+    /**
+     * Receive a bitmap from {@link #acquireAsync(Object, Callback)}.
+     *
+     * @param <K> the key
+     */
+    public interface Callback<K> {
+        /**
+         * Called on the main thread.
+         *
+         * @param key    the key
+         * @param bitmap the shared bitmap, must not be modified
+         */
+        void onBitmapReady(K key, Bitmap bitmap);
+
+        /**
+         * Called on the main thread when the bitmap could not be created. Nothing was
+         * acquired, a later request creates the bitmap again.
+         *
+         * @param key   the key
+         * @param error what the creation threw
+         */
+        void onBitmapFailed(K key, Throwable error);
+    }
+
+    /**
+     * A request from {@link #acquireAsync(Object, Callback)}.
+     *
+     * @param <K> the key
+     */
+    public static final class Request<K> {
+        private final WaveBitmapCache<K> mCache;
+        private final K mKey;
+        private final Callback<K> mCallback;
+        //the creation this request waits on, guarded by the cache
+        private WaveBitmapCache<K>.Pending mPending;
+        //main thread only
+        private boolean mDone;
+
+        private Request(WaveBitmapCache<K> cache, K key, Callback<K> callback) {
+            mCache = cache;
+            mKey = key;
+            mCallback = callback;
+        }
+
+        public K getKey() {
+            return mKey;
+        }
+
+        /**
+         * @return true if the bitmap was delivered, failed or the request cancelled
+         */
+        public boolean isDone() {
+            return mDone;
+        }
+
+        /**
+         * Drop the request. The creation stops if nobody else waits on it,
+         * a bitmap already being created is kept as idle.
+         * <p>
+         * Call on the main thread.
+         */
+        public void cancel() {
+            if (mDone) return;
+            mDone = true;
+            synchronized (mCache) {
+                WaveBitmapCache<K>.Pending pending = mPending;
+                mPending = null;
+                if (pending == null) return;
+                pending.requests.remove(this);
+                if (pending.requests.isEmpty()) {
+                    if (mCache.mPendingEntries.get(mKey) == pending) {
+                        mCache.mPendingEntries.remove(mKey);
+                    }
+                    if (pending.future != null) {
+                        pending.future.cancel(false);
+                    }
+                }
+            }
+        }
+    }
+
+    //one background creation shared by all requests of a key
+    private final class Pending implements Runnable {
+        final K key;
+        final ArrayList<Request<K>> requests = new ArrayList<>();
+        Future<?> future;
+        Bitmap bitmap;
+        //what the creation threw,bitmap is null then
+        Throwable error;
+
+        Pending(K key) {
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            synchronized (WaveBitmapCache.this) {
+                if (requests.isEmpty()) return;
+            }
+            try {
+                bitmap = create(key);
+            } catch (Throwable t) {
+                //out of memory or a bad key,the waiting requests must not hang
+                error = t;
+            }
+            mMainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    deliver();
+                }
+            });
+        }
+
+        //main thread
+        @SuppressWarnings("unchecked")
+        private void deliver() {
+            Request<K>[] waiting;
+            Bitmap result = bitmap;
+            synchronized (WaveBitmapCache.this) {
+                if (mPendingEntries.get(key) == this) {
+                    mPendingEntries.remove(key);
+                }
+                waiting = requests.toArray(new Request[0]);
+                requests.clear();
+                if (result == null) {
+                    //failed,nothing to keep and the next request creates it again
+                } else if (waiting.length == 0) {
+                    //everybody left, keep the work for later
+                    if (!mActiveEntries.containsKey(key) && mIdleEntries.get(key) == null) {
+                        putIdleLocked(key, result);
+                    } else {
+                        onUnused(result);
+                    }
+                    return;
+                } else {
+                    result = putActiveLocked(key, result);
+                    mActiveEntries.get(key).refCount += waiting.length - 1;
+                }
+                for (Request<K> request : waiting) {
+                    request.mPending = null;
+                }
+            }
+            for (Request<K> request : waiting) {
+                request.mDone = true;
+                if (result != null) {
+                    request.mCallback.onBitmapReady(key, result);
+                } else {
+                    request.mCallback.onBitmapFailed(key, error);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.zxm.wavelibrary.ShaderHelper;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+
+import com.zxm.wavelibrary.MathHelper.SineTable;
+import com.zxm.wavelibrary.MathHelper.WaveLayer;
+import com.zxm.wavelibrary.MathHelper.WaveModel;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * Draw the default waves of a {@link WaveShaderKey} into a bitmap.
+ * The bitmap repeats horizontally and clamps vertically. The frames of a
+ * {@link WaveAtlasKey} are drawn the same way, one clipped band each.
+ * <p>
+ * A compact key only gets one wavelength and the rows between crest and trough,
+ * see {@link WaveShaderKey#getTileTop()}. A mask key gets an ALPHA_8 bitmap
+ * holding the coverage of its layers. Other tiles are ARGB_8888 even under an opaque
+ * view: the rows above the crests are transparent, RGB_565 would fill them black.
+ * <p>
+ * Each wave is filled as one closed path sampled just densely enough for the
+ * curve to stay within {@link #MAX_CHORD_ERROR} pixels. The legacy rasterizer,
+ * one vertical line per pixel column, is kept for pixel comparison.
+ * <p>
+ * Heights come from a {@link WaveModel} over the shared {@link SineTable} and go
+ * into scratch buffers kept between tiles, so drawing a tile allocates nothing
+ * but the bitmap, and not even that when a pooled bitmap fits.
+ * A generator is not thread safe.
+ * <p>
+ * y=Asin(ωx+φ)+h
+ */
+
+public class WaveBitmapGenerator {
+    //max distance in px between the sine and the polyline approximating it
+    public static final float MAX_CHORD_ERROR = 0.25f;
+    //fewest segments per wavelength, keeps tiny amplitudes round
+    private static final int MIN_SEGMENTS_PER_WAVE = 16;
+
+    //draw wave
+    private final Paint mWavePaint;
+    //wave outline, reused between tiles
+    private final Path mWavePath;
+    //canvas of the tile being drawn, reused between tiles
+    private final Canvas mCanvas;
+    //bitmaps to draw into before allocating,may be null
+    private WaveBitmapPool mBitmapPool;
+    //if true,the last tile was drawn into a pooled bitmap
+    private boolean mLastBitmapReused;
+    //wave math of the tile being drawn
+    private final WaveModel mWaveModel;
+    //sampled wave heights, reused between tiles
+    private float[] mWaveY = new float[0];
+    //if true,draw one line per pixel column like the first versions did
+    private boolean mLegacyRasterizer;
+
+    public WaveBitmapGenerator() {
+        mWavePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mWavePaint.setStrokeWidth(2);
+        mWavePath = new Path();
+        mCanvas = new Canvas();
+        mWaveModel = new WaveModel();
+    }
+
+    void setBitmapPool(WaveBitmapPool bitmapPool) {
+        this.mBitmapPool = bitmapPool;
+    }
+
+    /**
+     * @return true if the last tile reused a pooled bitmap instead of a new one
+     */
+    boolean isLastBitmapReused() {
+        return mLastBitmapReused;
+    }
+
+    public boolean isLegacyRasterizer() {
+        return mLegacyRasterizer;
+    }
+
+    /**
+     * Switch between the path rasterizer and the per-column line rasterizer.
+     *
+     * @param legacyRasterizer Default to be false.
+     */
+    public void setLegacyRasterizer(boolean legacyRasterizer) {
+        this.mLegacyRasterizer = legacyRasterizer;
+    }
+
+    /**
+     * Create the wave bitmap described by the key.
+     *
+     * @param key the tile key
+     * @return a new bitmap of key.getTileWidth() x key.getTileHeight()
+     */
+    public Bitmap generate(WaveShaderKey key) {
+        final int width = key.getTileWidth();
+        final WaveModel model = mWaveModel;
+        model.setSize(key.width, key.height);
+        model.setLayers(key.layers);
+        model.setAmplitudeRatio(key.amplitudeRatio);
+        model.setWaterLevelRatio(key.waterLevelRatio);
+        //one wavelength of the tile,the layers all share it
+        model.setWaveLengthRatio(key.getTileWaveLength()
+                / (key.width * key.layers[0].waveLengthScale));
+        model.setWaveShiftRatio(0f);
+
+        final int height = key.getTileHeight();
+        final Bitmap.Config config = key.mask ? Bitmap.Config.ALPHA_8 : Bitmap.Config.ARGB_8888;
+        Bitmap bitmap = mBitmapPool != null ? mBitmapPool.get(width, height, config) : null;
+        mLastBitmapReused = bitmap != null;
+        if (bitmap == null) {
+            bitmap = Bitmap.createBitmap(width, height, config);
+        }
+        final Canvas canvas = mCanvas;
+        canvas.setBitmap(bitmap);
+        final int saveCount = canvas.save();
+        //keep drawing in view coordinates
+        canvas.translate(0, -key.getTileTop());
+
+        if (mLegacyRasterizer) {
+            drawWaveLines(canvas, key, width);
+        } else {
+            drawWavePaths(canvas, key.layers, width, key.height + 1);
+        }
+        canvas.restoreToCount(saveCount);
+        canvas.setBitmap(null);
+        return bitmap;
+    }
+
+    /**
+     * Bake the frames of an atlas, each at its own shift, with the path rasterizer.
+     *
+     * @param key the atlas key
+     * @return a new bitmap of key.getAtlasWidth() x key.getAtlasHeight()
+     */
+    public Bitmap generateAtlas(WaveAtlasKey key) {
+        final WaveModel model = mWaveModel;
+        final int reach = key.getReach();
+        final int frameHeight = key.getFrameHeight();
+        final int frameWidth = key.getFrameWidth();
+        model.setSize(key.width, key.height);
+        model.setLayers(key.layers);
+        model.setAmplitudeRatio(key.amplitudeRatio);
+        //one wavelength of the frame,the layers all share it
+        model.setWaveLengthRatio(key.isCompact()
+                ? frameWidth / (key.width * key.layers[0].waveLengthScale)
+                : key.waveLengthRatio);
+        //water line on row reach of the frame
+        model.setWaterLevelRatio(1f - (float) reach / key.height);
+
+        final Bitmap bitmap = Bitmap.createBitmap(key.getAtlasWidth(), key.getAtlasHeight(),
+                Bitmap.Config.ARGB_8888);
+        mLastBitmapReused = false;
+        final Canvas canvas = mCanvas;
+        canvas.setBitmap(bitmap);
+        for (int frame = 0; frame < key.frameCount; frame++) {
+            final int top = key.getFrameTop(frame);
+            //shift px = ratio * width,frame n is n / frameCount of the frame width on
+            model.setWaveShiftRatio((float) frame * frameWidth / (key.frameCount * key.width));
+
+            final int saveCount = canvas.save();
+            canvas.clipRect(0, top, frameWidth, top + frameHeight);
+            canvas.translate(0, top);
+            drawWavePaths(canvas, key.layers, frameWidth, frameHeight + 1);
+            canvas.restoreToCount(saveCount);
+        }
+        canvas.setBitmap(null);
+        return bitmap;
+    }
+
+    /**
+     * Fill each wave as one closed path.
+     */
+    private void drawWavePaths(Canvas canvas, WaveLayer[] layers, int width, float bottom) {
+        final WaveModel model = mWaveModel;
+
+        mWavePaint.setStyle(Paint.Style.FILL);
+        for (int layer = 0; layer < layers.length; layer++) {
+            final WaveLayer waveLayer = layers[layer];
+            final double angularFrequency = model.getAngularFrequency() / waveLayer.waveLengthScale;
+            final double amplitude = Math.abs(model.getAmplitude() * waveLayer.amplitudeScale);
+            //chord error of a sine segment is about A*ω²*dx²/8
+            double step = Math.sqrt(8.0 * MAX_CHORD_ERROR
+                    / Math.max(1e-6, amplitude * angularFrequency * angularFrequency));
+            step = Math.min(step, 2.0 * Math.PI / angularFrequency / MIN_SEGMENTS_PER_WAVE);
+            int segments = Math.max(1, (int) Math.ceil(width / Math.max(1.0, step)));
+
+            mWavePaint.setColor(waveLayer.color);
+            buildWavePath(layer, width, segments, bottom);
+            canvas.drawPath(mWavePath, mWavePaint);
+        }
+    }
+
+    //close the wave outline along the bottom of the tile
+    private void buildWavePath(int layer, int width, int segments, float bottom) {
+        final int count = segments + 1;
+        final float[] waveY = obtainWaveY(count);
+        mWaveModel.sampleLayer(layer, waveY, count, 0f, (float) width / segments);
+
+        final Path path = mWavePath;
+        path.rewind();
+        path.moveTo(0, bottom);
+        for (int i = 0; i < count; i++) {
+            path.lineTo((float) width * i / segments, waveY[i]);
+        }
+        path.lineTo(width, bottom);
+        path.close();
+    }
+
+    /**
+     * Draw one vertical line per pixel column for each wave.
+     */
+    private void drawWaveLines(Canvas canvas, WaveShaderKey key, int width) {
+        //draw default waves into the bitmap
+        int endX = width + 1;
+        int endY = key.height + 1;
+        float[] waveY = obtainWaveY(endX);
+
+        for (int layer = 0; layer < key.layers.length; layer++) {
+            mWaveModel.sampleLayer(layer, waveY, endX);
+            mWavePaint.setColor(key.layers[layer].color);
+            for (int beginX = 0; beginX < endX; beginX++) {
+                canvas.drawLine(beginX, waveY[beginX], beginX, endY, mWavePaint);
+            }
+        }
+    }
+
+    //grow the scratch buffer only when a wider tile comes
+    private float[] obtainWaveY(int length) {
+        if (mWaveY.length < length) {
+            mWaveY = new float[length];
+        }
+        return mWaveY;
+    }
+}
@@ -0,0 +1,117 @@
+package com.zxm.wavelibrary.ShaderHelper;
+
+import android.graphics.Bitmap;
+
+import java.util.ArrayList;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * Bitmaps of dropped tiles, kept to draw new tiles into. A pooled bitmap is
+ * {@link Bitmap#reconfigure(int, int, Bitmap.Config)}d to the size and config of the
+ * new tile. Only put bitmaps nothing has drawn, no display list may still hold them.
+ * <p>
+ * Bounded in bytes, the oldest bitmaps are dropped first. Thread safe.
+ */
+
+final class WaveBitmapPool {
+    //a pooled bitmap may be at most this many times larger than the tile
+    private static final int MAX_WASTE_FACTOR = 4;
+
+    private final ArrayList<Bitmap> mBitmaps = new ArrayList<>();
+    private final int mMaxBytes;
+    private long mBytes;
+    private long mReuseCount;
+
+    /**
+     * @param maxBytes pooled bitmaps take up to this many bytes
+     */
+    WaveBitmapPool(int maxBytes) {
+        mMaxBytes = maxBytes;
+    }
+
+    /**
+     * Keep a bitmap that was never handed out to a view.
+     *
+     * @param bitmap the bitmap, ignored if it can not be reconfigured
+     */
+    synchronized void put(Bitmap bitmap) {
+        if (bitmap.isRecycled() || !bitmap.isMutable()) return;
+        final int bytes = bitmap.getAllocationByteCount();
+        if (bytes > mMaxBytes) return;
+        mBitmaps.add(bitmap);
+        mBytes += bytes;
+        trimToSize(mMaxBytes);
+    }
+
+    /**
+     * Take the smallest pooled bitmap that fits, reconfigured and cleared.
+     *
+     * @return the bitmap, or null if none fits
+     */
+    synchronized Bitmap get(int width, int height, Bitmap.Config config) {
+        final long needed = (long) width * height * bytesPerPixel(config);
+        int best = -1;
+        int bestBytes = Integer.MAX_VALUE;
+        for (int i = 0; i < mBitmaps.size(); i++) {
+            int bytes = mBitmaps.get(i).getAllocationByteCount();
+            if (bytes >= needed && bytes <= needed * MAX_WASTE_FACTOR && bytes < bestBytes) {
+                best = i;
+                bestBytes = bytes;
+            }
+        }
+        if (best < 0) return null;
+
+        Bitmap bitmap = mBitmaps.remove(best);
+        mBytes -= bestBytes;
+        try {
+            bitmap.reconfigure(width, height, config);
+        } catch (IllegalArgumentException e) {
+            //rows are padded more than expected
+            return null;
+        }
+        bitmap.eraseColor(0);
+        mReuseCount++;
+        return bitmap;
+    }
+
+    private static int bytesPerPixel(Bitmap.Config config) {
+        switch (config) {
+            case ALPHA_8:
+                return 1;
+            case RGB_565:
+            case ARGB_4444:
+                return 2;
+            default:
+                return 4;
+        }
+    }
+
+    /**
+     * Drop the oldest bitmaps until the pool takes at most maxBytes.
+     */
+    synchronized void trimToSize(long maxBytes) {
+        while (mBytes > maxBytes && !mBitmaps.isEmpty()) {
+            mBytes -= mBitmaps.remove(0).getAllocationByteCount();
+        }
+    }
+
+    synchronized void clear() {
+        trimToSize(0);
+    }
+
+    synchronized long getBytes() {
+        return mBytes;
+    }
+
+    int getMaxBytes() {
+        return mMaxBytes;
+    }
+
+    /**
+     * @return how many tiles were drawn into a pooled bitmap
+     */
+    synchronized long getReuseCount() {
+        return mReuseCount;
+    }
+}
@@ -0,0 +1,503 @@
+package com.zxm.wavelibrary.ShaderHelper;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.ComposeShader;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.Shader;
+import android.os.Build;
+import android.util.Log;
+
+import com.zxm.wavelibrary.MathHelper.WaveLayer;
+import com.zxm.wavelibrary.MathHelper.WaveModel;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * Maps a {@link WaveModel} onto shared shader tiles.
+ * <p>
+ * Neighbouring layers that move together are drawn into one tile from
+ * {@link WaveShaderCache}, each tile gets its own shader and matrix. Since Q the
+ * tile shaders are stacked in one {@link ComposeShader}, so every layer is filled
+ * with a single draw. Before Q a composed shader does not follow the matrices of
+ * its children, so each tile is drawn on its own.
+ * <p>
+ * With mask tiles every layer gets its own ALPHA_8 tile drawn with the layer color
+ * as the paint color, so {@link #setLayerColor(int, int)} never touches a tile.
+ * <p>
+ * Since Tiramisu the waves are evaluated on the GPU by {@link WaveAgsl} instead,
+ * there are no tiles at all and a param change only sets uniforms. Other
+ * versions, or more than {@link WaveAgsl#MAX_LAYERS} layers, use the tiles.
+ * <p>
+ * Used on the main thread only.
+ */
+
+public class WaveRenderer {
+    private static final String TAG = WaveRenderer.class.getSimpleName();
+
+    //shader and matrix of the layers sharing one tile
+    private static final class TileGroup {
+        //first layer and the one after the last
+        int start;
+        int end;
+        float speed;
+        WaveShaderKey key;
+        BitmapShader shader;
+        WaveBitmapCache.Request<WaveShaderKey> request;
+        WaveBitmapCache.Callback<WaveShaderKey> callback;
+        //the tile the last background generation failed for,not requested again
+        WaveShaderKey failedKey;
+        final Matrix matrix = new Matrix();
+        final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    }
+
+    private final WaveModel mWaveModel;
+    private final Callback mCallback;
+    //behind to front
+    private WaveLayer[] mLayers;
+    //color of every layer,may be newer than the color of mLayers
+    private int[] mColors;
+    //alpha every paint is drawn with
+    private int mAlpha = 0xff;
+    private TileGroup[] mGroups = new TileGroup[0];
+    //all groups stacked,null unless composing
+    private final Paint mComposedPaint;
+    // if true,the shader tile only covers one wavelength and the wave band
+    private boolean mCompactTexture;
+    // if true,the shader tile is drawn off the main thread
+    private boolean mAsyncTiles;
+    // if true,every layer is an ALPHA_8 mask tinted at draw time
+    private boolean mMaskTiles;
+    // if true,use the AGSL waves where they are available
+    private boolean mRuntimeShaderEnabled = true;
+    // the AGSL waves,null while the tiles are used
+    private WaveRuntimeShader mRuntimeShader;
+    private boolean mComposeDirty;
+
+    /**
+     * @param waveModel the waves
+     * @param callback  told when a tile arrives from the background
+     */
+    public WaveRenderer(WaveModel waveModel, Callback callback) {
+        mWaveModel = waveModel;
+        mCallback = callback;
+        mComposedPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mLayers = new WaveLayer[waveModel.getLayerCount()];
+        mColors = new int[mLayers.length];
+        for (int i = 0; i < mLayers.length; i++) {
+            mLayers[i] = waveModel.getLayer(i);
+            mColors[i] = mLayers[i].color;
+        }
+    }
+
+    public WaveModel getWaveModel() {
+        return mWaveModel;
+    }
+
+    /**
+     * Replace the layers, {@link #updateTiles()} draws the new tiles.
+     *
+     * @param layers behind to front, at least one
+     */
+    public void setLayers(WaveLayer... layers) {
+        mWaveModel.setLayers(layers);
+        mLayers = layers.clone();
+        if (mColors.length != layers.length) {
+            mColors = new int[layers.length];
+        }
+        for (int i = 0; i < layers.length; i++) {
+            mColors[i] = layers[i].color;
+        }
+    }
+
+    public int getLayerCount() {
+        return mLayers.length;
+    }
+
+    public WaveLayer getLayer(int index) {
+        if (mLayers[index].color != mColors[index]) {
+            //catch up with setLayerColor
+            mLayers[index] = mLayers[index].withColor(mColors[index]);
+        }
+        return mLayers[index];
+    }
+
+    public int getLayerColor(int index) {
+        return mColors[index];
+    }
+
+    /**
+     * Change the color of one layer. The AGSL waves and mask tiles only pick up the
+     * new color, nothing is allocated or drawn. Other tiles hold the colors and have
+     * to be drawn again.
+     *
+     * @param index behind to front
+     * @param color ARGB color
+     * @return true if {@link #updateTiles()} must be called
+     */
+    public boolean setLayerColor(int index, int color) {
+        if (mColors[index] == color) return false;
+        mColors[index] = color;
+        if (mRuntimeShader != null) {
+            mRuntimeShader.setColor(index, color);
+            return false;
+        }
+        return !mMaskTiles;
+    }
+
+    public int getAlpha() {
+        return mAlpha;
+    }
+
+    /**
+     * @param alpha 0 ~ 255, every paint of {@link #getPaint(int)} is drawn with it
+     */
+    public void setAlpha(int alpha) {
+        this.mAlpha = alpha;
+    }
+
+    public boolean isCompactTexture() {
+        return mCompactTexture;
+    }
+
+    public void setCompactTexture(boolean compactTexture) {
+        this.mCompactTexture = compactTexture;
+    }
+
+    public boolean isAsyncTiles() {
+        return mAsyncTiles;
+    }
+
+    public void setAsyncTiles(boolean asyncTiles) {
+        this.mAsyncTiles = asyncTiles;
+    }
+
+    public boolean isMaskTiles() {
+        return mMaskTiles;
+    }
+
+    /**
+     * @param maskTiles if true,draw every layer from its own ALPHA_8 tile, see
+     *                  {@link #setLayerColor(int, int)}
+     */
+    public void setMaskTiles(boolean maskTiles) {
+        this.mMaskTiles = maskTiles;
+    }
+
+    public boolean isRuntimeShaderEnabled() {
+        return mRuntimeShaderEnabled;
+    }
+
+    /**
+     * @param runtimeShaderEnabled if false,always draw the waves from tiles
+     */
+    public void setRuntimeShaderEnabled(boolean runtimeShaderEnabled) {
+        this.mRuntimeShaderEnabled = runtimeShaderEnabled;
+    }
+
+    /**
+     * @return true if the waves are evaluated by {@link WaveAgsl}
+     */
+    public boolean isRuntimeShader() {
+        return mRuntimeShader != null;
+    }
+
+    //AGSL waves for this version and these layers
+    private boolean canUseRuntimeShader() {
+        return mRuntimeShaderEnabled && Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                && WaveAgsl.supports(mLayers.length);
+    }
+
+    /**
+     * Acquire the tiles for the current size and layers. Tiles already held are kept,
+     * in async mode the previous tile of a group keeps drawing until the new one arrives.
+     */
+    public void updateTiles() {
+        final int width = mWaveModel.getWidth();
+        final int height = mWaveModel.getHeight();
+        if (width <= 0 || height <= 0) {
+            release();
+            return;
+        }
+        if (canUseRuntimeShader()) {
+            //no tiles at all
+            releaseTiles();
+            if (mRuntimeShader == null) {
+                mRuntimeShader = new WaveRuntimeShader();
+            }
+            mRuntimeShader.setLayers(mWaveModel, mColors);
+            mRuntimeShader.setParams(mWaveModel);
+            return;
+        }
+        mRuntimeShader = null;
+        final int groupCount = mMaskTiles ? mLayers.length : countGroups(mLayers);
+        if (groupCount != mGroups.length) {
+            //a different stack,the old tiles can not stand in
+            releaseTiles();
+            mGroups = new TileGroup[groupCount];
+            for (int i = 0; i < groupCount; i++) {
+                mGroups[i] = new TileGroup();
+            }
+        }
+
+        int start = 0;
+        for (TileGroup group : mGroups) {
+            int end = start + 1;
+            while (!mMaskTiles && end < mLayers.length
+                    && mLayers[end].movesWith(mLayers[start])) {
+                end++;
+            }
+            WaveLayer[] layers = new WaveLayer[end - start];
+            for (int i = 0; i < layers.length; i++) {
+                layers[i] = getLayer(start + i);
+            }
+            group.start = start;
+            group.end = end;
+            group.speed = mLayers[start].speed;
+            updateTile(group, new WaveShaderKey(width, height, layers,
+                    WaveModel.DEFAULT_AMPLITUDE_RATIO, WaveModel.DEFAULT_WATER_LEVEL_RATIO,
+                    WaveModel.DEFAULT_WAVE_LENGTH_RATIO, mCompactTexture, mMaskTiles));
+            start = end;
+        }
+    }
+
+    private void updateTile(final TileGroup group, WaveShaderKey key) {
+        if (key.equals(group.key) && group.shader != null) {
+            cancelRequest(group);
+            return;
+        }
+        WaveShaderCache cache = WaveShaderCache.getInstance();
+        if (mAsyncTiles) {
+            if (group.request != null) {
+                if (group.request.getKey().equals(key)) return;
+                cancelRequest(group);
+            }
+            //keep the old tile rather than failing again on every update
+            if (key.equals(group.failedKey)) return;
+            if (group.callback == null) {
+                group.callback = new WaveBitmapCache.Callback<WaveShaderKey>() {
+                    @Override
+                    public void onBitmapReady(WaveShaderKey key, Bitmap tile) {
+                        group.request = null;
+                        group.failedKey = null;
+                        installTile(group, key, tile);
+                        if (mCallback != null) {
+                            mCallback.onTilesChanged();
+                        }
+                    }
+
+                    @Override
+                    public void onBitmapFailed(WaveShaderKey key, Throwable error) {
+                        Log.w(TAG, "failed to draw tile " + key.getTileWidth() + "x"
+                                + key.getTileHeight(), error);
+                        group.request = null;
+                        group.failedKey = key;
+                        //no longer pending
+                        if (mCallback != null) {
+                            mCallback.onTilesChanged();
+                        }
+                    }
+                };
+            }
+            WaveBitmapCache.Request<WaveShaderKey> request = cache.acquireAsync(key, group.callback);
+            if (!request.isDone()) {
+                group.request = request;
+            }
+        } else {
+            cancelRequest(group);
+            group.failedKey = null;
+            installTile(group, key, cache.acquire(key));
+        }
+    }
+
+    private void installTile(TileGroup group, WaveShaderKey key, Bitmap tile) {
+        if (group.key != null) {
+            WaveShaderCache.getInstance().release(group.key);
+        }
+        group.key = key;
+        //use bitmap to create the shader
+        group.shader = new BitmapShader(tile, Shader.TileMode.REPEAT, Shader.TileMode.CLAMP);
+        group.paint.setShader(group.shader);
+        updateShaderMatrix(group);
+        mComposeDirty = true;
+    }
+
+    private static void cancelRequest(TileGroup group) {
+        if (group.request != null) {
+            group.request.cancel();
+            group.request = null;
+        }
+    }
+
+    //layers moving together next to each other share a tile
+    private static int countGroups(WaveLayer[] layers) {
+        int count = 1;
+        for (int i = 1; i < layers.length; i++) {
+            if (!layers[i].movesWith(layers[i - 1])) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return true if every tile is ready or being replaced
+     */
+    public boolean hasShader() {
+        if (mRuntimeShader != null) return true;
+        if (mGroups.length == 0) return false;
+        for (TileGroup group : mGroups) {
+            if (group.shader == null) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return true if a tile is being drawn in the background
+     */
+    public boolean isPending() {
+        for (TileGroup group : mGroups) {
+            if (group.request != null) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Map every tile onto the view according to the wave params of the model.
+     */
+    public void updateShaderMatrices() {
+        if (mRuntimeShader != null) {
+            mRuntimeShader.setParams(mWaveModel);
+            return;
+        }
+        for (TileGroup group : mGroups) {
+            if (group.shader != null) {
+                updateShaderMatrix(group);
+            }
+        }
+    }
+
+    private void updateShaderMatrix(TileGroup group) {
+        final WaveModel model = mWaveModel;
+        final WaveShaderKey key = group.key;
+        final Matrix matrix = group.matrix;
+        //the tile may belong to the previous size while the new one is drawn
+        final float tileViewWidth = key.width;
+        final float tileViewHeight = key.height;
+        final int viewWidth = model.getWidth();
+        final int viewHeight = model.getHeight();
+
+        //Set the matrix to scale
+        //the two object decides the size of wave:
+        //wave length for width, amplitude ratio for height
+        final float waveLength = model.getWaveLengthRatio()
+                * mLayers[group.start].waveLengthScale * tileViewWidth;
+        matrix.setScale(
+                waveLength / key.getTileWaveLength(),
+                model.getAmplitudeRatio() / key.amplitudeRatio,
+                0,
+                tileViewHeight * (1f - key.waterLevelRatio));
+
+        //Move the compact tile to the rows it was cut from.
+        matrix.preTranslate(0, key.getTileTop());
+
+        //Postconcats the matrix with the specified translation.
+        //the two object decides the start position
+        matrix.postTranslate(
+                model.getWaveShiftRatio() * group.speed * tileViewWidth,
+                (key.waterLevelRatio - model.getWaterLevelRatio()) * tileViewHeight);
+
+        //Stretch a stale tile over the current size.
+        if (tileViewWidth != viewWidth || tileViewHeight != viewHeight) {
+            matrix.postScale(viewWidth / tileViewWidth, viewHeight / tileViewHeight);
+        }
+
+        //Set the shader's local matrix.
+        group.shader.setLocalMatrix(matrix);
+    }
+
+    /**
+     * @return how many paints fill the waves, see {@link #getPaint(int)}
+     */
+    public int getPaintCount() {
+        if (!hasShader()) return 0;
+        if (mRuntimeShader != null) return 1;
+        return composes() ? 1 : mGroups.length;
+    }
+
+    /**
+     * @param index from 0 to {@link #getPaintCount()}, draw them in order
+     * @return the paint filling one or all tiles
+     */
+    public Paint getPaint(int index) {
+        if (mRuntimeShader != null) {
+            Paint paint = mRuntimeShader.getPaint();
+            paint.setAlpha(mAlpha);
+            return paint;
+        }
+        if (!composes()) {
+            final TileGroup group = mGroups[index];
+            if (group.key != null && group.key.mask) {
+                //the mask is drawn with the paint color
+                final int color = mColors[group.start];
+                group.paint.setColor(color);
+                group.paint.setAlpha((color >>> 24) * mAlpha / 0xff);
+            } else {
+                group.paint.setAlpha(mAlpha);
+            }
+            return group.paint;
+        }
+        if (mComposeDirty) {
+            //front tiles over the behind ones
+            Shader shader = mGroups[0].shader;
+            for (int i = 1; i < mGroups.length; i++) {
+                shader = new ComposeShader(shader, mGroups[i].shader, PorterDuff.Mode.SRC_OVER);
+            }
+            mComposedPaint.setShader(shader);
+            mComposeDirty = false;
+        }
+        mComposedPaint.setAlpha(mAlpha);
+        return mComposedPaint;
+    }
+
+    //since Q a ComposeShader picks up matrix changes of its children,
+    //masks need the paint color of their own
+    private boolean composes() {
+        return mGroups.length > 1 && !mMaskTiles
+                && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q;
+    }
+
+    /**
+     * Give the shared tiles back to {@link WaveShaderCache} and drop the AGSL waves.
+     */
+    public void release() {
+        mRuntimeShader = null;
+        releaseTiles();
+    }
+
+    private void releaseTiles() {
+        WaveShaderCache cache = WaveShaderCache.getInstance();
+        for (TileGroup group : mGroups) {
+            cancelRequest(group);
+            //try again with the next tiles
+            group.failedKey = null;
+            if (group.key != null) {
+                cache.release(group.key);
+                group.key = null;
+            }
+            group.shader = null;
+            group.paint.setShader(null);
+        }
+        mComposedPaint.setShader(null);
+        mComposeDirty = true;
+    }
+
+    /**
+     * Told on the main thread when a background tile was installed.
+     */
+    public interface Callback {
+        void onTilesChanged();
+    }
+}
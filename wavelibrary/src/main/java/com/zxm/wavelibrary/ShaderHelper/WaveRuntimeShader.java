@@ -0,0 +1,68 @@
+package com.zxm.wavelibrary.ShaderHelper;
+
+import android.graphics.Paint;
+import android.graphics.RuntimeShader;
+import android.os.Build;
+
+import androidx.annotation.RequiresApi;
+
+import com.zxm.wavelibrary.MathHelper.WaveModel;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * The waves of a {@link WaveModel} evaluated per pixel by {@link WaveAgsl#SOURCE}.
+ * No tile, changing a param only sets a uniform.
+ */
+
+@RequiresApi(api = Build.VERSION_CODES.TIRAMISU)
+final class WaveRuntimeShader {
+    private final RuntimeShader mShader;
+    private final Paint mPaint;
+    //array uniforms,reused
+    private final float[] mLayers = new float[WaveAgsl.MAX_LAYERS * WaveAgsl.LAYER_STRIDE];
+    private final float[] mColors = new float[WaveAgsl.MAX_LAYERS * WaveAgsl.LAYER_STRIDE];
+
+    WaveRuntimeShader() {
+        mShader = new RuntimeShader(WaveAgsl.SOURCE);
+        mPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mPaint.setShader(mShader);
+    }
+
+    /**
+     * Upload the layers of the model.
+     *
+     * @param colors ARGB color of every layer, they win over the model colors
+     */
+    void setLayers(WaveModel model, int[] colors) {
+        WaveAgsl.packLayers(model, mLayers, mColors);
+        for (int i = 0; i < model.getLayerCount(); i++) {
+            WaveAgsl.packColor(colors[i], mColors, i * WaveAgsl.LAYER_STRIDE);
+        }
+        mShader.setIntUniform(WaveAgsl.UNIFORM_LAYER_COUNT, model.getLayerCount());
+        mShader.setFloatUniform(WaveAgsl.UNIFORM_LAYERS, mLayers);
+        mShader.setFloatUniform(WaveAgsl.UNIFORM_COLORS, mColors);
+    }
+
+    /**
+     * Upload the color of one layer, nothing else changes.
+     */
+    void setColor(int layer, int color) {
+        WaveAgsl.packColor(color, mColors, layer * WaveAgsl.LAYER_STRIDE);
+        mShader.setFloatUniform(WaveAgsl.UNIFORM_COLORS, mColors);
+    }
+
+    /**
+     * Upload the wave params of the model.
+     */
+    void setParams(WaveModel model) {
+        mShader.setFloatUniform(WaveAgsl.UNIFORM_AMPLITUDE, model.getAmplitude());
+        mShader.setFloatUniform(WaveAgsl.UNIFORM_WAVE_LENGTH, model.getWaveLength());
+        mShader.setFloatUniform(WaveAgsl.UNIFORM_SHIFT, model.getWaveShift());
+        mShader.setFloatUniform(WaveAgsl.UNIFORM_WATER_LEVEL, model.getWaterLevel());
+    }
+
+    Paint getPaint() {
+        return mPaint;
+    }
+}
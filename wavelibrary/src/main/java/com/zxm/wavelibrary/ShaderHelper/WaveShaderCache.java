@@ -0,0 +1,228 @@
+package com.zxm.wavelibrary.ShaderHelper;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.os.Process;
+import android.os.Trace;
+
+import com.zxm.wavelibrary.MetricsHelper.WaveMetrics;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * Process-wide cache of wave tiles.
+ * <p>
+ * Tiles are reference-counted, see {@link WaveBitmapCache}: a tile stays alive while any
+ * view holds it, and moves into a size-bounded LRU once the last holder releases it, so
+ * views with the same {@link WaveShaderKey} share one bitmap. Idle tiles are dropped
+ * when memory is trimmed.
+ * <p>
+ * The cache hands out bitmaps rather than shaders, because the shader local matrix
+ * is per view state.
+ * <p>
+ * Tiles can be drawn on a small background pool with {@link #acquireAsync},
+ * concurrent requests for one key share a single generation.
+ * <p>
+ * Bitmaps drawn but never handed out, a tile drawn twice at once or a background tile
+ * nobody waits for anymore, go to a {@link WaveBitmapPool} and new tiles are drawn
+ * into them. Tiles views have drawn are never pooled, even once evicted: a recorded
+ * display list, a detached view's render node or the render thread mid-frame may still
+ * draw them, and {@link Bitmap#reconfigure(int, int, Bitmap.Config)} must not touch a
+ * bitmap the view system may be using. They are left to the GC.
+ */
+
+public class WaveShaderCache extends WaveBitmapCache<WaveShaderKey> {
+    //idle tiles may use up to 1/16 of the heap
+    private static final int DEFAULT_MAX_IDLE_BYTES =
+            (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 16);
+
+    //background threads drawing tiles, leave one core to the UI
+    private static final int MAX_GENERATOR_THREADS =
+            Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() - 1));
+
+    private static volatile WaveShaderCache sInstance;
+
+    //bitmaps of evicted tiles to draw new tiles into
+    private final WaveBitmapPool mBitmapPool;
+    //draw tiles on miss, one generator per thread
+    private final ThreadLocal<WaveBitmapGenerator> mGenerators;
+    private volatile boolean mLegacyRasterizer;
+
+    private boolean mCallbacksRegistered;
+
+    public static WaveShaderCache getInstance() {
+        if (sInstance == null) {
+            synchronized (WaveShaderCache.class) {
+                if (sInstance == null) {
+                    sInstance = new WaveShaderCache(DEFAULT_MAX_IDLE_BYTES);
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    private WaveShaderCache(int maxIdleBytes) {
+        super(maxIdleBytes);
+        //a quarter of the idle budget on top
+        mBitmapPool = new WaveBitmapPool(maxIdleBytes / 4);
+        mGenerators = new ThreadLocal<WaveBitmapGenerator>() {
+            @Override
+            protected WaveBitmapGenerator initialValue() {
+                WaveBitmapGenerator generator = new WaveBitmapGenerator();
+                generator.setBitmapPool(mBitmapPool);
+                return generator;
+            }
+        };
+    }
+
+    /**
+     * Register for {@link ComponentCallbacks2#onTrimMemory(int)} so idle tiles, and idle
+     * {@link WaveAtlasCache} atlases, are dropped under memory pressure. Only the first
+     * call has effect.
+     *
+     * @param context any context, the application context is used
+     */
+    public void registerMemoryCallbacks(Context context) {
+        synchronized (this) {
+            if (mCallbacksRegistered) return;
+            mCallbacksRegistered = true;
+        }
+        context.getApplicationContext().registerComponentCallbacks(new ComponentCallbacks2() {
+            @Override
+            public void onTrimMemory(int level) {
+                trimMemory(level);
+                WaveAtlasCache.getInstance().trimMemory(level);
+            }
+
+            @Override
+            public void onConfigurationChanged(Configuration newConfig) {
+            }
+
+            @Override
+            public void onLowMemory() {
+                evictAll();
+                WaveAtlasCache.getInstance().evictAll();
+            }
+        });
+    }
+
+    @Override
+    protected void onLookup(boolean hit) {
+        WaveMetrics metrics = WaveMetrics.getInstance();
+        if (metrics.isEnabled()) {
+            metrics.recordCacheLookup(hit);
+        }
+    }
+
+    @Override
+    protected void onUnused(Bitmap bitmap) {
+        mBitmapPool.put(bitmap);
+    }
+
+    //draw the tile with the generator of the calling thread
+    @Override
+    protected Bitmap create(WaveShaderKey key) {
+        final WaveMetrics metrics = WaveMetrics.getInstance();
+        final boolean measure = metrics.isEnabled();
+        final long start = measure ? System.nanoTime() : 0L;
+        Trace.beginSection(WaveMetrics.TRACE_GENERATE_TILE);
+        try {
+            WaveBitmapGenerator generator = mGenerators.get();
+            generator.setLegacyRasterizer(mLegacyRasterizer);
+            Bitmap bitmap = generator.generate(key);
+            if (measure) {
+                metrics.recordTile(System.nanoTime() - start,
+                        generator.isLastBitmapReused() ? 0 : bitmap.getAllocationByteCount());
+            }
+            return bitmap;
+        } finally {
+            Trace.endSection();
+        }
+    }
+
+    @Override
+    protected ExecutorService createExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_GENERATOR_THREADS,
+                MAX_GENERATOR_THREADS, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new GeneratorThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Draw new tiles with the legacy per-column rasterizer, to compare its output
+     * with the path rasterizer. Idle tiles are dropped, held tiles stay until released.
+     *
+     * @param legacyRasterizer Default to be false.
+     * @see WaveBitmapGenerator#setLegacyRasterizer(boolean)
+     */
+    public synchronized void setLegacyRasterizer(boolean legacyRasterizer) {
+        if (mLegacyRasterizer == legacyRasterizer) return;
+        mLegacyRasterizer = legacyRasterizer;
+        //the pool holds no drawing,only the idle tiles go
+        super.evictAll();
+    }
+
+    /**
+     * Drop idle tiles and pooled bitmaps according to the trim level.
+     *
+     * @param level the level from {@link ComponentCallbacks2#onTrimMemory(int)}
+     */
+    @Override
+    public synchronized void trimMemory(int level) {
+        super.trimMemory(level);
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            mBitmapPool.clear();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            mBitmapPool.trimToSize(mBitmapPool.getMaxBytes() / 2);
+        }
+    }
+
+    /**
+     * Drop all idle tiles and pooled bitmaps. Tiles still held by views are kept.
+     */
+    @Override
+    public synchronized void evictAll() {
+        super.evictAll();
+        mBitmapPool.clear();
+    }
+
+    /**
+     * @return bytes of bitmaps kept to draw new tiles into
+     */
+    public long getPooledBytes() {
+        return mBitmapPool.getBytes();
+    }
+
+    /**
+     * @return how many tiles were drawn into a pooled bitmap instead of a new one
+     */
+    public long getReusedBitmapCount() {
+        return mBitmapPool.getReuseCount();
+    }
+
+    private static final class GeneratorThreadFactory implements ThreadFactory {
+        private final AtomicInteger mCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable r) {
+            return new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    r.run();
+                }
+            }, "WaveShader #" + mCount.incrementAndGet());
+        }
+    }
+}
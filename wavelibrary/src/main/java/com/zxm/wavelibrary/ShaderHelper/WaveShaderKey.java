@@ -0,0 +1,198 @@
+package com.zxm.wavelibrary.ShaderHelper;
+
+import com.zxm.wavelibrary.MathHelper.WaveLayer;
+import com.zxm.wavelibrary.MathHelper.WaveModel;
+
+import java.util.Arrays;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * Identifies a wave tile: views with equal keys can share one bitmap.
+ * <p>
+ * A mask tile is an ALPHA_8 coverage of its layers, drawn with the paint color,
+ * so the colors of the layers are not part of the key.
+ */
+
+public final class WaveShaderKey {
+    //layers of a mask are drawn opaque
+    static final int MASK_COLOR = 0xffffffff;
+
+    //tile size
+    public final int width;
+    public final int height;
+    //default wave params the tile is rendered with,as in WaveModel
+    public final float amplitudeRatio;
+    public final float waterLevelRatio;
+    public final float waveLengthRatio;
+    //if true,the tile only covers one wavelength and the wave band
+    public final boolean compact;
+    //if true,the tile is an ALPHA_8 mask colored by the paint
+    public final boolean mask;
+    //waves of the tile behind to front,they all move together
+    final WaveLayer[] layers;
+
+    private final int mHashCode;
+
+    public WaveShaderKey(int width, int height, int behindColor, int frontColor,
+                         float amplitudeRatio, float waterLevelRatio, float waveLengthRatio) {
+        this(width, height, behindColor, frontColor,
+                amplitudeRatio, waterLevelRatio, waveLengthRatio, false);
+    }
+
+    public WaveShaderKey(int width, int height, int behindColor, int frontColor,
+                         float amplitudeRatio, float waterLevelRatio, float waveLengthRatio,
+                         boolean compact) {
+        this(width, height, new WaveLayer[]{
+                        new WaveLayer(behindColor, 0f),
+                        new WaveLayer(frontColor, WaveModel.FRONT_WAVE_OFFSET)},
+                amplitudeRatio, waterLevelRatio, waveLengthRatio, compact);
+    }
+
+    /**
+     * @param layers the waves of the tile, see {@link WaveLayer#movesWith(WaveLayer)}
+     */
+    public WaveShaderKey(int width, int height, WaveLayer[] layers,
+                         float amplitudeRatio, float waterLevelRatio, float waveLengthRatio,
+                         boolean compact) {
+        this(width, height, layers, amplitudeRatio, waterLevelRatio, waveLengthRatio,
+                compact, false);
+    }
+
+    /**
+     * @param layers the waves of the tile, see {@link WaveLayer#movesWith(WaveLayer)}
+     * @param mask   if true,draw an ALPHA_8 mask, the layer colors are ignored
+     */
+    public WaveShaderKey(int width, int height, WaveLayer[] layers,
+                         float amplitudeRatio, float waterLevelRatio, float waveLengthRatio,
+                         boolean compact, boolean mask) {
+        if (layers.length == 0) {
+            throw new IllegalArgumentException("no layers");
+        }
+        for (WaveLayer layer : layers) {
+            if (!layer.movesWith(layers[0])) {
+                throw new IllegalArgumentException(layer + " does not move with " + layers[0]);
+            }
+        }
+        this.width = width;
+        this.height = height;
+        this.layers = layers.clone();
+        if (mask) {
+            //masks of the same waves are shared whatever their colors
+            for (int i = 0; i < this.layers.length; i++) {
+                this.layers[i] = this.layers[i].withColor(MASK_COLOR);
+            }
+        }
+        this.amplitudeRatio = amplitudeRatio;
+        this.waterLevelRatio = waterLevelRatio;
+        this.waveLengthRatio = waveLengthRatio;
+        this.compact = compact;
+        this.mask = mask;
+
+        int result = width;
+        result = 31 * result + height;
+        result = 31 * result + Arrays.hashCode(this.layers);
+        result = 31 * result + Float.floatToIntBits(amplitudeRatio);
+        result = 31 * result + Float.floatToIntBits(waterLevelRatio);
+        result = 31 * result + Float.floatToIntBits(waveLengthRatio);
+        result = 31 * result + (compact ? 1 : 0);
+        result = 31 * result + (mask ? 1 : 0);
+        mHashCode = result;
+    }
+
+    public int getLayerCount() {
+        return layers.length;
+    }
+
+    public WaveLayer getLayer(int index) {
+        return layers[index];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof WaveShaderKey)) return false;
+        WaveShaderKey key = (WaveShaderKey) o;
+        return width == key.width
+                && height == key.height
+                && Arrays.equals(layers, key.layers)
+                && Float.floatToIntBits(amplitudeRatio) == Float.floatToIntBits(key.amplitudeRatio)
+                && Float.floatToIntBits(waterLevelRatio) == Float.floatToIntBits(key.waterLevelRatio)
+                && Float.floatToIntBits(waveLengthRatio) == Float.floatToIntBits(key.waveLengthRatio)
+                && compact == key.compact
+                && mask == key.mask;
+    }
+
+    /**
+     * @return the bitmap width, one wavelength in compact mode or for scaled wave lengths
+     */
+    public int getTileWidth() {
+        final float waveLengthScale = layers[0].waveLengthScale;
+        if (!compact && waveLengthScale == 1f) return width;
+        return Math.max(1, Math.round(width * waveLengthRatio * waveLengthScale));
+    }
+
+    /**
+     * @return one wavelength of the tile in px
+     */
+    public float getTileWaveLength() {
+        final float waveLengthScale = layers[0].waveLengthScale;
+        if (!compact && waveLengthScale == 1f) return width * waveLengthRatio;
+        return getTileWidth();
+    }
+
+    /**
+     * The compact tile starts one transparent row above the wave crest,
+     * CLAMP extends that row upward.
+     *
+     * @return the row of the view the first tile row maps to
+     */
+    public int getTileTop() {
+        if (!compact) return 0;
+        float crest = height * (1f - waterLevelRatio - getMaxAmplitudeRatio());
+        return Math.max(0, (int) Math.floor(crest) - 1);
+    }
+
+    /**
+     * The compact tile ends one solid row below the wave trough,
+     * CLAMP extends that row downward.
+     *
+     * @return the bitmap height
+     */
+    public int getTileHeight() {
+        if (!compact) return height;
+        float trough = height * (1f - waterLevelRatio + getMaxAmplitudeRatio());
+        int bottom = Math.min(height, (int) Math.ceil(trough) + 2);
+        return Math.max(1, bottom - getTileTop());
+    }
+
+    //amplitude ratio of the tallest layer
+    private float getMaxAmplitudeRatio() {
+        float scale = 0f;
+        for (WaveLayer layer : layers) {
+            scale = Math.max(scale, Math.abs(layer.amplitudeScale));
+        }
+        return Math.abs(amplitudeRatio) * scale;
+    }
+
+    @Override
+    public int hashCode() {
+        return mHashCode;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("WaveShaderKey{")
+                .append(width).append('x').append(height);
+        for (WaveLayer layer : layers) {
+            builder.append(", #").append(Integer.toHexString(layer.color));
+        }
+        if (compact) {
+            builder.append(", compact");
+        }
+        if (mask) {
+            builder.append(", mask");
+        }
+        return builder.append('}').toString();
+    }
+}
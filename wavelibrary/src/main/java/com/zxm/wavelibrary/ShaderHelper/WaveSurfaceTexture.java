@@ -0,0 +1,271 @@
+package com.zxm.wavelibrary.ShaderHelper;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Shader;
+
+import com.zxm.wavelibrary.MathHelper.WaveLayer;
+import com.zxm.wavelibrary.MathHelper.WaveModel;
+import com.zxm.wavelibrary.MathHelper.WaveSurface;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * The height field of a {@link WaveSurface} as a shader, filled like the wave tiles.
+ * <p>
+ * The texture is one texel per column and one pixel per row of the band the surface
+ * can reach. It is clamped on both axes, the rows above are transparent and the
+ * rows below are the water, and it is stretched over the view width with bitmap
+ * filtering. Every layer of the {@link WaveRenderer} is stacked into it with its
+ * color and amplitude scale, reading the surface {@link WaveLayer#offset} columns
+ * to the right.
+ * <p>
+ * {@link #update(WaveSurface, WaveRenderer)} writes the pixels again, a few
+ * thousand to a few hundred thousand, only once the surface stepped or the layers,
+ * size or water level changed. The texture is as tall as the band the surface can
+ * reach, so the water level moves it without a new bitmap.
+ * {@link #prepare(WaveSurface, WaveRenderer)} allocates it up front, outside of
+ * drawing. Used on the main thread only.
+ */
+
+public class WaveSurfaceTexture {
+    private final Paint mPaint;
+    private final Matrix mMatrix = new Matrix();
+    private Bitmap mBitmap;
+    private BitmapShader mShader;
+    //texture pixels,row by row
+    private int[] mPixels = new int[0];
+    //per layer: column shift,amplitude scale,premultiplied a r g b and the color
+    private int[] mShifts = new int[0];
+    private float[] mScales = new float[0];
+    private float[] mColors = new float[0];
+    private int[] mLayerColors = new int[0];
+    //surface y of every layer at the column being filled
+    private float[] mSurfaceY = new float[0];
+    //view y of the first texture row
+    private int mTop;
+    //what the pixels were filled from
+    private WaveSurface mSurface;
+    private int mChangeCount;
+    private float mWaterLevel;
+    private int mLayerCount;
+    private boolean mDirty;
+
+    public WaveSurfaceTexture() {
+        mPaint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.FILTER_BITMAP_FLAG);
+    }
+
+    /**
+     * Allocate the texture for the size and layers of the renderer, so the next
+     * {@link #update(WaveSurface, WaveRenderer)} only fills it.
+     */
+    public void prepare(WaveSurface surface, WaveRenderer renderer) {
+        final WaveModel model = renderer.getWaveModel();
+        if (model.getWidth() <= 0 || model.getHeight() <= 0) {
+            release();
+            return;
+        }
+        prepare(surface.getColumnCount(), getRowCount(surface, renderer),
+                renderer.getLayerCount());
+    }
+
+    /**
+     * Fill the texture with the current surface, in the size, water level, layers
+     * and colors of the renderer. Nothing is written if none of them changed.
+     */
+    public void update(WaveSurface surface, WaveRenderer renderer) {
+        final WaveModel model = renderer.getWaveModel();
+        final int width = model.getWidth();
+        final int height = model.getHeight();
+        if (width <= 0 || height <= 0) {
+            release();
+            return;
+        }
+        final int layerCount = renderer.getLayerCount();
+        final int columns = surface.getColumnCount();
+        final int rows = getRowCount(surface, renderer);
+        //the band the surface can reach,with a row of slack for the edge
+        final float waterLevel = model.getWaterLevel();
+        final int top = (int) Math.floor(waterLevel - getBand(surface, renderer)) - 1;
+
+        //only allocates if prepare was not told about the size
+        prepare(columns, rows, layerCount);
+        boolean dirty = mDirty || surface != mSurface
+                || surface.getChangeCount() != mChangeCount
+                || waterLevel != mWaterLevel || layerCount != mLayerCount || top != mTop;
+        for (int i = 0; i < layerCount; i++) {
+            final WaveLayer layer = renderer.getLayer(i);
+            final int shift = Math.round(layer.offset * columns);
+            final float scale = layer.amplitudeScale * height;
+            final int color = renderer.getLayerColor(i);
+            if (shift != mShifts[i] || scale != mScales[i] || color != mLayerColors[i]) {
+                dirty = true;
+                mShifts[i] = shift;
+                mScales[i] = scale;
+                mLayerColors[i] = color;
+                packColor(color, mColors, i * 4);
+            }
+        }
+        mPaint.setAlpha(renderer.getAlpha());
+        if (!dirty) return;
+
+        mDirty = false;
+        mSurface = surface;
+        mChangeCount = surface.getChangeCount();
+        mWaterLevel = waterLevel;
+        mLayerCount = layerCount;
+        mTop = top;
+        fill(surface, columns, rows, layerCount, waterLevel);
+
+        mBitmap.setPixels(mPixels, 0, columns, 0, 0, columns, rows);
+        mMatrix.setScale((float) width / columns, 1f);
+        mMatrix.postTranslate(0, top);
+        mShader.setLocalMatrix(mMatrix);
+    }
+
+    //how far any layer can reach above or below the water level,in px
+    private static float getBand(WaveSurface surface, WaveRenderer renderer) {
+        float maxScale = 0f;
+        for (int i = 0; i < renderer.getLayerCount(); i++) {
+            maxScale = Math.max(maxScale, Math.abs(renderer.getLayer(i).amplitudeScale));
+        }
+        return surface.getMaxHeight() * renderer.getWaveModel().getHeight() * maxScale;
+    }
+
+    //the band,a row of slack on both sides and a row for the fraction of the level,
+    //so the count stays while the water level moves
+    private static int getRowCount(WaveSurface surface, WaveRenderer renderer) {
+        return 2 * (int) Math.ceil(getBand(surface, renderer)) + 3;
+    }
+
+    //size the bitmap and the buffers,they are kept while the size stays
+    private void prepare(int columns, int rows, int layerCount) {
+        if (mBitmap == null || mBitmap.getWidth() != columns || mBitmap.getHeight() != rows) {
+            mBitmap = Bitmap.createBitmap(columns, rows, Bitmap.Config.ARGB_8888);
+            mShader = new BitmapShader(mBitmap, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP);
+            mPaint.setShader(mShader);
+            mDirty = true;
+        }
+        if (mPixels.length < columns * rows) {
+            mPixels = new int[columns * rows];
+        }
+        if (mShifts.length < layerCount) {
+            mShifts = new int[layerCount];
+            mScales = new float[layerCount];
+            mColors = new float[layerCount * 4];
+            mLayerColors = new int[layerCount];
+            mSurfaceY = new float[layerCount];
+            mDirty = true;
+        }
+    }
+
+    private void fill(WaveSurface surface, int columns, int rows, int layerCount,
+                      float waterLevel) {
+        final int[] pixels = mPixels;
+        final float[] colors = mColors;
+        final float[] surfaceY = mSurfaceY;
+        final int last = columns - 1;
+        //the rows under every layer
+        final int solid = compose(colors, layerCount, null, 0f);
+
+        for (int c = 0; c < columns; c++) {
+            float highest = Float.MAX_VALUE;
+            float lowest = -Float.MAX_VALUE;
+            for (int i = 0; i < layerCount; i++) {
+                final int column = Math.max(0, Math.min(last, c + mShifts[i]));
+                final float y = waterLevel - surface.heightAt(column) * mScales[i];
+                surfaceY[i] = y;
+                highest = Math.min(highest, y);
+                lowest = Math.max(lowest, y);
+            }
+            for (int r = 0; r < rows; r++) {
+                final float y = mTop + r + 0.5f;
+                final int color;
+                if (y + 0.5f <= highest) {
+                    //above every surface
+                    color = 0;
+                } else if (y - 0.5f >= lowest) {
+                    color = solid;
+                } else {
+                    color = compose(colors, layerCount, surfaceY, y);
+                }
+                pixels[r * columns + c] = color;
+            }
+        }
+    }
+
+    /**
+     * Stack the layers source over at one pixel.
+     *
+     * @param surfaceY surface of every layer, null if every layer covers the pixel
+     * @param y        center of the pixel
+     * @return the unpremultiplied color {@link Bitmap#setPixels} takes
+     */
+    private static int compose(float[] colors, int layerCount, float[] surfaceY, float y) {
+        float a = 0f;
+        float r = 0f;
+        float g = 0f;
+        float b = 0f;
+        for (int i = 0; i < layerCount; i++) {
+            //antialiased over one pixel,like the AGSL waves
+            final float coverage = surfaceY == null ? 1f
+                    : Math.max(0f, Math.min(1f, y - surfaceY[i] + 0.5f));
+            if (coverage == 0f) continue;
+            final int base = i * 4;
+            final float sa = colors[base] * coverage;
+            final float keep = 1f - sa;
+            a = sa + a * keep;
+            r = colors[base + 1] * coverage + r * keep;
+            g = colors[base + 2] * coverage + g * keep;
+            b = colors[base + 3] * coverage + b * keep;
+        }
+        if (a <= 0f) return 0;
+        final float scale = 255f / a;
+        return Math.round(a * 255f) << 24
+                | Math.min(255, Math.round(r * scale)) << 16
+                | Math.min(255, Math.round(g * scale)) << 8
+                | Math.min(255, Math.round(b * scale));
+    }
+
+    //premultiplied a r g b in 0 ~ 1
+    private static void packColor(int color, float[] out, int index) {
+        final float alpha = (color >>> 24) / 255f;
+        out[index] = alpha;
+        out[index + 1] = ((color >> 16) & 0xff) / 255f * alpha;
+        out[index + 2] = ((color >> 8) & 0xff) / 255f * alpha;
+        out[index + 3] = (color & 0xff) / 255f * alpha;
+    }
+
+    /**
+     * @return true if {@link #getPaint()} holds a texture
+     */
+    public boolean hasTexture() {
+        return mBitmap != null;
+    }
+
+    /**
+     * @return the paint filling the view with the surface
+     */
+    public Paint getPaint() {
+        return mPaint;
+    }
+
+    /**
+     * @return nothing is drawn above this view y
+     */
+    public int getTop() {
+        return mTop;
+    }
+
+    /**
+     * Drop the bitmap, the next prepare or update allocates it again.
+     */
+    public void release() {
+        mBitmap = null;
+        mShader = null;
+        mPaint.setShader(null);
+        mSurface = null;
+    }
+}
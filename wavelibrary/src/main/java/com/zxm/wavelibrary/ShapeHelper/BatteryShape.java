@@ -0,0 +1,48 @@
+package com.zxm.wavelibrary.ShapeHelper;
+
+import android.graphics.Path;
+import android.graphics.RectF;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * An upright battery: a rounded body with the terminal cap on top. The water fills
+ * the body, the cap is only outlined.
+ */
+
+public class BatteryShape extends PathWaveShape {
+    //cap size relative to the view
+    private static final float CAP_WIDTH_RATIO = 0.4f;
+    private static final float CAP_HEIGHT_RATIO = 0.08f;
+    //body corner relative to the body width
+    private static final float CORNER_RATIO = 0.12f;
+
+    private final RectF mRect = new RectF();
+
+    @Override
+    protected void buildFillPath(Path path, int width, int height, float borderWidth) {
+        float top = capHeight(height) + borderWidth;
+        mRect.set(borderWidth, top, width - borderWidth, height - borderWidth);
+        float radius = Math.max(0f, width * CORNER_RATIO - borderWidth);
+        path.addRoundRect(mRect, radius, radius, Path.Direction.CW);
+    }
+
+    @Override
+    protected void buildBorderPath(Path path, int width, int height, float borderWidth) {
+        float half = borderWidth / 2.0f;
+        float capHeight = capHeight(height);
+        //body
+        mRect.set(half, capHeight + half, width - half, height - half);
+        float radius = Math.max(0f, width * CORNER_RATIO - half);
+        path.addRoundRect(mRect, radius, radius, Path.Direction.CW);
+        //cap,resting on the body
+        float capHalfWidth = width * CAP_WIDTH_RATIO / 2.0f;
+        mRect.set(width / 2.0f - capHalfWidth, half,
+                width / 2.0f + capHalfWidth, capHeight + half);
+        path.addRect(mRect, Path.Direction.CW);
+    }
+
+    private static float capHeight(int height) {
+        return height * CAP_HEIGHT_RATIO;
+    }
+}
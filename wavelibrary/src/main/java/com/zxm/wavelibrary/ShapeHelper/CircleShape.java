@@ -0,0 +1,57 @@
+package com.zxm.wavelibrary.ShapeHelper;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * The circle of {@link com.zxm.wavelibrary.WaveView#SHAPE_CIRCLE}, as wide as the view.
+ */
+
+public class CircleShape implements WaveShape {
+    private float mCenterX;
+    private float mCenterY;
+    private float mRadius;
+    private float mBorderRadius;
+    private float mBorderWidth;
+
+    @Override
+    public void onBoundsChanged(int width, int height, float borderWidth) {
+        mBorderWidth = borderWidth;
+        mCenterX = width / 2.0f;
+        mCenterY = height / 2.0f;
+        mRadius = width / 2.0f - borderWidth;
+        mBorderRadius = (width - borderWidth) / 2.0f - 1.0f;
+    }
+
+    @Override
+    public void drawBorder(Canvas canvas, Paint borderPaint) {
+        if (mBorderWidth > 0) {
+            canvas.drawCircle(mCenterX, mCenterY, mBorderRadius, borderPaint);
+        }
+    }
+
+    @Override
+    public void drawFill(Canvas canvas, Paint paint, float fillTop) {
+        if (fillTop <= mCenterY - mRadius) {
+            canvas.drawCircle(mCenterX, mCenterY, mRadius, paint);
+            return;
+        }
+        int count = canvas.save();
+        canvas.clipRect(mCenterX - mRadius, fillTop, mCenterX + mRadius, mCenterY + mRadius);
+        canvas.drawCircle(mCenterX, mCenterY, mRadius, paint);
+        canvas.restoreToCount(count);
+    }
+
+    @Override
+    public boolean fillsBounds() {
+        return false;
+    }
+
+    @Override
+    public boolean borderOverlapsFill() {
+        //the stroke reaches a pixel into the fill
+        return mBorderWidth > 0;
+    }
+}
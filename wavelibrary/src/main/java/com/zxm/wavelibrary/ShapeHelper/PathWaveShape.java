@@ -0,0 +1,80 @@
+package com.zxm.wavelibrary.ShapeHelper;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * A shape drawn from two cached paths: the fill is the path filled with the wave
+ * shader, the border is stroked along its own path. Subclasses only build the paths.
+ */
+
+public abstract class PathWaveShape implements WaveShape {
+    //cached geometry,rebuilt on size or border change
+    private final Path mFillPath = new Path();
+    private final Path mBorderPath = new Path();
+    private int mWidth;
+    private int mHeight;
+    private float mBorderWidth;
+
+    @Override
+    public final void onBoundsChanged(int width, int height, float borderWidth) {
+        mWidth = width;
+        mHeight = height;
+        mBorderWidth = borderWidth;
+        mFillPath.rewind();
+        mBorderPath.rewind();
+        if (width <= 0 || height <= 0) return;
+        buildFillPath(mFillPath, width, height, borderWidth);
+        if (borderWidth > 0) {
+            buildBorderPath(mBorderPath, width, height, borderWidth);
+        }
+    }
+
+    /**
+     * @param path        empty path receiving the inside of the border
+     * @param width       view width
+     * @param height      view height
+     * @param borderWidth stroke width of the border, 0 for none
+     */
+    protected abstract void buildFillPath(Path path, int width, int height, float borderWidth);
+
+    /**
+     * @param path        empty path receiving the center line of the border stroke
+     * @param width       view width
+     * @param height      view height
+     * @param borderWidth stroke width of the border, > 0
+     */
+    protected abstract void buildBorderPath(Path path, int width, int height, float borderWidth);
+
+    @Override
+    public void drawBorder(Canvas canvas, Paint borderPaint) {
+        if (mBorderWidth > 0) {
+            canvas.drawPath(mBorderPath, borderPaint);
+        }
+    }
+
+    @Override
+    public void drawFill(Canvas canvas, Paint paint, float fillTop) {
+        if (fillTop <= 0f) {
+            canvas.drawPath(mFillPath, paint);
+            return;
+        }
+        int count = canvas.save();
+        canvas.clipRect(0f, fillTop, mWidth, mHeight);
+        canvas.drawPath(mFillPath, paint);
+        canvas.restoreToCount(count);
+    }
+
+    @Override
+    public boolean fillsBounds() {
+        return false;
+    }
+
+    @Override
+    public boolean borderOverlapsFill() {
+        return false;
+    }
+}
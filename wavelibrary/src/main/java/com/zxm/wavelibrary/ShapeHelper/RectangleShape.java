@@ -0,0 +1,56 @@
+package com.zxm.wavelibrary.ShapeHelper;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * The rectangle of {@link com.zxm.wavelibrary.WaveView#SHAPE_RECTANGLE}, the whole view.
+ */
+
+public class RectangleShape implements WaveShape {
+    private int mWidth;
+    private int mHeight;
+    private float mBorderWidth;
+
+    @Override
+    public void onBoundsChanged(int width, int height, float borderWidth) {
+        mWidth = width;
+        mHeight = height;
+        mBorderWidth = borderWidth;
+    }
+
+    @Override
+    public void drawBorder(Canvas canvas, Paint borderPaint) {
+        final float borderWidth = mBorderWidth;
+        if (borderWidth > 0) {
+            canvas.drawRect(
+                    borderWidth / 2.0f,
+                    borderWidth / 2.0f,
+                    mWidth - borderWidth / 2.0f - 0.5f,
+                    mHeight - borderWidth / 2.0f - 0.5f,
+                    borderPaint);
+        }
+    }
+
+    @Override
+    public void drawFill(Canvas canvas, Paint paint, float fillTop) {
+        final float borderWidth = mBorderWidth;
+        canvas.drawRect(borderWidth,
+                Math.max(borderWidth, fillTop),
+                mWidth - borderWidth,
+                mHeight - borderWidth,
+                paint);
+    }
+
+    @Override
+    public boolean fillsBounds() {
+        return mBorderWidth <= 0;
+    }
+
+    @Override
+    public boolean borderOverlapsFill() {
+        return false;
+    }
+}
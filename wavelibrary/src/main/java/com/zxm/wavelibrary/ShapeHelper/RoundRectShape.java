@@ -0,0 +1,37 @@
+package com.zxm.wavelibrary.ShapeHelper;
+
+import android.graphics.Path;
+import android.graphics.RectF;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * A rectangle with rounded corners.
+ */
+
+public class RoundRectShape extends PathWaveShape {
+    private final float mCornerRadius;
+    private final RectF mRect = new RectF();
+
+    /**
+     * @param cornerRadius radius of the outer corners in px
+     */
+    public RoundRectShape(float cornerRadius) {
+        mCornerRadius = Math.max(0f, cornerRadius);
+    }
+
+    @Override
+    protected void buildFillPath(Path path, int width, int height, float borderWidth) {
+        mRect.set(borderWidth, borderWidth, width - borderWidth, height - borderWidth);
+        float radius = Math.max(0f, mCornerRadius - borderWidth);
+        path.addRoundRect(mRect, radius, radius, Path.Direction.CW);
+    }
+
+    @Override
+    protected void buildBorderPath(Path path, int width, int height, float borderWidth) {
+        float half = borderWidth / 2.0f;
+        mRect.set(half, half, width - half, height - half);
+        float radius = Math.max(0f, mCornerRadius - half);
+        path.addRoundRect(mRect, radius, radius, Path.Direction.CW);
+    }
+}
@@ -0,0 +1,54 @@
+package com.zxm.wavelibrary.ShapeHelper;
+
+import android.graphics.Matrix;
+import android.graphics.Path;
+import android.graphics.RectF;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * Any outline, e.g. a logo or a bottle, given in its own viewport and scaled to fit
+ * the view keeping its aspect ratio, centered. The border follows the outline.
+ */
+
+public class VectorPathShape extends PathWaveShape {
+    private final Path mSource;
+    private final float mViewportWidth;
+    private final float mViewportHeight;
+    private final Matrix mMatrix = new Matrix();
+    private final RectF mViewport = new RectF();
+    private final RectF mTarget = new RectF();
+
+    /**
+     * @param source         the outline, copied
+     * @param viewportWidth  width the outline is drawn in
+     * @param viewportHeight height the outline is drawn in
+     */
+    public VectorPathShape(Path source, float viewportWidth, float viewportHeight) {
+        if (viewportWidth <= 0 || viewportHeight <= 0) {
+            throw new IllegalArgumentException("viewport should be > 0");
+        }
+        mSource = new Path(source);
+        mViewportWidth = viewportWidth;
+        mViewportHeight = viewportHeight;
+    }
+
+    @Override
+    protected void buildFillPath(Path path, int width, int height, float borderWidth) {
+        //keep the fill inside the border
+        fit(width, height, borderWidth);
+        mSource.transform(mMatrix, path);
+    }
+
+    @Override
+    protected void buildBorderPath(Path path, int width, int height, float borderWidth) {
+        fit(width, height, borderWidth / 2.0f);
+        mSource.transform(mMatrix, path);
+    }
+
+    private void fit(int width, int height, float inset) {
+        mViewport.set(0, 0, mViewportWidth, mViewportHeight);
+        mTarget.set(inset, inset, width - inset, height - inset);
+        mMatrix.setRectToRect(mViewport, mTarget, Matrix.ScaleToFit.CENTER);
+    }
+}
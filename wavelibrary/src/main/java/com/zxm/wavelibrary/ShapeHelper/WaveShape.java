@@ -0,0 +1,51 @@
+package com.zxm.wavelibrary.ShapeHelper;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * The outline the waves are filled into.
+ * <p>
+ * Geometry is built in {@link #onBoundsChanged(int, int, float)}, which only runs when
+ * the size or the border changes. The draw calls run every frame and should only
+ * replay what was built there. A shape instance belongs to one view.
+ */
+
+public interface WaveShape {
+
+    /**
+     * Build and cache the fill and border geometry.
+     *
+     * @param width       view width
+     * @param height      view height
+     * @param borderWidth stroke width of the border, 0 for none
+     */
+    void onBoundsChanged(int width, int height, float borderWidth);
+
+    /**
+     * @param canvas      the view canvas
+     * @param borderPaint stroke paint of the border
+     */
+    void drawBorder(Canvas canvas, Paint borderPaint);
+
+    /**
+     * Fill the inside of the border.
+     *
+     * @param canvas  the view canvas
+     * @param paint   paint holding the wave shader
+     * @param fillTop nothing needs to be filled above this y
+     */
+    void drawFill(Canvas canvas, Paint paint, float fillTop);
+
+    /**
+     * @return true if the fill covers the whole view
+     */
+    boolean fillsBounds();
+
+    /**
+     * @return true if the border and the fill share pixels
+     */
+    boolean borderOverlapsFill();
+}
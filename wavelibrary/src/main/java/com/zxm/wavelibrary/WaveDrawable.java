@@ -0,0 +1,497 @@
+package com.zxm.wavelibrary;
+
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Animatable;
+import android.graphics.drawable.Drawable;
+import android.os.Trace;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.zxm.wavelibrary.AnimatorHelper.WaveFrameClock;
+import com.zxm.wavelibrary.AnimatorHelper.WaveMotionClock;
+import com.zxm.wavelibrary.MathHelper.WaveLayer;
+import com.zxm.wavelibrary.MathHelper.WaveModel;
+import com.zxm.wavelibrary.MathHelper.WaveMotion;
+import com.zxm.wavelibrary.MetricsHelper.WaveMetrics;
+import com.zxm.wavelibrary.ShaderHelper.WaveRenderer;
+import com.zxm.wavelibrary.ShaderHelper.WaveShaderCache;
+import com.zxm.wavelibrary.ShapeHelper.RectangleShape;
+import com.zxm.wavelibrary.ShapeHelper.WaveShape;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * The waves of {@link WaveView} as a drawable, for backgrounds of buttons, toolbars,
+ * cards or layers of a {@link android.graphics.drawable.LayerDrawable}, without a
+ * view of their own.
+ * <p>
+ * It is drawn by the same {@link WaveRenderer} and {@link WaveShape}s and takes its
+ * tiles from the same {@link WaveShaderCache}, so a drawable and a view of the same
+ * size share bitmaps. {@link #start()} plays a {@link WaveMotion} from the shared
+ * {@link WaveFrameClock} through a {@link WaveMotionClock}, like
+ * {@link com.zxm.wavelibrary.AnimatorHelper.SimpleWaveAnimatorImp}, the clock is left
+ * while the drawable is not visible. Idle tiles are dropped on memory pressure once the
+ * drawable is set on a view.
+ * <p>
+ * Used on the main thread only.
+ */
+
+public class WaveDrawable extends Drawable implements Animatable {
+    //the waves
+    private final WaveModel mWaveModel = new WaveModel();
+    private final WaveRenderer mWaveRenderer;
+    //outline the waves are filled into
+    private WaveShape mWaveShape = new RectangleShape();
+    // paint to draw border,null without one
+    private Paint mBorderPaint;
+    private int mBorderColor;
+    //draw water while the first tile is on its way
+    private final Paint mFlatPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    // if true,the layers are the behind and front waves of setWaveColor
+    private boolean mDefaultLayers = true;
+    //the shader matrices follow the params on the next draw
+    private boolean mMatrixDirty = true;
+    private int mAlpha = 0xff;
+    private ColorFilter mColorFilter;
+
+    //animation
+    private WaveMotion mWaveMotion = WaveMotion.background(1000);
+    private boolean mRunning;
+    private final WaveMotionClock mMotionClock = new WaveMotionClock(
+            new WaveMotionClock.Callback() {
+                @Override
+                public void onMotionFrame(long playTime, long frameTimeNanos) {
+                    playFrame(playTime);
+                }
+            });
+    //told WaveShaderCache to drop idle tiles on memory pressure
+    private boolean mMemoryCallbacksRegistered;
+
+    public WaveDrawable() {
+        mWaveRenderer = new WaveRenderer(mWaveModel, new WaveRenderer.Callback() {
+            @Override
+            public void onTilesChanged() {
+                mMatrixDirty = true;
+                invalidateSelf();
+            }
+        });
+    }
+
+    /**
+     * @param behindWaveColor color of the behind wave
+     * @param frontWaveColor  color of the front wave
+     */
+    public WaveDrawable(int behindWaveColor, int frontWaveColor) {
+        this();
+        setWaveColor(behindWaveColor, frontWaveColor);
+    }
+
+    @Override
+    protected void onBoundsChange(Rect bounds) {
+        super.onBoundsChange(bounds);
+        mWaveModel.setSize(bounds.width(), bounds.height());
+        updateShapeBounds();
+        createShader();
+    }
+
+    @Override
+    public void draw(@NonNull Canvas canvas) {
+        final Rect bounds = getBounds();
+        if (bounds.isEmpty()) return;
+        final WaveMetrics metrics = WaveMetrics.getInstance();
+        final boolean measure = metrics.isEnabled();
+        final long start = measure ? System.nanoTime() : 0L;
+        Trace.beginSection(WaveMetrics.TRACE_DRAW);
+        try {
+            drawWave(canvas, bounds);
+        } finally {
+            Trace.endSection();
+        }
+        if (measure) {
+            metrics.recordDraw(System.nanoTime() - start);
+        }
+    }
+
+    private void drawWave(Canvas canvas, Rect bounds) {
+        final WaveRenderer renderer = mWaveRenderer;
+        if (!renderer.hasShader() && !renderer.isPending()) {
+            //tiles were let go while invisible
+            createShader();
+        } else if (!mMemoryCallbacksRegistered) {
+            //the tiles came before the callback
+            registerMemoryCallbacks();
+        }
+        final int saveCount = canvas.save();
+        canvas.translate(bounds.left, bounds.top);
+        if (renderer.hasShader()) {
+            if (mMatrixDirty) {
+                renderer.updateShaderMatrices();
+                mMatrixDirty = false;
+            }
+            drawBorder(canvas);
+            //nothing but transparent rows above the crest
+            final float fillTop = Math.max(0f, (float) Math.floor(mWaveModel.getCrest()) - 1f);
+            final int paintCount = renderer.getPaintCount();
+            for (int i = 0; i < paintCount; i++) {
+                Paint paint = renderer.getPaint(i);
+                paint.setColorFilter(mColorFilter);
+                mWaveShape.drawFill(canvas, paint, fillTop);
+            }
+        } else if (renderer.isPending()) {
+            //no tile yet,fill the water flat
+            final int color = renderer.getLayerColor(renderer.getLayerCount() - 1);
+            mFlatPaint.setColor(color);
+            mFlatPaint.setAlpha((color >>> 24) * mAlpha / 0xff);
+            mFlatPaint.setColorFilter(mColorFilter);
+            drawBorder(canvas);
+            mWaveShape.drawFill(canvas, mFlatPaint, mWaveModel.getWaterLevel());
+        }
+        canvas.restoreToCount(saveCount);
+    }
+
+    private void drawBorder(Canvas canvas) {
+        if (mBorderPaint == null) return;
+        mBorderPaint.setAlpha((mBorderColor >>> 24) * mAlpha / 0xff);
+        mBorderPaint.setColorFilter(mColorFilter);
+        mWaveShape.drawBorder(canvas, mBorderPaint);
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        if (mAlpha != alpha) {
+            mAlpha = alpha;
+            mWaveRenderer.setAlpha(alpha);
+            invalidateSelf();
+        }
+    }
+
+    @Override
+    public int getAlpha() {
+        return mAlpha;
+    }
+
+    @Override
+    public void setColorFilter(@Nullable ColorFilter colorFilter) {
+        mColorFilter = colorFilter;
+        invalidateSelf();
+    }
+
+    @Nullable
+    @Override
+    public ColorFilter getColorFilter() {
+        return mColorFilter;
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+
+    /**
+     * Leave the clock and let the tiles go idle while hidden, e.g. when the view it is
+     * the background of is detached or gone.
+     */
+    @Override
+    public boolean setVisible(boolean visible, boolean restart) {
+        final boolean changed = super.setVisible(visible, restart);
+        if (visible && restart) {
+            mMotionClock.restart();
+        }
+        if (!visible) {
+            mWaveRenderer.release();
+        }
+        updateClock();
+        return changed;
+    }
+
+    /**
+     * Play the motion, see {@link #setWaveMotion(WaveMotion)}.
+     */
+    @Override
+    public void start() {
+        if (mRunning) return;
+        mMotionClock.restart();
+        mRunning = true;
+        updateClock();
+    }
+
+    @Override
+    public void stop() {
+        if (!mRunning) return;
+        mRunning = false;
+        updateClock();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return mRunning;
+    }
+
+    //be on the clock only while started and visible,
+    //a drawable never started leaves the main thread clock alone
+    private void updateClock() {
+        mMotionClock.setTicking(mRunning && isVisible());
+    }
+
+    private void playFrame(long playTime) {
+        final WaveMotion motion = mWaveMotion;
+        setWaveParams(
+                motion.getWaveShiftRatio(playTime),
+                motion.getAmplitudeRatio(playTime),
+                motion.hasWaterLevel() ?
+                        motion.getWaterLevelRatio(playTime) : mWaveModel.getWaterLevelRatio());
+    }
+
+    public WaveMotion getWaveMotion() {
+        return mWaveMotion;
+    }
+
+    /**
+     * @param waveMotion what {@link #start()} plays, e.g. {@link WaveMotion#loading(long)}
+     */
+    public void setWaveMotion(WaveMotion waveMotion) {
+        if (waveMotion == null) return;
+        mWaveMotion = waveMotion;
+    }
+
+    /**
+     * Create the shaders for the current bounds, see {@link WaveRenderer#updateTiles()}.
+     */
+    private void createShader() {
+        registerMemoryCallbacks();
+        final WaveMetrics metrics = WaveMetrics.getInstance();
+        final boolean measure = metrics.isEnabled();
+        final long start = measure ? System.nanoTime() : 0L;
+        Trace.beginSection(WaveMetrics.TRACE_CREATE_SHADER);
+        try {
+            mWaveRenderer.updateTiles();
+        } finally {
+            Trace.endSection();
+        }
+        if (measure) {
+            metrics.recordShaderUpdate(System.nanoTime() - start);
+        }
+        mMatrixDirty = true;
+        invalidateSelf();
+    }
+
+    //with the context of the view the drawable is set on,if any yet
+    private void registerMemoryCallbacks() {
+        if (mMemoryCallbacksRegistered) return;
+        final Callback callback = getCallback();
+        if (callback instanceof View) {
+            WaveShaderCache.getInstance().registerMemoryCallbacks(((View) callback).getContext());
+            mMemoryCallbacksRegistered = true;
+        }
+    }
+
+    private void updateShapeBounds() {
+        final Rect bounds = getBounds();
+        mWaveShape.onBoundsChanged(bounds.width(), bounds.height(),
+                mBorderPaint == null ? 0f : mBorderPaint.getStrokeWidth());
+    }
+
+    /**
+     * @param waveShape the shape, not shared with other views or drawables
+     */
+    public void setWaveShape(WaveShape waveShape) {
+        if (waveShape == null) return;
+        mWaveShape = waveShape;
+        updateShapeBounds();
+        invalidateSelf();
+    }
+
+    public WaveShape getWaveShape() {
+        return mWaveShape;
+    }
+
+    /**
+     * @param width the border width
+     * @param color the border color
+     */
+    public void setBorder(int width, int color) {
+        if (mBorderPaint == null) {
+            mBorderPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            mBorderPaint.setStyle(Paint.Style.STROKE);
+        }
+        mBorderColor = color;
+        mBorderPaint.setColor(color);
+        mBorderPaint.setStrokeWidth(width);
+        updateShapeBounds();
+        invalidateSelf();
+    }
+
+    /**
+     * Go back to the default behind and front waves with these colors.
+     *
+     * @param behindWaveColor color of the behind wave
+     * @param frontWaveColor  color of the front wave
+     */
+    public void setWaveColor(int behindWaveColor, int frontWaveColor) {
+        if (!mDefaultLayers) {
+            setWaveLayers(new WaveLayer(behindWaveColor, 0f),
+                    new WaveLayer(frontWaveColor, WaveModel.FRONT_WAVE_OFFSET));
+            mDefaultLayers = true;
+            return;
+        }
+        //both colors before the tiles are drawn again
+        boolean tiles = mWaveRenderer.setLayerColor(0, behindWaveColor);
+        tiles |= mWaveRenderer.setLayerColor(1, frontWaveColor);
+        if (tiles && !getBounds().isEmpty()) {
+            createShader();
+        }
+        invalidateSelf();
+    }
+
+    /**
+     * @param index behind to front
+     * @param color see {@link WaveView#setWaveLayerColor(int, int)}
+     */
+    public void setWaveLayerColor(int index, int color) {
+        if (mWaveRenderer.getLayerColor(index) == color) return;
+        if (mWaveRenderer.setLayerColor(index, color) && !getBounds().isEmpty()) {
+            createShader();
+        }
+        invalidateSelf();
+    }
+
+    /**
+     * @param layers behind to front, see {@link WaveView#setWaveLayers(WaveLayer...)}
+     */
+    public void setWaveLayers(WaveLayer... layers) {
+        mWaveRenderer.setLayers(layers);
+        mDefaultLayers = false;
+        if (!getBounds().isEmpty()) {
+            createShader();
+        }
+    }
+
+    public int getWaveLayerCount() {
+        return mWaveRenderer.getLayerCount();
+    }
+
+    public WaveLayer getWaveLayer(int index) {
+        return mWaveRenderer.getLayer(index);
+    }
+
+    public float getWaveShiftRatio() {
+        return mWaveModel.getWaveShiftRatio();
+    }
+
+    public float getAmplitudeRatio() {
+        return mWaveModel.getAmplitudeRatio();
+    }
+
+    public float getWaterLevelRatio() {
+        return mWaveModel.getWaterLevelRatio();
+    }
+
+    /**
+     * @param waterLevelRatio see {@link WaveView#setWaterLevelRatio(float)}
+     */
+    public void setWaterLevelRatio(float waterLevelRatio) {
+        setWaveParams(mWaveModel.getWaveShiftRatio(), mWaveModel.getAmplitudeRatio(),
+                waterLevelRatio);
+    }
+
+    /**
+     * Set the animated params at once, the drawable invalidates at most once.
+     *
+     * @param waveShiftRatio  see {@link WaveView#setWaveShiftRatio(float)}
+     * @param amplitudeRatio  see {@link WaveView#setAmplitudeRatio(float)}
+     * @param waterLevelRatio see {@link WaveView#setWaterLevelRatio(float)}
+     */
+    public void setWaveParams(float waveShiftRatio, float amplitudeRatio, float waterLevelRatio) {
+        final WaveModel model = mWaveModel;
+        if (model.getWaveShiftRatio() == waveShiftRatio
+                && model.getAmplitudeRatio() == amplitudeRatio
+                && model.getWaterLevelRatio() == waterLevelRatio) {
+            return;
+        }
+        model.setWaveShiftRatio(waveShiftRatio);
+        model.setAmplitudeRatio(amplitudeRatio);
+        model.setWaterLevelRatio(waterLevelRatio);
+        mMatrixDirty = true;
+        invalidateSelf();
+    }
+
+    public float getWaveLengthRatio() {
+        return mWaveModel.getWaveLengthRatio();
+    }
+
+    /**
+     * @param waveLengthRatio see {@link WaveView#setWaveLengthRatio(float)}
+     */
+    public void setWaveLengthRatio(float waveLengthRatio) {
+        if (mWaveModel.getWaveLengthRatio() != waveLengthRatio) {
+            mWaveModel.setWaveLengthRatio(waveLengthRatio);
+            mMatrixDirty = true;
+            invalidateSelf();
+        }
+    }
+
+    /**
+     * @param compactTexture see {@link WaveView#setCompactTexture(boolean)}
+     */
+    public void setCompactTexture(boolean compactTexture) {
+        if (mWaveRenderer.isCompactTexture() != compactTexture) {
+            mWaveRenderer.setCompactTexture(compactTexture);
+            if (!getBounds().isEmpty()) {
+                createShader();
+            }
+        }
+    }
+
+    public boolean isCompactTexture() {
+        return mWaveRenderer.isCompactTexture();
+    }
+
+    /**
+     * @param maskTexture see {@link WaveView#setMaskTexture(boolean)}
+     */
+    public void setMaskTexture(boolean maskTexture) {
+        if (mWaveRenderer.isMaskTiles() != maskTexture) {
+            mWaveRenderer.setMaskTiles(maskTexture);
+            if (!getBounds().isEmpty()) {
+                createShader();
+            }
+        }
+    }
+
+    public boolean isMaskTexture() {
+        return mWaveRenderer.isMaskTiles();
+    }
+
+    /**
+     * @param asyncShader see {@link WaveView#setAsyncShaderGeneration(boolean)}
+     */
+    public void setAsyncShaderGeneration(boolean asyncShader) {
+        mWaveRenderer.setAsyncTiles(asyncShader);
+    }
+
+    public boolean isAsyncShaderGeneration() {
+        return mWaveRenderer.isAsyncTiles();
+    }
+
+    /**
+     * @param runtimeShaderEnabled see {@link WaveView#setRuntimeShaderEnabled(boolean)}
+     */
+    public void setRuntimeShaderEnabled(boolean runtimeShaderEnabled) {
+        if (mWaveRenderer.isRuntimeShaderEnabled() != runtimeShaderEnabled) {
+            mWaveRenderer.setRuntimeShaderEnabled(runtimeShaderEnabled);
+            if (!getBounds().isEmpty()) {
+                createShader();
+            }
+        }
+    }
+
+    public boolean isRuntimeShaderEnabled() {
+        return mWaveRenderer.isRuntimeShaderEnabled();
+    }
+}
@@ -0,0 +1,621 @@
+package com.zxm.wavelibrary;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Shader;
+import android.os.Build;
+import android.os.Trace;
+import android.util.AttributeSet;
+import android.view.View;
+
+import androidx.annotation.Nullable;
+
+import com.zxm.wavelibrary.AnimatorHelper.WaveFrameClock;
+import com.zxm.wavelibrary.MathHelper.WaveLayer;
+import com.zxm.wavelibrary.MathHelper.WaveModel;
+import com.zxm.wavelibrary.MetricsHelper.WaveMetrics;
+import com.zxm.wavelibrary.ShaderHelper.WaveShaderCache;
+import com.zxm.wavelibrary.ShaderHelper.WaveShaderKey;
+
+import java.util.Arrays;
+
+/**
+ * Created by ZhangXinmin on 2026/10/18.
+ * Copyright (c) 2026 . All rights reserved.
+ * Many independent wave gauges in one view, e.g. a dashboard of water levels.
+ * <p>
+ * Every cell has its own water level, amplitude and shift, kept in flat float arrays.
+ * All cells are filled from one shared tile of {@link WaveShaderCache} with one paint
+ * whose shader never changes: a cell only moves the canvas onto its params, so a
+ * frame is one save, transform and fill per cell. The cells animate from one
+ * {@link WaveFrameClock} callback and the view invalidates once per frame, however
+ * many cells there are.
+ * <p>
+ * Cells are laid out row by row, {@link #setColumnCount(int)} per row. All cells have
+ * the same size and layers, the layers must move together
+ * (see {@link WaveLayer#movesWith(WaveLayer)}).
+ */
+
+public class WaveGridView extends View implements WaveFrameClock.Callback {
+    //smallest |amplitude| a cell is drawn with,the tile can not be squashed flat
+    private static final float MIN_AMPLITUDE_SCALE = 1e-4f;
+
+    //cell params
+    private int mCellCount;
+    private float[] mWaterLevelRatios = new float[0];
+    private float[] mAmplitudeRatios = new float[0];
+    private float[] mWaveShiftRatios = new float[0];
+    //layout of cells
+    private int mColumnCount = 1;
+    private int mCellSpacing;
+    private int mCellWidth;
+    private int mCellHeight;
+    //the shape type of every cell,see WaveView
+    private int mShapeType;
+    //waves of every cell,behind to front
+    private WaveLayer[] mLayers;
+    private float mWaveLengthRatio = WaveModel.DEFAULT_WAVE_LENGTH_RATIO;
+    // if true,only the rows the waves can reach are filled
+    private boolean mWaveBandClipping = true;
+
+    //the shared tile of all cells
+    private WaveShaderKey mShaderKey;
+    private BitmapShader mWaveShader;
+    private final Matrix mShaderMatrix = new Matrix();
+    private final Paint mWavePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private boolean mMatrixDirty;
+
+    //shift animation
+    private long mShiftDurationNanos = 1000000000L;
+    private boolean mAnimating;
+    //frame time the animation (re)started at,-1 until the next frame
+    private long mStartTimeNanos = -1;
+    //play time before the last pause
+    private long mPlayedNanos;
+    //shift of every cell on top of its own
+    private float mAnimatedShiftRatio;
+
+    //visibility of the view for the clock
+    private boolean mAttached;
+    private boolean mAggregatedVisible = true;
+    private boolean mWindowVisible = true;
+    private boolean mTicking;
+
+    public WaveGridView(Context context) {
+        this(context, null, 0);
+    }
+
+    public WaveGridView(Context context, @Nullable AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public WaveGridView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        initParamsAndValues(attrs);
+    }
+
+    //init params
+    private void initParamsAndValues(AttributeSet attrs) {
+        WaveShaderCache.getInstance().registerMemoryCallbacks(getContext());
+
+        TypedArray array = getContext().obtainStyledAttributes(attrs, R.styleable.WaveGridView);
+        mShapeType = array.getInt(R.styleable.WaveGridView_shape_type, WaveView.SHAPE_RECTANGLE);
+        int behindWaveColor = array.getColor(R.styleable.WaveGridView_behind_color, 0x555351);
+        int frontWaveColor = array.getColor(R.styleable.WaveGridView_front_color, 0x656361);
+        mColumnCount = Math.max(1, array.getInt(R.styleable.WaveGridView_column_count, 1));
+        mCellSpacing = array.getDimensionPixelSize(R.styleable.WaveGridView_cell_spacing, 0);
+        int cellCount = array.getInt(R.styleable.WaveGridView_cell_count, 0);
+        array.recycle();
+
+        mLayers = new WaveLayer[]{
+                new WaveLayer(behindWaveColor, 0f),
+                new WaveLayer(frontWaveColor, WaveModel.FRONT_WAVE_OFFSET)};
+        setCellCount(cellCount);
+    }
+
+    private int getRowCount() {
+        return (mCellCount + mColumnCount - 1) / mColumnCount;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        int height = MeasureSpec.getSize(heightMeasureSpec);
+        if (MeasureSpec.getMode(heightMeasureSpec) != MeasureSpec.EXACTLY) {
+            //square cells as wide as the columns allow
+            final int rows = getRowCount();
+            final int cellWidth = computeCellSize(width - getPaddingLeft() - getPaddingRight(),
+                    mColumnCount);
+            final int desired = getPaddingTop() + getPaddingBottom()
+                    + rows * cellWidth + Math.max(0, rows - 1) * mCellSpacing;
+            height = resolveSize(desired, heightMeasureSpec);
+        }
+        setMeasuredDimension(width, height);
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        updateCellSize();
+    }
+
+    private int computeCellSize(int space, int count) {
+        if (count <= 0) return 0;
+        return Math.max(0, (space - (count - 1) * mCellSpacing) / count);
+    }
+
+    //cells share the room left by padding and spacing
+    private void updateCellSize() {
+        final int cellWidth = computeCellSize(
+                getWidth() - getPaddingLeft() - getPaddingRight(), mColumnCount);
+        final int cellHeight = computeCellSize(
+                getHeight() - getPaddingTop() - getPaddingBottom(), getRowCount());
+        if (cellWidth != mCellWidth || cellHeight != mCellHeight) {
+            mCellWidth = cellWidth;
+            mCellHeight = cellHeight;
+            createShader();
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mAttached = true;
+        if (mWaveShader == null) {
+            createShader();
+        }
+        updateTicking();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        mAttached = false;
+        updateTicking();
+        //let the shared tile go idle while the view is off window
+        releaseShader();
+    }
+
+    @Override
+    public void onVisibilityAggregated(boolean isVisible) {
+        super.onVisibilityAggregated(isVisible);
+        mAggregatedVisible = isVisible;
+        updateTicking();
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        //onVisibilityAggregated covers this since N
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.N) {
+            mAggregatedVisible = isShown();
+            updateTicking();
+        }
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        mWindowVisible = visibility == VISIBLE;
+        updateTicking();
+    }
+
+    /**
+     * Take the shared tile for the current cell size and layers.
+     */
+    private void createShader() {
+        if (mCellWidth <= 0 || mCellHeight <= 0 || mCellCount == 0) {
+            releaseShader();
+            return;
+        }
+        WaveShaderKey key = new WaveShaderKey(mCellWidth, mCellHeight, mLayers,
+                WaveModel.DEFAULT_AMPLITUDE_RATIO, WaveModel.DEFAULT_WATER_LEVEL_RATIO,
+                WaveModel.DEFAULT_WAVE_LENGTH_RATIO, true);
+        if (key.equals(mShaderKey) && mWaveShader != null) return;
+        WaveShaderCache cache = WaveShaderCache.getInstance();
+        final WaveMetrics metrics = WaveMetrics.getInstance();
+        final boolean measure = metrics.isEnabled();
+        final long start = measure ? System.nanoTime() : 0L;
+        Trace.beginSection(WaveMetrics.TRACE_CREATE_SHADER);
+        Bitmap tile;
+        try {
+            tile = cache.acquire(key);
+        } finally {
+            Trace.endSection();
+        }
+        if (measure) {
+            metrics.recordShaderUpdate(System.nanoTime() - start);
+        }
+        releaseShader();
+        mShaderKey = key;
+        mWaveShader = new BitmapShader(tile, Shader.TileMode.REPEAT, Shader.TileMode.CLAMP);
+        mWavePaint.setShader(mWaveShader);
+        mMatrixDirty = true;
+        invalidate();
+    }
+
+    /**
+     * Give the shared tile back to {@link WaveShaderCache}.
+     */
+    private void releaseShader() {
+        if (mShaderKey != null) {
+            WaveShaderCache.getInstance().release(mShaderKey);
+            mShaderKey = null;
+        }
+        mWaveShader = null;
+        mWavePaint.setShader(null);
+    }
+
+    //the tile in cell coordinates at the default params,cells move the canvas instead
+    private void updateShaderMatrix() {
+        final WaveShaderKey key = mShaderKey;
+        final float waveLength = mWaveLengthRatio * mLayers[0].waveLengthScale * key.width;
+        mShaderMatrix.setScale(waveLength / key.getTileWaveLength(), 1f);
+        mShaderMatrix.preTranslate(0, key.getTileTop());
+        mWaveShader.setLocalMatrix(mShaderMatrix);
+        mMatrixDirty = false;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (mWaveShader == null) return;
+        final WaveMetrics metrics = WaveMetrics.getInstance();
+        final boolean measure = metrics.isEnabled();
+        final long start = measure ? System.nanoTime() : 0L;
+        Trace.beginSection(WaveMetrics.TRACE_DRAW);
+        try {
+            drawCells(canvas);
+        } finally {
+            Trace.endSection();
+        }
+        if (measure) {
+            metrics.recordDraw(System.nanoTime() - start);
+        }
+    }
+
+    private void drawCells(Canvas canvas) {
+        if (mMatrixDirty) {
+            updateShaderMatrix();
+        }
+        final WaveShaderKey key = mShaderKey;
+        final float cellWidth = mCellWidth;
+        final float cellHeight = mCellHeight;
+        //the tile scales about its water level
+        final float pivot = cellHeight * (1f - key.waterLevelRatio);
+        final float speed = mLayers[0].speed;
+        final float maxAmplitudeScale = getMaxAmplitudeScale();
+        final boolean circle = mShapeType == WaveView.SHAPE_CIRCLE;
+        final float diameter = Math.min(cellWidth, cellHeight);
+        final float ovalLeft = (cellWidth - diameter) / 2f;
+        final float ovalTop = (cellHeight - diameter) / 2f;
+        final Paint paint = mWavePaint;
+
+        for (int i = 0; i < mCellCount; i++) {
+            final float left = getPaddingLeft() + (i % mColumnCount) * (cellWidth + mCellSpacing);
+            final float top = getPaddingTop() + (i / mColumnCount) * (cellHeight + mCellSpacing);
+            final float amplitude = mAmplitudeRatios[i];
+            float scale = amplitude / key.amplitudeRatio;
+            if (Math.abs(scale) < MIN_AMPLITUDE_SCALE) {
+                scale = scale < 0f ? -MIN_AMPLITUDE_SCALE : MIN_AMPLITUDE_SCALE;
+            }
+            final float shiftX = (mAnimatedShiftRatio + mWaveShiftRatios[i]) * speed * cellWidth;
+            final float levelY = (key.waterLevelRatio - mWaterLevelRatios[i]) * cellHeight;
+            //nothing but transparent rows above the crest
+            float fillTop = 0f;
+            if (mWaveBandClipping) {
+                final float crest = (1f - mWaterLevelRatios[i]) * cellHeight
+                        - Math.abs(amplitude) * maxAmplitudeScale * cellHeight;
+                fillTop = Math.max(0f, (float) Math.floor(crest) - 1f);
+            }
+
+            final int saveCount = canvas.save();
+            if (circle && fillTop > 0f) {
+                canvas.clipRect(left, top + fillTop, left + cellWidth, top + cellHeight);
+            }
+            //same mapping as WaveRenderer puts into the shader matrix
+            canvas.translate(left + shiftX, top + pivot + levelY);
+            canvas.scale(1f, scale);
+            canvas.translate(0f, -pivot);
+            //cell rows in the moved canvas
+            final float inverseTop = (circle ? ovalTop : fillTop) - pivot - levelY;
+            final float inverseBottom = (circle ? ovalTop + diameter : cellHeight) - pivot - levelY;
+            final float y1 = inverseTop / scale + pivot;
+            final float y2 = inverseBottom / scale + pivot;
+            if (circle) {
+                canvas.drawOval(ovalLeft - shiftX, Math.min(y1, y2),
+                        ovalLeft + diameter - shiftX, Math.max(y1, y2), paint);
+            } else {
+                canvas.drawRect(-shiftX, Math.min(y1, y2),
+                        cellWidth - shiftX, Math.max(y1, y2), paint);
+            }
+            canvas.restoreToCount(saveCount);
+        }
+    }
+
+    //largest |amplitude scale| of the layers
+    private float getMaxAmplitudeScale() {
+        float scale = 0f;
+        for (WaveLayer layer : mLayers) {
+            scale = Math.max(scale, Math.abs(layer.amplitudeScale));
+        }
+        return scale;
+    }
+
+    /**
+     * Cells do not overlap and each one is filled once.
+     */
+    @Override
+    public boolean hasOverlappingRendering() {
+        return getBackground() != null;
+    }
+
+    /**
+     * Start moving every cell, the shift goes 0 ~ 1 once per <code>duration</code>.
+     * The clock only runs while the view can be seen.
+     *
+     * @param duration ms per wave shift
+     */
+    public void startWaveAnimation(long duration) {
+        mShiftDurationNanos = Math.max(1, duration) * 1000000L;
+        mAnimating = true;
+        updateTicking();
+    }
+
+    /**
+     * Stop the cells where they are.
+     */
+    public void stopWaveAnimation() {
+        mAnimating = false;
+        updateTicking();
+    }
+
+    public boolean isWaveAnimating() {
+        return mAnimating;
+    }
+
+    //register with the clock while animating and visible
+    private void updateTicking() {
+        final boolean tick = mAnimating && mAttached && mAggregatedVisible && mWindowVisible;
+        if (tick == mTicking) return;
+        mTicking = tick;
+        WaveFrameClock clock = WaveFrameClock.getInstance();
+        if (tick) {
+            mStartTimeNanos = -1;
+            clock.addCallback(this);
+        } else {
+            clock.removeCallback(this);
+            //pick up at the same phase
+            mPlayedNanos = (long) (mAnimatedShiftRatio * mShiftDurationNanos);
+        }
+    }
+
+    @Override
+    public void doWaveFrame(long frameTimeNanos) {
+        if (mStartTimeNanos < 0) {
+            mStartTimeNanos = frameTimeNanos - mPlayedNanos;
+        }
+        final long playTime = frameTimeNanos - mStartTimeNanos;
+        mAnimatedShiftRatio = (float) (playTime % mShiftDurationNanos) / mShiftDurationNanos;
+        invalidate();
+    }
+
+    public int getCellCount() {
+        return mCellCount;
+    }
+
+    /**
+     * Change the number of gauges. Params of the first cells are kept, new cells
+     * start at the default params.
+     *
+     * @param cellCount the number of cells
+     */
+    public void setCellCount(int cellCount) {
+        if (cellCount < 0) {
+            throw new IllegalArgumentException("cellCount < 0");
+        }
+        if (cellCount == mCellCount) return;
+        mWaterLevelRatios = resize(mWaterLevelRatios, cellCount,
+                WaveModel.DEFAULT_WATER_LEVEL_RATIO);
+        mAmplitudeRatios = resize(mAmplitudeRatios, cellCount,
+                WaveModel.DEFAULT_AMPLITUDE_RATIO);
+        mWaveShiftRatios = resize(mWaveShiftRatios, cellCount,
+                WaveModel.DEFAULT_WAVE_SHIFT_RATIO);
+        mCellCount = cellCount;
+        requestLayout();
+        updateCellSize();
+        invalidate();
+    }
+
+    private static float[] resize(float[] values, int length, float fill) {
+        float[] resized = Arrays.copyOf(values, length);
+        if (length > values.length) {
+            Arrays.fill(resized, values.length, length, fill);
+        }
+        return resized;
+    }
+
+    public int getColumnCount() {
+        return mColumnCount;
+    }
+
+    /**
+     * @param columnCount cells per row, at least 1
+     */
+    public void setColumnCount(int columnCount) {
+        columnCount = Math.max(1, columnCount);
+        if (mColumnCount != columnCount) {
+            mColumnCount = columnCount;
+            requestLayout();
+            updateCellSize();
+            invalidate();
+        }
+    }
+
+    public int getCellSpacing() {
+        return mCellSpacing;
+    }
+
+    /**
+     * @param cellSpacing px between neighbouring cells
+     */
+    public void setCellSpacing(int cellSpacing) {
+        if (mCellSpacing != cellSpacing) {
+            mCellSpacing = cellSpacing;
+            requestLayout();
+            updateCellSize();
+            invalidate();
+        }
+    }
+
+    public float getWaterLevelRatio(int cell) {
+        return mWaterLevelRatios[cell];
+    }
+
+    /**
+     * @param cell            the cell index
+     * @param waterLevelRatio see {@link WaveView#setWaterLevelRatio(float)}
+     */
+    public void setWaterLevelRatio(int cell, float waterLevelRatio) {
+        if (mWaterLevelRatios[cell] != waterLevelRatio) {
+            mWaterLevelRatios[cell] = waterLevelRatio;
+            invalidate();
+        }
+    }
+
+    /**
+     * Set the water level of many cells at once, the view invalidates once.
+     *
+     * @param waterLevelRatios one ratio per cell, from cell 0
+     */
+    public void setWaterLevelRatios(float[] waterLevelRatios) {
+        copyParams(waterLevelRatios, mWaterLevelRatios);
+    }
+
+    public float getAmplitudeRatio(int cell) {
+        return mAmplitudeRatios[cell];
+    }
+
+    /**
+     * @param cell           the cell index
+     * @param amplitudeRatio see {@link WaveView#setAmplitudeRatio(float)}
+     */
+    public void setAmplitudeRatio(int cell, float amplitudeRatio) {
+        if (mAmplitudeRatios[cell] != amplitudeRatio) {
+            mAmplitudeRatios[cell] = amplitudeRatio;
+            invalidate();
+        }
+    }
+
+    /**
+     * Set the amplitude of many cells at once, the view invalidates once.
+     *
+     * @param amplitudeRatios one ratio per cell, from cell 0
+     */
+    public void setAmplitudeRatios(float[] amplitudeRatios) {
+        copyParams(amplitudeRatios, mAmplitudeRatios);
+    }
+
+    public float getWaveShiftRatio(int cell) {
+        return mWaveShiftRatios[cell];
+    }
+
+    /**
+     * @param cell           the cell index
+     * @param waveShiftRatio shift of the cell on top of the animated shift,
+     *                       see {@link WaveView#setWaveShiftRatio(float)}
+     */
+    public void setWaveShiftRatio(int cell, float waveShiftRatio) {
+        if (mWaveShiftRatios[cell] != waveShiftRatio) {
+            mWaveShiftRatios[cell] = waveShiftRatio;
+            invalidate();
+        }
+    }
+
+    /**
+     * Set the shift of many cells at once, the view invalidates once.
+     *
+     * @param waveShiftRatios one ratio per cell, from cell 0
+     */
+    public void setWaveShiftRatios(float[] waveShiftRatios) {
+        copyParams(waveShiftRatios, mWaveShiftRatios);
+    }
+
+    private void copyParams(float[] from, float[] to) {
+        System.arraycopy(from, 0, to, 0, Math.min(from.length, to.length));
+        invalidate();
+    }
+
+    public float getWaveLengthRatio() {
+        return mWaveLengthRatio;
+    }
+
+    /**
+     * @param waveLengthRatio ratio of wave length to cell width, the same for every cell
+     */
+    public void setWaveLengthRatio(float waveLengthRatio) {
+        if (mWaveLengthRatio != waveLengthRatio) {
+            mWaveLengthRatio = waveLengthRatio;
+            mMatrixDirty = true;
+            invalidate();
+        }
+    }
+
+    /**
+     * @param behindWaveColor color of the behind wave
+     * @param frontWaveColor  color of the front wave
+     */
+    public void setWaveColor(int behindWaveColor, int frontWaveColor) {
+        setWaveLayers(new WaveLayer(behindWaveColor, 0f),
+                new WaveLayer(frontWaveColor, WaveModel.FRONT_WAVE_OFFSET));
+    }
+
+    /**
+     * @param layers behind to front, they must move together so one tile holds them all
+     */
+    public void setWaveLayers(WaveLayer... layers) {
+        if (layers.length == 0) {
+            throw new IllegalArgumentException("no layers");
+        }
+        for (WaveLayer layer : layers) {
+            if (!layer.movesWith(layers[0])) {
+                throw new IllegalArgumentException(layer + " does not move with " + layers[0]);
+            }
+        }
+        mLayers = layers.clone();
+        createShader();
+        invalidate();
+    }
+
+    public int getShapeType() {
+        return mShapeType;
+    }
+
+    /**
+     * @param shapeType {@link WaveView#SHAPE_CIRCLE} or {@link WaveView#SHAPE_RECTANGLE}
+     */
+    public void setShapeType(int shapeType) {
+        if (mShapeType != shapeType) {
+            mShapeType = shapeType;
+            invalidate();
+        }
+    }
+
+    public boolean isWaveBandClipping() {
+        return mWaveBandClipping;
+    }
+
+    /**
+     * @param waveBandClipping see {@link WaveView#setWaveBandClipping(boolean)}
+     */
+    public void setWaveBandClipping(boolean waveBandClipping) {
+        if (mWaveBandClipping != waveBandClipping) {
+            mWaveBandClipping = waveBandClipping;
+            invalidate();
+        }
+    }
+}
@@ -1,22 +1,47 @@
 package com.zxm.wavelibrary;
 
 import android.content.Context;
-import android.content.res.Resources;
 import android.content.res.TypedArray;
-import android.graphics.Bitmap;
-import android.graphics.BitmapShader;
 import android.graphics.Canvas;
-import android.graphics.Matrix;
 import android.graphics.Paint;
-import android.graphics.Shader;
+import android.graphics.Picture;
+import android.graphics.RecordingCanvas;
+import android.graphics.RenderNode;
+import android.graphics.Rect;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Trace;
 import android.util.AttributeSet;
 import android.util.Log;
+import android.view.MotionEvent;
 import android.view.View;
+import android.view.ViewTreeObserver;
 
 import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
 
 import com.zxm.wavelibrary.AnimatorHelper.SimpleWaveAnimatorImp;
 import com.zxm.wavelibrary.AnimatorHelper.WaveAnimatorHelper;
+import com.zxm.wavelibrary.AnimatorHelper.WaveFrameClock;
+import com.zxm.wavelibrary.MathHelper.WaveLayer;
+import com.zxm.wavelibrary.MathHelper.WaveLevelInput;
+import com.zxm.wavelibrary.MathHelper.WaveModel;
+import com.zxm.wavelibrary.MathHelper.WaveSurface;
+import com.zxm.wavelibrary.MetricsHelper.WaveMetrics;
+import com.zxm.wavelibrary.ShapeHelper.BatteryShape;
+import com.zxm.wavelibrary.ShapeHelper.CircleShape;
+import com.zxm.wavelibrary.ShapeHelper.RectangleShape;
+import com.zxm.wavelibrary.ShapeHelper.RoundRectShape;
+import com.zxm.wavelibrary.ShapeHelper.VectorPathShape;
+import com.zxm.wavelibrary.ShapeHelper.WaveShape;
+import com.zxm.wavelibrary.ShaderHelper.WaveAtlasCache;
+import com.zxm.wavelibrary.ShaderHelper.WaveAtlasPlayer;
+import com.zxm.wavelibrary.ShaderHelper.WaveRenderer;
+import com.zxm.wavelibrary.ShaderHelper.WaveShaderCache;
+import com.zxm.wavelibrary.ShaderHelper.WaveSurfaceTexture;
+
+import java.util.ArrayList;
 
 /**
  * Created by ZhangXinmin on 2017/7/10.
@@ -29,6 +54,8 @@ import com.zxm.wavelibrary.AnimatorHelper.WaveAnimatorHelper;
  * ω：决定周期（最小正周期T=2π/|ω|）
  * A：决定峰值（即纵向拉伸压缩的倍数）
  * h：表示波形在Y轴的位置关系或纵向移动距离（上加下减）
+ * <p>
+ * The math lives in {@link WaveModel}, the view maps it onto a shared shader tile.
  */
 
 public class WaveView extends View {
@@ -37,25 +64,53 @@ public class WaveView extends View {
 
     //the shape type of view border
     private int mShapeType;
+    //outline the waves are filled into
+    private WaveShape mWaveShape;
     public static final int SHAPE_CIRCLE = 0;//the border is circle
     public static final int SHAPE_RECTANGLE = 1;//the border is rectangle
 
-    //params of water
-    private static final float DEFAULT_AMPLITUDE_RATIO = 0.45f;//默认水位振幅比率
-    private static final float DEFAULT_WATER_LEVEL_RATIO = 0.5f;//默认水位比率
-    private static final float DEFAULT_WAVE_LENGTH_RATIO = 1.0f;//默认波长比率
-    private static final float DEFAULT_WAVE_SHIFT_RATIO = 0.0f;//默认波浪偏移比率
+    //what changed since the shader matrix was last computed
+    private static final int DIRTY_SHIFT = 1;
+    private static final int DIRTY_AMPLITUDE = 1 << 1;
+    private static final int DIRTY_WAVE_LENGTH = 1 << 2;
+    private static final int DIRTY_WATER_LEVEL = 1 << 3;
+    private static final int DIRTY_TILE = 1 << 4;
+    private static final int DIRTY_MATRIX = DIRTY_SHIFT | DIRTY_AMPLITUDE
+            | DIRTY_WAVE_LENGTH | DIRTY_WATER_LEVEL | DIRTY_TILE;
+    //anything drawn changed,the cached frame must be recorded again
+    private static final int DIRTY_CONTENT = 1 << 5;
+
+    //touches push the surface down around the finger,view heights per second
+    private static final float TOUCH_VELOCITY = -0.5f;
+    //of the width
+    private static final float TOUCH_RADIUS = 0.08f;
+    //a drag pushes as hard as a touch every this much of the width
+    private static final float TOUCH_DRAG_SPAN = 0.1f;
 
     // if true,the shader will display the wave
     private boolean mShowWave;
-    // shader containing repeated waves
-    private BitmapShader mWaveShader;
-    //shader matrix
-    private Matrix mShaderMatrix;
-    //draw view
-    private Paint mViewPaint;
-    //draw wave
-    private Paint mWavePaint;
+    // shaders containing repeated waves
+    private WaveRenderer mWaveRenderer;
+    // pre-baked frames played instead of the tiles,off by default
+    private WaveAtlasPlayer mAtlasPlayer;
+    //the atlas is on but the tiles are drawn,and the size that was logged for
+    private boolean mAtlasFallback;
+    private int mAtlasFallbackWidth;
+    private int mAtlasFallbackHeight;
+    // if true,the layers are the behind and front waves of setWaveColor
+    private boolean mDefaultLayers = true;
+    //DIRTY_* flags,onDraw only touches the matrix when one is set
+    private int mDirtyFlags = DIRTY_MATRIX | DIRTY_CONTENT;
+    // if true,only the rows the waves can reach are filled
+    private boolean mWaveBandClipping = true;
+    // if true,idle frames are recorded once and replayed
+    private boolean mStaticFrameCaching;
+    // recorded frame on API 29+ hardware canvases
+    private RenderNodeFrame mRenderNodeFrame;
+    // recorded frame elsewhere
+    private Picture mPictureFrame;
+    //draw water while the first tile is on its way
+    private Paint mFlatPaint;
     // paint to draw border
     private Paint mBorderPaint;
     //view width
@@ -64,47 +119,96 @@ public class WaveView extends View {
     private int mViewHeight;
 
     /**
-     * the default water height
-     * 默认的水位
+     * the wave math,this view only maps it onto the shader tiles
+     * 振幅、波长、水位与偏移都保存在模型中
      */
-    private float mDefaultWaterLevel;
+    private final WaveModel mWaveModel = new WaveModel();
 
-    /**
-     * the ratio of water level ampltitude
-     * 波浪偏离水面的垂直距离（振幅）对应的比率（振幅：A）
-     */
-    private float mAmplitudeRatio = DEFAULT_AMPLITUDE_RATIO;
-    /**
-     * the ratio of an complete wave length in horizontal
-     * 完整波浪长度（波长）的比率
-     */
-    private float mWaveLengthRatio = DEFAULT_WAVE_LENGTH_RATIO;
-    /**
-     * the ratio of water height among the view height
-     * 波浪静止时距离水面的距离（水位）(初相：h)
-     */
-    private float mWaterLevelRatio = DEFAULT_WATER_LEVEL_RATIO;
-    /**
-     * horizontal offset ratio relative to the initial position
-     * 波浪相对于起始位置的偏移量
-     */
-    private float mWaveShiftRatio = DEFAULT_WAVE_SHIFT_RATIO;
-    /**
-     * the color of behind wave
-     * 后浪颜色
-     */
-    private int mBehindWaveColor;
-    /**
-     * the color of front wave
-     * 前浪颜色
-     */
-    private int mFrontWaveColor;
+    //levels streamed from any thread,read once per frame
+    private final WaveLevelInput mLevelInput =
+            new WaveLevelInput(mWaveModel.getWaterLevelRatio());
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    //on the main thread,start stepping the level
+    private final Runnable mLevelPost = new Runnable() {
+        @Override
+        public void run() {
+            WaveFrameClock.getInstance().addCallback(mLevelFrame);
+        }
+    };
+    private final WaveFrameClock.Callback mLevelFrame = new WaveFrameClock.Callback() {
+        @Override
+        public void doWaveFrame(long frameTimeNanos) {
+            final WaveLevelInput input = mLevelInput;
+            //at rest,start from wherever the level was set meanwhile
+            if (input.isSettled()) {
+                input.snapTo(mWaveModel.getWaterLevelRatio());
+            }
+            final boolean moving = input.update(frameTimeNanos);
+            setWaterLevelRatio(input.getLevel());
+            if (moving) {
+                //still on the clock,posts need not ask again
+                input.requestFrame();
+            } else {
+                WaveFrameClock.getInstance().removeCallback(this);
+            }
+        }
+    };
+
+    //spring columns drawn instead of the sine waves,null for the sine waves
+    private WaveSurface mWaveSurface;
+    private final WaveSurfaceTexture mSurfaceTexture = new WaveSurfaceTexture();
+    //stepping the surface with the frame clock
+    private boolean mSurfaceTicking;
+    private long mSurfaceFrameTimeNanos = -1;
+    private float mLastTouchX;
+    private final WaveFrameClock.Callback mSurfaceFrame = new WaveFrameClock.Callback() {
+        @Override
+        public void doWaveFrame(long frameTimeNanos) {
+            final WaveSurface surface = mWaveSurface;
+            //a frame's worth of time on the first frame after a rest
+            final long elapsed = mSurfaceFrameTimeNanos < 0
+                    ? WaveFrameClock.getInstance().getFrameIntervalNanos()
+                    : frameTimeNanos - mSurfaceFrameTimeNanos;
+            mSurfaceFrameTimeNanos = frameTimeNanos;
+            surface.advance(elapsed);
+            invalidateWave();
+            if (surface.isAtRest()) {
+                updateSurfaceTicking();
+            }
+        }
+    };
 
     /**
      * animator helper
      */
     private WaveAnimatorHelper mWaveAnimatorHelper;
 
+    //visibility of the view for the animation driver
+    private boolean mAttached;
+    private boolean mAggregatedVisible = true;
+    private boolean mWindowVisible = true;
+    private boolean mClippedOut;
+    private boolean mWaveVisible;
+    //visible part of the view in window coordinates,reused
+    private final Rect mVisibleRect = new Rect();
+    private final ArrayList<OnWaveVisibilityChangedListener> mOnWaveVisibilityChangedListeners =
+            new ArrayList<>();
+    //clipping changes when an ancestor scrolls or lays out
+    private final ViewTreeObserver.OnScrollChangedListener mOnScrollChangedListener =
+            new ViewTreeObserver.OnScrollChangedListener() {
+                @Override
+                public void onScrollChanged() {
+                    updateWaveVisibility();
+                }
+            };
+    private final ViewTreeObserver.OnGlobalLayoutListener mOnGlobalLayoutListener =
+            new ViewTreeObserver.OnGlobalLayoutListener() {
+                @Override
+                public void onGlobalLayout() {
+                    updateWaveVisibility();
+                }
+            };
+
     public WaveView(Context context) {
         this(context, null, 0);
     }
@@ -120,27 +224,163 @@ public class WaveView extends View {
 
     //init params
     private void initParamsAndValues(AttributeSet attrs) {
-        Resources mResources = getResources();
-        mShaderMatrix = new Matrix();
+        mWaveRenderer = new WaveRenderer(mWaveModel, new WaveRenderer.Callback() {
+            @Override
+            public void onTilesChanged() {
+                mDirtyFlags |= DIRTY_TILE;
+                invalidateWave();
+            }
+        });
+        mAtlasPlayer = new WaveAtlasPlayer(mWaveModel, new WaveAtlasPlayer.Callback() {
+            @Override
+            public void onAtlasChanged() {
+                invalidateWave();
+            }
+
+            @Override
+            public void onAtlasFailed(Throwable error) {
+                Log.w(TAG, "failed to bake the frame atlas, drawing tiles", error);
+                createShader();
+                invalidateWave();
+            }
+        });
         //init paint
-        mViewPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mWavePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mWavePaint.setStrokeWidth(2);
+        mFlatPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        WaveShaderCache.getInstance().registerMemoryCallbacks(getContext());
 
-        TypedArray array = mResources.obtainAttributes(attrs, R.styleable.WaveView);
+        TypedArray array = getContext().obtainStyledAttributes(attrs, R.styleable.WaveView);
         mShapeType = array.getInt(R.styleable.WaveView_shape_type, SHAPE_RECTANGLE);//init border shape
+        mWaveShape = createShape(mShapeType);
         //init wave color
-        mBehindWaveColor = array.getColor(R.styleable.WaveView_behind_color, 0x555351);
-        mFrontWaveColor = array.getColor(R.styleable.WaveView_front_color, 0x656361);
+        int behindWaveColor = array.getColor(R.styleable.WaveView_behind_color, 0x555351);
+        int frontWaveColor = array.getColor(R.styleable.WaveView_front_color, 0x656361);
         array.recycle();
+        mWaveRenderer.setLayers(createDefaultLayers(behindWaveColor, frontWaveColor));
     }
 
     @Override
     protected void onSizeChanged(int w, int h, int oldw, int oldh) {
         super.onSizeChanged(w, h, oldw, oldh);
+        //a stale tile is stretched by the matrix
+        mDirtyFlags |= DIRTY_TILE | DIRTY_CONTENT;
+        updateShapeBounds();
         createShader();
     }
 
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (!mWaveRenderer.hasShader() && !mWaveRenderer.isPending()
+                && !mAtlasPlayer.hasAtlas() && !mAtlasPlayer.isPending()
+                && getWidth() > 0 && getHeight() > 0) {
+            createShader();
+        }
+        mAttached = true;
+        ViewTreeObserver observer = getViewTreeObserver();
+        observer.addOnScrollChangedListener(mOnScrollChangedListener);
+        observer.addOnGlobalLayoutListener(mOnGlobalLayoutListener);
+        updateWaveVisibility();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        //let the shared tile go idle while the view is off window
+        releaseShader();
+        releaseFrameCache();
+        mAttached = false;
+        ViewTreeObserver observer = getViewTreeObserver();
+        observer.removeOnScrollChangedListener(mOnScrollChangedListener);
+        observer.removeOnGlobalLayoutListener(mOnGlobalLayoutListener);
+        updateWaveVisibility();
+    }
+
+    @Override
+    public void onVisibilityAggregated(boolean isVisible) {
+        super.onVisibilityAggregated(isVisible);
+        mAggregatedVisible = isVisible;
+        updateWaveVisibility();
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        //onVisibilityAggregated covers this since N
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.N) {
+            mAggregatedVisible = isShown();
+            updateWaveVisibility();
+        }
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        //the window hides when the host is stopped
+        mWindowVisible = visibility == VISIBLE;
+        updateWaveVisibility();
+    }
+
+    /**
+     * Work out whether the waves can be seen and tell the listeners when that changes.
+     */
+    private void updateWaveVisibility() {
+        mClippedOut = mAttached && !getGlobalVisibleRect(mVisibleRect);
+        boolean visible = mAttached && mAggregatedVisible && mWindowVisible && !mClippedOut;
+        if (mWaveVisible != visible) {
+            mWaveVisible = visible;
+            if (!mOnWaveVisibilityChangedListeners.isEmpty()) {
+                //a copy,listeners may add or remove listeners,changes are rare
+                for (OnWaveVisibilityChangedListener listener
+                        : new ArrayList<>(mOnWaveVisibilityChangedListeners)) {
+                    listener.onWaveVisibilityChanged(this, visible);
+                }
+            }
+            updateSurfaceTicking();
+        }
+    }
+
+    //step the surface while it moves and can be seen
+    private void updateSurfaceTicking() {
+        final boolean tick = mWaveSurface != null && mWaveVisible && !mWaveSurface.isAtRest();
+        if (tick == mSurfaceTicking) return;
+        mSurfaceTicking = tick;
+        WaveFrameClock clock = WaveFrameClock.getInstance();
+        if (tick) {
+            mSurfaceFrameTimeNanos = -1;
+            clock.addCallback(mSurfaceFrame);
+        } else {
+            clock.removeCallback(mSurfaceFrame);
+        }
+    }
+
+    /**
+     * @return true if the view is attached, shown, its window is visible
+     * and it is not fully clipped out of the window
+     */
+    public boolean isWaveVisible() {
+        return mWaveVisible;
+    }
+
+    /**
+     * Listen to {@link #isWaveVisible()}, animation drivers use it to pause offscreen waves.
+     * The animator helper of the view is one of the listeners. Adding a listener twice
+     * has no effect.
+     *
+     * @param listener the listener
+     */
+    public void addOnWaveVisibilityChangedListener(OnWaveVisibilityChangedListener listener) {
+        if (listener == null || mOnWaveVisibilityChangedListeners.contains(listener)) return;
+        mOnWaveVisibilityChangedListeners.add(listener);
+    }
+
+    /**
+     * @param listener a listener added with
+     *                 {@link #addOnWaveVisibilityChangedListener(OnWaveVisibilityChangedListener)}
+     */
+    public void removeOnWaveVisibilityChangedListener(OnWaveVisibilityChangedListener listener) {
+        mOnWaveVisibilityChangedListeners.remove(listener);
+    }
+
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
         int width = MeasureSpec.getSize(widthMeasureSpec);
@@ -149,118 +389,389 @@ public class WaveView extends View {
         setMeasuredDimension(width, height);
         mViewHeight = getMeasuredHeight();
         mViewWidth = getMeasuredWidth();
+        mWaveModel.setSize(mViewWidth, mViewHeight);
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
+        final WaveMetrics metrics = WaveMetrics.getInstance();
+        final boolean measure = metrics.isEnabled();
+        final long start = measure ? System.nanoTime() : 0L;
+        Trace.beginSection(WaveMetrics.TRACE_DRAW);
+        try {
+            if (!mStaticFrameCaching || !drawCachedFrame(canvas)) {
+                drawWave(canvas);
+                mDirtyFlags &= ~DIRTY_CONTENT;
+            }
+        } finally {
+            Trace.endSection();
+        }
+        if (measure) {
+            metrics.recordDraw(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Draw the waves, the border and the shape.
+     *
+     * @param canvas the view canvas or a recording canvas
+     */
+    private void drawWave(Canvas canvas) {
         //modify paint shader according to mShowWave state
-        if (mShowWave && mWaveShader != null) {
-            //set shader for paint
-            if (mViewPaint.getShader() == null) {
-                mViewPaint.setShader(mWaveShader);
+        final WaveRenderer renderer = mWaveRenderer;
+        if (mShowWave && mWaveSurface != null) {
+            drawSurface(canvas);
+        } else if (mShowWave && mAtlasPlayer.hasAtlas()) {
+            drawAtlas(canvas);
+        } else if (mShowWave && renderer.hasShader()) {
+            if ((mDirtyFlags & DIRTY_MATRIX) != 0) {
+                renderer.updateShaderMatrices();
+                mDirtyFlags &= ~DIRTY_MATRIX;
+            }
+            if (mBorderPaint != null) {
+                mWaveShape.drawBorder(canvas, mBorderPaint);
+            }
+            //nothing but transparent rows above the crest
+            final float fillTop = mWaveBandClipping ? getWaveBandTop() : 0f;
+            //one paint for all layers,or one per tile before Q
+            final int paintCount = renderer.getPaintCount();
+            for (int i = 0; i < paintCount; i++) {
+                mWaveShape.drawFill(canvas, renderer.getPaint(i), fillTop);
             }
+        } else if (mShowWave && (renderer.isPending() || mAtlasPlayer.isPending())) {
+            //no tile yet,fill the water flat
+            mFlatPaint.setColor(renderer.getLayerColor(renderer.getLayerCount() - 1));
+            if (mBorderPaint != null) {
+                mWaveShape.drawBorder(canvas, mBorderPaint);
+            }
+            mWaveShape.drawFill(canvas, mFlatPaint, mWaveModel.getWaterLevel());
+        }
+    }
+
+    /**
+     * Fill the band from the frame of the atlas and the water below it flat.
+     */
+    private void drawAtlas(Canvas canvas) {
+        final WaveAtlasPlayer player = mAtlasPlayer;
+        player.updateMatrix();
+        mDirtyFlags &= ~DIRTY_MATRIX;
+        if (mBorderPaint != null) {
+            mWaveShape.drawBorder(canvas, mBorderPaint);
+        }
+        final int bandTop = Math.max(0, player.getBandTop());
+        final int bandBottom = player.getBandBottom();
+        if (bandBottom > bandTop) {
+            final int saveCount = canvas.save();
+            canvas.clipRect(0, bandTop, mViewWidth, bandBottom);
+            mWaveShape.drawFill(canvas, player.getPaint(), bandTop);
+            canvas.restoreToCount(saveCount);
+        }
+        if (bandBottom < mViewHeight) {
+            mWaveShape.drawFill(canvas, player.getWaterPaint(), Math.max(0, bandBottom));
+        }
+    }
 
-            //Set the matrix to scale
-            //the two object decides the size of wave:
-            //mWaveLengthRatio for width, mAmplitudeRatio for height
-            mShaderMatrix.setScale(
-                    mWaveLengthRatio / DEFAULT_WAVE_LENGTH_RATIO,
-                    mAmplitudeRatio / DEFAULT_AMPLITUDE_RATIO,
-                    0,
-                    mDefaultWaterLevel);
-
-            //Postconcats the matrix with the specified translation.
-            //the two object decides the start position
-            mShaderMatrix.postTranslate(
-                    mWaveShiftRatio * mViewWidth,
-                    (DEFAULT_WATER_LEVEL_RATIO - mWaterLevelRatio) * mViewHeight);
-
-            //Set the shader's local matrix.
-            mWaveShader.setLocalMatrix(mShaderMatrix);
-
-            //init border width
-            float borderWidth = mBorderPaint == null ?
-                    0f : mBorderPaint.getStrokeWidth();
-
-            switch (mShapeType) {//the border shape
-                case SHAPE_CIRCLE:
-                    float cx = mViewWidth / 2.0f;
-                    float cy = mViewHeight / 2.0f;
-
-                    if (borderWidth > 0) {
-                        canvas.drawCircle(cx, cy,
-                                (mViewWidth - borderWidth) / 2.0f - 1.0f,
-                                mBorderPaint);
-                    }
-                    float radius = mViewWidth / 2.0f - borderWidth;
-                    canvas.drawCircle(cx, cy, radius, mViewPaint);
-                    break;
-                case SHAPE_RECTANGLE:
-
-                    if (borderWidth > 0) {
-                        canvas.drawRect(
-                                borderWidth / 2.0f,
-                                borderWidth / 2.0f,
-                                mViewWidth - borderWidth / 2.0f - 0.5f,
-                                mViewHeight - borderWidth / 2.0f - 0.5f,
-                                mBorderPaint);
-                    }
-                    canvas.drawRect(borderWidth,
-                            borderWidth,
-                            mViewWidth - borderWidth,
-                            mViewHeight - borderWidth,
-                            mViewPaint);
-                    break;
+    /**
+     * Fill the shape with the height field of the surface.
+     */
+    private void drawSurface(Canvas canvas) {
+        final WaveSurfaceTexture texture = mSurfaceTexture;
+        texture.update(mWaveSurface, mWaveRenderer);
+        if (!texture.hasTexture()) return;
+        if (mBorderPaint != null) {
+            mWaveShape.drawBorder(canvas, mBorderPaint);
+        }
+        mWaveShape.drawFill(canvas, texture.getPaint(), Math.max(0, texture.getTop()));
+    }
+
+    /**
+     * @return the highest row any layer can reach with the current params
+     */
+    private float getWaveBandTop() {
+        //one row of slack for the antialiased edge
+        return Math.max(0f, (float) Math.floor(mWaveModel.getCrest()) - 1f);
+    }
+
+    /**
+     * Opaque if the background is, or if the frontmost opaque water covers every pixel:
+     * a shape filling the view whose opaque layer dips no lower than the top, drawn
+     * without any alpha.
+     */
+    @Override
+    public boolean isOpaque() {
+        if (super.isOpaque()) return true;
+        if (!mShowWave || !mWaveShape.fillsBounds() || !mWaveRenderer.hasShader()) {
+            return false;
+        }
+        //what is behind shows through,it must be drawn
+        if (getAlpha() < 1f || mWaveRenderer.getAlpha() != 0xff) {
+            return false;
+        }
+        final WaveModel model = mWaveModel;
+        final float amplitude = Math.abs(model.getAmplitude());
+        for (int i = 0; i < model.getLayerCount(); i++) {
+            WaveLayer layer = model.getLayer(i);
+            if ((mWaveRenderer.getLayerColor(i) >>> 24) == 0xff && model.getWaterLevel()
+                    + amplitude * Math.abs(layer.amplitudeScale) <= -1f) {
+                return true;
             }
-        } else {
-            mViewPaint.setShader(null);
         }
+        return false;
     }
 
     /**
-     * Create the shader with default waves which repeat horizontally,
-     * and clamp vertically.
+     * A single fill and a border that does not touch it can take the view alpha
+     * without an offscreen layer.
+     */
+    @Override
+    public boolean hasOverlappingRendering() {
+        if (getBackground() != null) return true;
+        if (mBorderPaint != null && mWaveShape.borderOverlapsFill()) return true;
+        return mWaveRenderer.getPaintCount() > 1;
+    }
+
+    /**
+     * Replay the recorded frame, recording it first if anything changed.
+     *
+     * @param canvas the view canvas
+     * @return false if the canvas can not replay recordings
+     */
+    private boolean drawCachedFrame(Canvas canvas) {
+        final boolean dirty = (mDirtyFlags & DIRTY_CONTENT) != 0;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && canvas.isHardwareAccelerated()) {
+            if (mRenderNodeFrame == null) {
+                mRenderNodeFrame = new RenderNodeFrame();
+            }
+            if (dirty || !mRenderNodeFrame.hasFrame()) {
+                drawWave(mRenderNodeFrame.beginRecording(mViewWidth, mViewHeight));
+                mRenderNodeFrame.endRecording();
+                mDirtyFlags &= ~DIRTY_CONTENT;
+            }
+            mRenderNodeFrame.draw(canvas);
+            return true;
+        }
+        //pictures replay on hardware canvases since M
+        if (canvas.isHardwareAccelerated() && Build.VERSION.SDK_INT < Build.VERSION_CODES.M) {
+            return false;
+        }
+        boolean record = dirty;
+        if (mPictureFrame == null) {
+            mPictureFrame = new Picture();
+            record = true;
+        }
+        if (record) {
+            drawWave(mPictureFrame.beginRecording(mViewWidth, mViewHeight));
+            mPictureFrame.endRecording();
+            mDirtyFlags &= ~DIRTY_CONTENT;
+        }
+        canvas.drawPicture(mPictureFrame);
+        return true;
+    }
+
+    private void releaseFrameCache() {
+        if (mRenderNodeFrame != null) {
+            mRenderNodeFrame.discard();
+        }
+        mPictureFrame = null;
+        mDirtyFlags |= DIRTY_CONTENT;
+    }
+
+    private float getBorderWidth() {
+        return mBorderPaint == null ? 0f : mBorderPaint.getStrokeWidth();
+    }
+
+    //shape geometry only changes with the size or the border
+    private void updateShapeBounds() {
+        mWaveShape.onBoundsChanged(mViewWidth, mViewHeight, getBorderWidth());
+    }
+
+    /**
+     * Create the shaders with default waves which repeat horizontally,
+     * and clamp vertically. The tiles come from {@link WaveShaderCache}, so views
+     * with the same size and layers share bitmaps.
+     * <p>
+     * In async mode the tiles are drawn in the background, the current shaders
+     * keep drawing until the new ones arrive.
      */
     private void createShader() {
-        //默认的频率
-        double defaultAngularFrequency = 2.0f * Math.PI / DEFAULT_WAVE_LENGTH_RATIO / mViewWidth;
-        //the default water anplitude（默认的水位振幅）
-        float defaultAmplitude = mViewHeight * DEFAULT_AMPLITUDE_RATIO;
-        mDefaultWaterLevel = mViewHeight * DEFAULT_WATER_LEVEL_RATIO;//水位高度
-        //the default complete wave length(默认的波长)
-        float defaultWaveLength = mViewWidth;
+        final WaveMetrics metrics = WaveMetrics.getInstance();
+        final boolean measure = metrics.isEnabled();
+        final long start = measure ? System.nanoTime() : 0L;
+        if (mWaveSurface != null) {
+            //the surface texture stands in for the tiles
+            mWaveRenderer.release();
+            mAtlasPlayer.release();
+            //allocated here rather than while drawing
+            mSurfaceTexture.prepare(mWaveSurface, mWaveRenderer);
+            mAtlasFallback = false;
+            mDirtyFlags |= DIRTY_CONTENT;
+            return;
+        }
+        if (mAtlasPlayer.isEnabled()) {
+            if (mAtlasPlayer.update(mWaveRenderer)) {
+                //the frames stand in for the tiles
+                mAtlasFallback = false;
+                mWaveRenderer.release();
+                mDirtyFlags |= DIRTY_CONTENT;
+                return;
+            }
+            //once per size,this runs on every param change
+            if (!mAtlasFallback || mAtlasFallbackWidth != mViewWidth
+                    || mAtlasFallbackHeight != mViewHeight) {
+                Log.w(TAG, "no frame atlas for " + mViewWidth + "x" + mViewHeight
+                        + ", drawing tiles");
+                mAtlasFallbackWidth = mViewWidth;
+                mAtlasFallbackHeight = mViewHeight;
+            }
+            mAtlasFallback = true;
+        } else {
+            mAtlasFallback = false;
+        }
+        Trace.beginSection(WaveMetrics.TRACE_CREATE_SHADER);
+        try {
+            mWaveRenderer.updateTiles();
+        } finally {
+            Trace.endSection();
+        }
+        if (measure) {
+            metrics.recordShaderUpdate(System.nanoTime() - start);
+        }
+        mDirtyFlags |= DIRTY_TILE | DIRTY_CONTENT;
+    }
 
-        Bitmap bitmap = Bitmap.createBitmap(mViewWidth, mViewHeight, Bitmap.Config.ARGB_8888);
-        Canvas canvas = new Canvas(bitmap);
+    /**
+     * Ask for another atlas once the amplitude or wave length moved past the baked one,
+     * the current atlas keeps playing until the new one arrives.
+     */
+    private void updateAtlas() {
+        if (mAtlasPlayer.isStale() && getWidth() > 0 && getHeight() > 0) {
+            createShader();
+        }
+    }
 
-        //draw default waves into the bitmap
-        // y=Asin(ωx+φ)+h
-        int endX = mViewWidth + 1;
-        int endY = mViewHeight + 1;
+    /**
+     * Give the shared tiles back to {@link WaveShaderCache}, and the frames to
+     * {@link WaveAtlasCache}.
+     */
+    private void releaseShader() {
+        mWaveRenderer.release();
+        mAtlasPlayer.release();
+        mSurfaceTexture.release();
+    }
 
-        float[] waveY = new float[endX];
-        mWavePaint.setColor(mBehindWaveColor);
+    public int getFrameAtlasFrameCount() {
+        return mAtlasPlayer.getFrameCount();
+    }
 
-        for (int beginX = 0; beginX < endX; beginX++) {
-            double wx = beginX * defaultAngularFrequency;
-            float beginY = (float) (defaultAmplitude * Math.sin(wx) + mDefaultWaterLevel);
-            canvas.drawLine(beginX, beginY, beginX, endY, mWavePaint);
+    /**
+     * @return true if the frame atlas is on but the tiles are drawn, because the atlas
+     * would not fit a texture at this size or failed to bake
+     * @see #setFrameAtlas(int)
+     */
+    public boolean isFrameAtlasFallback() {
+        return mAtlasFallback;
+    }
 
-            waveY[beginX] = beginY;
+    /**
+     * Play the waves from frames baked once into an atlas, for low-end devices: every
+     * frame is then a single bitmap fill whatever the layers, shape or AGSL support.
+     * The atlas holds one period of the shift, e.g. of
+     * {@link SimpleWaveAnimatorImp#setLoadingAnim(long)}, so the layer speeds should be
+     * whole numbers. It is baked on a background thread, the water is flat until it
+     * arrives, and views of the same size, layers and params share it.
+     * <p>
+     * Amplitude and water level animate freely, amplitudes above the baked one, new
+     * colors or wave lengths bake again, see {@link WaveAtlasPlayer}. The colors are
+     * baked in, so every color change bakes a whole atlas: do not animate colors in
+     * this mode, use {@link #setMaskTexture(boolean)} tiles instead. Bound the memory
+     * of atlases no view holds with {@link WaveAtlasCache#setMaxIdleBytes(int)}.
+     *
+     * @param frameCount frames per period, e.g. {@link WaveAtlasPlayer#DEFAULT_FRAME_COUNT}.
+     *                   Default to be 0, draw the tiles.
+     */
+    public void setFrameAtlas(int frameCount) {
+        if (mAtlasPlayer.getFrameCount() == Math.max(0, frameCount)) return;
+        mAtlasPlayer.setFrameCount(frameCount);
+        if (getWidth() > 0 && getHeight() > 0) {
+            createShader();
         }
+        invalidateWave();
+    }
 
-        mWavePaint.setColor(mFrontWaveColor);
-        final int wave2Shift = (int) (defaultWaveLength / 5);
+    public WaveSurface getWaveSurface() {
+        return mWaveSurface;
+    }
 
-        for (int beginX = 0; beginX < endX; beginX++) {
-            canvas.drawLine(beginX, waveY[(beginX + wave2Shift) % endX],
-                    beginX, endY, mWavePaint);
+    /**
+     * Draw a surface of spring columns that ripples when touched instead of the sine
+     * waves. The layers, colors, water level and shape stay, the surface steps on the
+     * frame clock while it moves and the view can be seen.
+     *
+     * @param waveSurface the surface, null to draw the sine waves again
+     * @see #disturbSurface(float, float)
+     * @see #tiltSurface(float)
+     */
+    public void setWaveSurface(@Nullable WaveSurface waveSurface) {
+        if (mWaveSurface == waveSurface) return;
+        mWaveSurface = waveSurface;
+        if (waveSurface == null) {
+            mSurfaceTexture.release();
         }
+        if (getWidth() > 0 && getHeight() > 0) {
+            createShader();
+        }
+        updateSurfaceTicking();
+        invalidateWave();
+    }
+
+    /**
+     * Push the surface, e.g. from a touch. Touches on the view do this by themselves.
+     *
+     * @param xRatio   0 ~ 1 of the width
+     * @param velocity view heights per second, positive pushes up
+     */
+    public void disturbSurface(float xRatio, float velocity) {
+        if (mWaveSurface == null) return;
+        mWaveSurface.impulse(xRatio, velocity, TOUCH_RADIUS);
+        updateSurfaceTicking();
+    }
 
-        //use bitmap to create the shader
-        mWaveShader = new BitmapShader(bitmap,
-                Shader.TileMode.REPEAT, Shader.TileMode.CLAMP);
-        mViewPaint.setShader(mWaveShader);
+    /**
+     * Tilt the surface, e.g. from the accelerometer:
+     * <code>tiltSurface(-event.values[0] / SensorManager.GRAVITY_EARTH * width / height)</code>
+     * in portrait.
+     *
+     * @param tilt see {@link WaveSurface#setTilt(float)}
+     */
+    public void tiltSurface(float tilt) {
+        if (mWaveSurface == null) return;
+        mWaveSurface.setTilt(tilt);
+        updateSurfaceTicking();
+    }
+
+    /**
+     * Touches push the surface down while there is one, dragging makes a wake.
+     */
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        final boolean handled = super.onTouchEvent(event);
+        final int width = getWidth();
+        if (mWaveSurface == null || width <= 0) return handled;
+        final float x = event.getX();
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                disturbSurface(x / width, TOUCH_VELOCITY);
+                mLastTouchX = x;
+                break;
+            case MotionEvent.ACTION_MOVE:
+                final float span = Math.abs(x - mLastTouchX) / (width * TOUCH_DRAG_SPAN);
+                disturbSurface(x / width, TOUCH_VELOCITY * Math.min(1f, span));
+                mLastTouchX = x;
+                break;
+            default:
+                break;
+        }
+        return true;
     }
 
     /**
@@ -307,20 +818,89 @@ public class WaveView extends View {
         }
         mBorderPaint.setColor(color);
         mBorderPaint.setStrokeWidth(width);
+        updateShapeBounds();
 
-        invalidate();
+        invalidateWave();
     }
 
+    /**
+     * Go back to the default behind and front waves with these colors. With a frame
+     * atlas this bakes a new one, see {@link #setFrameAtlas(int)}.
+     *
+     * @param behindWaveColor color of the behind wave
+     * @param frontWaveColor  color of the front wave
+     */
     public void setWaveColor(int behindWaveColor, int frontWaveColor) {
-        mBehindWaveColor = behindWaveColor;
-        mFrontWaveColor = frontWaveColor;
+        if (!mDefaultLayers) {
+            setWaveLayers(createDefaultLayers(behindWaveColor, frontWaveColor));
+            mDefaultLayers = true;
+            return;
+        }
+        //both colors before the tiles are drawn again
+        boolean tiles = mWaveRenderer.setLayerColor(0, behindWaveColor);
+        tiles |= mWaveRenderer.setLayerColor(1, frontWaveColor);
+        //the atlas holds the colors
+        tiles |= mAtlasPlayer.isEnabled();
+        if (tiles && getWidth() > 0 && getHeight() > 0) {
+            createShader();
+        }
+        invalidateWave();
+    }
 
+    /**
+     * Change the color of one layer. With the AGSL waves or mask textures
+     * (see {@link #setMaskTexture(boolean)}) this allocates and draws nothing,
+     * so colors can be animated every frame. Otherwise the tiles are drawn again,
+     * and with a frame atlas the whole atlas is baked again, see
+     * {@link #setFrameAtlas(int)}.
+     *
+     * @param index behind to front
+     * @param color ARGB color
+     */
+    public void setWaveLayerColor(int index, int color) {
+        if (mWaveRenderer.getLayerColor(index) == color) return;
+        final boolean tiles = mWaveRenderer.setLayerColor(index, color)
+                || mAtlasPlayer.isEnabled();
+        if (tiles && getWidth() > 0 && getHeight() > 0) {
+            createShader();
+        }
+        invalidateWave();
+    }
+
+    /**
+     * Draw any number of waves, behind to front. Neighbouring layers with the same
+     * wave length and speed share one tile, all of them are filled in a single draw
+     * since Q and one draw per tile before.
+     *
+     * @param layers at least one layer
+     */
+    public void setWaveLayers(WaveLayer... layers) {
+        mWaveRenderer.setLayers(layers);
+        mDefaultLayers = false;
+        mDirtyFlags |= DIRTY_TILE;
         if (getWidth() > 0 && getHeight() > 0) {
-            // need to recreate shader when color changed
-            mWaveShader = null;
+            // need to recreate shader when the layers changed
             createShader();
-            invalidate();
         }
+        invalidateWave();
+    }
+
+    public int getWaveLayerCount() {
+        return mWaveRenderer.getLayerCount();
+    }
+
+    /**
+     * @param index behind to front
+     * @return the layer
+     */
+    public WaveLayer getWaveLayer(int index) {
+        return mWaveRenderer.getLayer(index);
+    }
+
+    private static WaveLayer[] createDefaultLayers(int behindWaveColor, int frontWaveColor) {
+        return new WaveLayer[]{
+                new WaveLayer(behindWaveColor, 0f),
+                new WaveLayer(frontWaveColor, WaveModel.FRONT_WAVE_OFFSET)};
     }
 
     /**
@@ -330,11 +910,36 @@ public class WaveView extends View {
      */
     public void setShapeType(int shapeType) {
         mShapeType = shapeType;
-        invalidate();
+        setWaveShape(createShape(shapeType));
+    }
+
+    public int getShapeType() {
+        return mShapeType;
+    }
+
+    /**
+     * Fill the waves into any outline, e.g. {@link RoundRectShape}, {@link BatteryShape}
+     * or {@link VectorPathShape}. Its geometry is built once per size or border change.
+     *
+     * @param waveShape the shape, not shared with other views
+     */
+    public void setWaveShape(WaveShape waveShape) {
+        if (waveShape == null) return;
+        mWaveShape = waveShape;
+        updateShapeBounds();
+        invalidateWave();
+    }
+
+    public WaveShape getWaveShape() {
+        return mWaveShape;
+    }
+
+    private static WaveShape createShape(int shapeType) {
+        return shapeType == SHAPE_CIRCLE ? new CircleShape() : new RectangleShape();
     }
 
     public float getWaveShiftRatio() {
-        return mWaveShiftRatio;
+        return mWaveModel.getWaveShiftRatio();
     }
 
     /**
@@ -345,14 +950,15 @@ public class WaveView extends View {
      *                       width of WaveView is the length to shift.
      */
     public void setWaveShiftRatio(float WaveShiftRatio) {
-        if (mWaveShiftRatio != WaveShiftRatio) {
-            this.mWaveShiftRatio = WaveShiftRatio;
-            invalidate();
+        if (mWaveModel.getWaveShiftRatio() != WaveShiftRatio) {
+            mWaveModel.setWaveShiftRatio(WaveShiftRatio);
+            mDirtyFlags |= DIRTY_SHIFT;
+            invalidateWave();
         }
     }
 
     public float getWaterLevelRatio() {
-        return mWaterLevelRatio;
+        return mWaveModel.getWaterLevelRatio();
     }
 
     /**
@@ -362,14 +968,49 @@ public class WaveView extends View {
      *                        Ratio of water level to WaveView height.
      */
     public void setWaterLevelRatio(float waterLevelRatio) {
-        if (mWaterLevelRatio != waterLevelRatio) {
-            this.mWaterLevelRatio = waterLevelRatio;
-            invalidate();
+        if (mWaveModel.getWaterLevelRatio() != waterLevelRatio) {
+            mWaveModel.setWaterLevelRatio(waterLevelRatio);
+            mDirtyFlags |= DIRTY_WATER_LEVEL;
+            invalidateWave();
         }
     }
 
+    /**
+     * Stream water levels from any thread, e.g. sensor or network data at 50 ~ 200 Hz.
+     * Only the latest level is read on the next frame, the view invalidates at most once
+     * per frame however often this is called. Never blocks.
+     *
+     * @param waterLevelRatio see {@link #setWaterLevelRatio(float)}
+     * @see #setWaterLevelSmoothing(long)
+     */
+    public void postWaterLevelRatio(float waterLevelRatio) {
+        if (mLevelInput.post(waterLevelRatio)) {
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                mLevelPost.run();
+            } else {
+                //attached or not,the frame clock lives on the main thread
+                mMainHandler.post(mLevelPost);
+            }
+        }
+    }
+
+    public long getWaterLevelSmoothing() {
+        return mLevelInput.getTimeConstantMillis();
+    }
+
+    /**
+     * How posted levels are eased in, on the main thread.
+     *
+     * @param timeConstantMillis the level covers 63% of the way to a posted level in this
+     *                           time. Default to be 0, jump to the latest level.
+     * @see #postWaterLevelRatio(float)
+     */
+    public void setWaterLevelSmoothing(long timeConstantMillis) {
+        mLevelInput.setTimeConstantMillis(timeConstantMillis);
+    }
+
     public float getAmplitudeRatio() {
-        return mAmplitudeRatio;
+        return mWaveModel.getAmplitudeRatio();
     }
 
     /**
@@ -379,14 +1020,47 @@ public class WaveView extends View {
      *                       Ratio of amplitude to height of WaveView.
      */
     public void setAmplitudeRatio(float amplitudeRatio) {
-        if (mAmplitudeRatio != amplitudeRatio) {
-            this.mAmplitudeRatio = amplitudeRatio;
-            invalidate();
+        if (mWaveModel.getAmplitudeRatio() != amplitudeRatio) {
+            mWaveModel.setAmplitudeRatio(amplitudeRatio);
+            mDirtyFlags |= DIRTY_AMPLITUDE;
+            updateAtlas();
+            invalidateWave();
+        }
+    }
+
+    /**
+     * Set the animated params at once, the view invalidates at most once.
+     *
+     * @param waveShiftRatio  see {@link #setWaveShiftRatio(float)}
+     * @param amplitudeRatio  see {@link #setAmplitudeRatio(float)}
+     * @param waterLevelRatio see {@link #setWaterLevelRatio(float)}
+     */
+    public void setWaveParams(float waveShiftRatio, float amplitudeRatio, float waterLevelRatio) {
+        final WaveModel model = mWaveModel;
+        int dirty = 0;
+        if (model.getWaveShiftRatio() != waveShiftRatio) {
+            model.setWaveShiftRatio(waveShiftRatio);
+            dirty |= DIRTY_SHIFT;
+        }
+        if (model.getAmplitudeRatio() != amplitudeRatio) {
+            model.setAmplitudeRatio(amplitudeRatio);
+            dirty |= DIRTY_AMPLITUDE;
+        }
+        if (model.getWaterLevelRatio() != waterLevelRatio) {
+            model.setWaterLevelRatio(waterLevelRatio);
+            dirty |= DIRTY_WATER_LEVEL;
+        }
+        if (dirty != 0) {
+            mDirtyFlags |= dirty;
+            if ((dirty & DIRTY_AMPLITUDE) != 0) {
+                updateAtlas();
+            }
+            invalidateWave();
         }
     }
 
     public float getWaveLengthRatio() {
-        return mWaveLengthRatio;
+        return mWaveModel.getWaveLengthRatio();
     }
 
     /**
@@ -396,10 +1070,182 @@ public class WaveView extends View {
      *                        Ratio of wave length to width of WaveView.
      */
     public void setWaveLengthRatio(float waveLengthRatio) {
-        this.mWaveLengthRatio = waveLengthRatio;
+        if (mWaveModel.getWaveLengthRatio() != waveLengthRatio) {
+            mWaveModel.setWaveLengthRatio(waveLengthRatio);
+            mDirtyFlags |= DIRTY_WAVE_LENGTH;
+            updateAtlas();
+            invalidateWave();
+        }
     }
 
     public void setShowWave(boolean showWave) {
-        this.mShowWave = showWave;
+        if (mShowWave != showWave) {
+            this.mShowWave = showWave;
+            invalidateWave();
+        }
+    }
+
+    public boolean isWaveBandClipping() {
+        return mWaveBandClipping;
+    }
+
+    /**
+     * Fill only the band the waves can reach, from the highest crest of all layers
+     * down. The transparent rows above are not drawn at all, which saves a layer of
+     * overdraw over the empty part of large background waves.
+     *
+     * @param waveBandClipping Default to be true.
+     */
+    public void setWaveBandClipping(boolean waveBandClipping) {
+        if (mWaveBandClipping != waveBandClipping) {
+            this.mWaveBandClipping = waveBandClipping;
+            invalidateWave();
+        }
+    }
+
+    public boolean isStaticFrameCaching() {
+        return mStaticFrameCaching;
+    }
+
+    /**
+     * Record the drawn frame into a {@link RenderNode} (API 29+) or a {@link Picture} and
+     * replay it until a wave param changes. Idle waves then cost almost nothing to redraw,
+     * animated waves pay for one recording per frame, so leave it off while animating.
+     *
+     * @param staticFrameCaching Default to be false.
+     */
+    public void setStaticFrameCaching(boolean staticFrameCaching) {
+        if (mStaticFrameCaching != staticFrameCaching) {
+            this.mStaticFrameCaching = staticFrameCaching;
+            if (!staticFrameCaching) {
+                releaseFrameCache();
+            }
+            invalidateWave();
+        }
+    }
+
+    public boolean isAsyncShaderGeneration() {
+        return mWaveRenderer.isAsyncTiles();
+    }
+
+    /**
+     * Draw the shader tile on a background thread. Until it is ready the view keeps
+     * drawing the previous tile scaled to the new size, or flat water if there is none.
+     *
+     * @param asyncShader Default to be false.
+     */
+    public void setAsyncShaderGeneration(boolean asyncShader) {
+        mWaveRenderer.setAsyncTiles(asyncShader);
+    }
+
+    public boolean isRuntimeShaderEnabled() {
+        return mWaveRenderer.isRuntimeShaderEnabled();
+    }
+
+    /**
+     * On Android 13+ the waves are computed per pixel by an AGSL
+     * {@link android.graphics.RuntimeShader}, no bitmap is drawn and animating a param
+     * only sets a uniform. Older versions, or more than
+     * {@link com.zxm.wavelibrary.ShaderHelper.WaveAgsl#MAX_LAYERS} layers, always use
+     * the bitmap tiles.
+     *
+     * @param runtimeShaderEnabled Default to be true.
+     */
+    public void setRuntimeShaderEnabled(boolean runtimeShaderEnabled) {
+        if (mWaveRenderer.isRuntimeShaderEnabled() != runtimeShaderEnabled) {
+            mWaveRenderer.setRuntimeShaderEnabled(runtimeShaderEnabled);
+            if (getWidth() > 0 && getHeight() > 0) {
+                createShader();
+                invalidateWave();
+            }
+        }
+    }
+
+    public boolean isMaskTexture() {
+        return mWaveRenderer.isMaskTiles();
+    }
+
+    /**
+     * Draw every layer from an ALPHA_8 mask tinted with the layer color at draw time,
+     * instead of one colored tile per group of layers. Color changes then cost
+     * nothing, masks are shared by views whatever their colors and take a quarter of
+     * the memory per layer. Each layer is one draw.
+     *
+     * @param maskTexture Default to be false.
+     */
+    public void setMaskTexture(boolean maskTexture) {
+        if (mWaveRenderer.isMaskTiles() != maskTexture) {
+            mWaveRenderer.setMaskTiles(maskTexture);
+            if (getWidth() > 0 && getHeight() > 0) {
+                createShader();
+                invalidateWave();
+            }
+        }
+    }
+
+    public boolean isCompactTexture() {
+        return mWaveRenderer.isCompactTexture();
+    }
+
+    /**
+     * Render the shader tile one wavelength wide and only as tall as the wave band,
+     * the looks stay the same at a fraction of the memory.
+     *
+     * @param compactTexture Default to be false.
+     */
+    public void setCompactTexture(boolean compactTexture) {
+        if (mWaveRenderer.isCompactTexture() != compactTexture) {
+            mWaveRenderer.setCompactTexture(compactTexture);
+            if (getWidth() > 0 && getHeight() > 0) {
+                createShader();
+                invalidateWave();
+            }
+        }
+    }
+
+    //something drawn changed
+    private void invalidateWave() {
+        mDirtyFlags |= DIRTY_CONTENT;
+        invalidate();
+    }
+
+    /**
+     * Recorded frame, kept apart so older platforms never load {@link RenderNode}.
+     */
+    @RequiresApi(api = Build.VERSION_CODES.Q)
+    private static final class RenderNodeFrame {
+        private final RenderNode mRenderNode = new RenderNode("WaveView");
+
+        boolean hasFrame() {
+            return mRenderNode.hasDisplayList();
+        }
+
+        RecordingCanvas beginRecording(int width, int height) {
+            mRenderNode.setPosition(0, 0, width, height);
+            return mRenderNode.beginRecording(width, height);
+        }
+
+        void endRecording() {
+            mRenderNode.endRecording();
+        }
+
+        void draw(Canvas canvas) {
+            canvas.drawRenderNode(mRenderNode);
+        }
+
+        void discard() {
+            mRenderNode.discardDisplayList();
+        }
+    }
+
+    /**
+     * Called when {@link #isWaveVisible()} changes.
+     */
+    public interface OnWaveVisibilityChangedListener {
+        /**
+         * @param waveView the view
+         * @param visible  true if the waves can be seen
+         */
+        void onWaveVisibilityChanged(WaveView waveView, boolean visible);
     }
 }
@@ -0,0 +1,82 @@
+package com.zxm.wavelibrary.AnimatorHelper;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Caps hold on displays they do not divide, and a pause starts the timeline again.
+ */
+public class WaveFrameThrottleTest {
+    private static final long SECOND = 1000000000L;
+
+    //frames drawn over some seconds of vsyncs at the display rate
+    private static int countFrames(WaveFrameThrottle throttle, int hz, int seconds) {
+        final long vsync = SECOND / hz;
+        int drawn = 0;
+        for (int i = 0; i < hz * seconds; i++) {
+            if (throttle.shouldDraw(i * SECOND / hz, vsync)) drawn++;
+        }
+        return drawn;
+    }
+
+    private static void assertRate(int fps, int hz) {
+        WaveFrameThrottle throttle = new WaveFrameThrottle();
+        throttle.setTargetFrameRate(fps);
+        assertEquals(fps + " fps on " + hz + " Hz", 10 * fps, countFrames(throttle, hz, 10), 1);
+    }
+
+    @Test
+    public void capsHoldOnSixtyHertz() {
+        assertRate(24, 60);
+        assertRate(40, 60);
+        assertRate(30, 60);
+    }
+
+    @Test
+    public void capsHoldOnOneHundredTwentyHertz() {
+        assertRate(24, 120);
+        assertRate(40, 120);
+        assertRate(90, 120);
+    }
+
+    @Test
+    public void noCapDrawsEveryVsync() {
+        assertEquals(600, countFrames(new WaveFrameThrottle(), 60, 10));
+    }
+
+    @Test
+    public void gapsAreSpreadEvenly() {
+        WaveFrameThrottle throttle = new WaveFrameThrottle();
+        throttle.setTargetFrameRate(24);
+        final long vsync = SECOND / 60;
+        long last = -1;
+        for (int i = 0; i < 600; i++) {
+            long time = i * SECOND / 60;
+            if (throttle.shouldDraw(time, vsync)) {
+                if (last >= 0) {
+                    //2 or 3 vsyncs,never 1 or 4
+                    long gap = Math.round((time - last) / (double) vsync);
+                    assertTrue(String.valueOf(gap), gap == 2 || gap == 3);
+                }
+                last = time;
+            }
+        }
+    }
+
+    @Test
+    public void resumesWithoutABurst() {
+        WaveFrameThrottle throttle = new WaveFrameThrottle();
+        throttle.setTargetFrameRate(30);
+        final long vsync = SECOND / 60;
+        assertTrue(throttle.shouldDraw(0, vsync));
+        //a jank of a second,then vsyncs again
+        assertTrue(throttle.shouldDraw(SECOND, vsync));
+        int drawn = 0;
+        for (int i = 1; i <= 60; i++) {
+            if (throttle.shouldDraw(SECOND + i * vsync, vsync)) drawn++;
+        }
+        assertEquals(30, drawn);
+    }
+}
@@ -0,0 +1,64 @@
+package com.zxm.wavelibrary.MathHelper;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Bound the error of {@link SineTable} against {@link Math#sin(double)}.
+ */
+public class SineTableTest {
+
+    @Test
+    public void errorStaysUnderRequestedBound() {
+        float[] bounds = {1e-2f, 1e-3f, 1e-4f, 1e-5f};
+        for (float bound : bounds) {
+            SineTable table = SineTable.forMaxError(bound);
+            float maxError = maxError(table, -20f, 20f, 200000);
+            assertTrue("bound " + bound + " error " + maxError, maxError <= bound);
+            assertTrue(maxError <= table.maxError());
+        }
+    }
+
+    @Test
+    public void tableSizeFollowsAccuracy() {
+        assertTrue(SineTable.forMaxError(1e-5f).size() > SineTable.forMaxError(1e-3f).size());
+        assertEquals(0, Integer.bitCount(SineTable.getDefault().size()) - 1);
+        assertSame(SineTable.getDefault(), SineTable.forMaxError(SineTable.DEFAULT_MAX_ERROR));
+    }
+
+    @Test
+    public void cosineMatches() {
+        SineTable table = SineTable.getDefault();
+        for (float x = -10f; x < 10f; x += 0.01f) {
+            assertEquals(Math.cos(x), table.cos(x), 2 * SineTable.DEFAULT_MAX_ERROR);
+        }
+    }
+
+    @Test
+    public void sampleFillsWave() {
+        SineTable table = SineTable.getDefault();
+        float[] out = new float[101];
+        table.sample(out, out.length, 45f, (float) (2 * Math.PI / 100), 0.3f, 50f);
+        for (int x = 0; x < out.length; x++) {
+            double expected = 45 * Math.sin(2 * Math.PI / 100 * x + 0.3) + 50;
+            assertEquals(expected, out[x], 45 * 2 * SineTable.DEFAULT_MAX_ERROR);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveError() {
+        SineTable.forMaxError(0f);
+    }
+
+    private static float maxError(SineTable table, float from, float to, int steps) {
+        float maxError = 0f;
+        for (int i = 0; i <= steps; i++) {
+            float x = from + (to - from) * i / steps;
+            maxError = Math.max(maxError, (float) Math.abs(table.sin(x) - Math.sin(x)));
+        }
+        return maxError;
+    }
+}
@@ -0,0 +1,116 @@
+package com.zxm.wavelibrary.MathHelper;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Check {@link WaveLevelInput} coalesces posts into one frame and eases toward the latest.
+ */
+public class WaveLevelInputTest {
+    private static final long FRAME_NANOS = 1000000000L / 60;
+
+    @Test
+    public void postsAskForOneFrame() {
+        WaveLevelInput input = new WaveLevelInput(0.5f);
+        assertTrue(input.post(0.1f));
+        for (int i = 0; i < 100; i++) {
+            assertFalse(input.post(0.2f + i / 1000f));
+        }
+        assertFalse(input.update(FRAME_NANOS));
+        assertEquals(0.299f, input.getLevel(), 0f);
+
+        //the frame ran,the next post asks again
+        assertTrue(input.post(0.4f));
+    }
+
+    @Test
+    public void withoutSmoothingJumpsToLatest() {
+        WaveLevelInput input = new WaveLevelInput(0f);
+        input.post(0.8f);
+        assertFalse(input.update(FRAME_NANOS));
+        assertEquals(0.8f, input.getLevel(), 0f);
+        assertTrue(input.isSettled());
+
+        //nothing new,nothing moves
+        assertFalse(input.update(2 * FRAME_NANOS));
+        assertEquals(0.8f, input.getLevel(), 0f);
+    }
+
+    @Test
+    public void smoothingFollowsTimeConstant() {
+        WaveLevelInput input = new WaveLevelInput(0f);
+        input.setTimeConstantMillis(100);
+        input.post(1f);
+        long time = 0;
+        assertTrue(input.update(time));
+        //the first frame after a rest steps one frame
+        double expected = 1.0 - Math.exp(-FRAME_NANOS / 1e8);
+        assertEquals(expected, input.getLevel(), 1e-5);
+
+        //after one more time constant 63% of the rest is covered
+        time += 100000000L;
+        assertTrue(input.update(time));
+        expected += (1.0 - expected) * (1.0 - Math.exp(-1.0));
+        assertEquals(expected, input.getLevel(), 1e-5);
+        assertEquals(1f, input.getTarget(), 0f);
+
+        while (input.update(time += FRAME_NANOS)) {
+            assertTrue(input.getLevel() < 1f);
+        }
+        assertEquals(1f, input.getLevel(), 0f);
+    }
+
+    @Test
+    public void longGapsStepAtMostOnce() {
+        WaveLevelInput input = new WaveLevelInput(0f);
+        input.setTimeConstantMillis(1000);
+        input.post(1f);
+        input.update(0);
+        float level = input.getLevel();
+        //a stalled frame does not jump to the target
+        input.update(10000000000L);
+        assertTrue(input.getLevel() < 1f);
+        assertTrue(input.getLevel() > level);
+    }
+
+    @Test
+    public void snapToStopsEasing() {
+        WaveLevelInput input = new WaveLevelInput(0f);
+        input.setTimeConstantMillis(100);
+        input.post(1f);
+        assertTrue(input.update(0));
+        input.snapTo(0.3f);
+        assertTrue(input.isSettled());
+        assertFalse(input.update(FRAME_NANOS));
+        assertEquals(0.3f, input.getLevel(), 0f);
+    }
+
+    @Test
+    public void readerSeesLatestOfConcurrentWriter() throws InterruptedException {
+        final int count = 200000;
+        final WaveLevelInput input = new WaveLevelInput(-1f);
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < count; i++) {
+                    input.post(i);
+                }
+            }
+        });
+        writer.start();
+        long time = 0;
+        float last = -1f;
+        while (writer.isAlive()) {
+            input.update(time += FRAME_NANOS);
+            //values only ever come in order
+            assertTrue(input.getLevel() >= last);
+            last = input.getLevel();
+        }
+        writer.join();
+        input.update(time + FRAME_NANOS);
+        assertEquals(count - 1, input.getLevel(), 0f);
+    }
+}
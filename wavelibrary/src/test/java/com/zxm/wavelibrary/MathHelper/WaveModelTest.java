@@ -0,0 +1,128 @@
+package com.zxm.wavelibrary.MathHelper;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Check {@link WaveModel} against y=Asin(ω(x-s)+φ)+h computed with {@link Math#sin(double)}.
+ */
+public class WaveModelTest {
+    private static final int WIDTH = 400;
+    private static final int HEIGHT = 300;
+
+    private WaveModel mModel;
+
+    @Before
+    public void setUp() {
+        mModel = new WaveModel();
+        mModel.setSize(WIDTH, HEIGHT);
+        mModel.setAmplitudeRatio(0.05f);
+        mModel.setWaterLevelRatio(0.7f);
+        mModel.setWaveLengthRatio(0.5f);
+        mModel.setWaveShiftRatio(0.3f);
+    }
+
+    @Test
+    public void heightFollowsEquation() {
+        for (int layer = 0; layer < mModel.getLayerCount(); layer++) {
+            for (float x = 0; x <= WIDTH; x += 0.5f) {
+                assertEquals(expected(layer, x), mModel.heightAt(layer, x), tolerance());
+            }
+        }
+    }
+
+    @Test
+    public void derivedValuesInPixels() {
+        assertEquals(15f, mModel.getAmplitude(), 1e-4f);
+        assertEquals(90f, mModel.getWaterLevel(), 1e-4f);
+        assertEquals(200f, mModel.getWaveLength(), 1e-4f);
+        assertEquals(120f, mModel.getWaveShift(), 1e-4f);
+        assertEquals(75f, mModel.getCrest(), 1e-4f);
+        assertEquals(105f, mModel.getTrough(), 1e-4f);
+    }
+
+    @Test
+    public void frontWaveLeadsByAFifth() {
+        mModel.setWaveLengthRatio(1f);
+        //the front wave used to be the behind wave read width/5 px further right
+        for (int x = 0; x < WIDTH; x++) {
+            assertEquals(mModel.heightAt(0, x + WIDTH / 5f), mModel.heightAt(1, x), tolerance());
+        }
+    }
+
+    @Test
+    public void sampleLayerMatchesHeightAt() {
+        float[] out = new float[64];
+        mModel.sampleLayer(1, out, 50, 12.5f, 3.25f);
+        for (int i = 0; i < 50; i++) {
+            assertEquals(mModel.heightAt(1, 12.5f + i * 3.25f), out[i], tolerance());
+        }
+        mModel.sampleLayer(0, out, out.length);
+        for (int x = 0; x < out.length; x++) {
+            assertEquals(mModel.heightAt(0, x), out[x], tolerance());
+        }
+    }
+
+    @Test
+    public void sampleLayersIsLayerMajor() {
+        mModel.setLayers(new WaveLayer(0, 0f), new WaveLayer(0, 0.1f),
+                new WaveLayer(0, 0.7f, 0.5f, 2f, 0.35f));
+        float[] out = new float[3 * WIDTH];
+        mModel.sampleLayers(out, WIDTH);
+        for (int layer = 0; layer < 3; layer++) {
+            for (int x = 0; x < WIDTH; x++) {
+                assertEquals(expected(layer, x), out[layer * WIDTH + x], tolerance());
+            }
+        }
+    }
+
+    @Test
+    public void layerScalesAmplitudeWaveLengthAndShift() {
+        WaveLayer layer = new WaveLayer(0, 0.5f, 2f, -1.5f, 0.25f);
+        mModel.setLayers(layer);
+        assertEquals(1, mModel.getLayerCount());
+        for (float x = 0; x <= WIDTH; x += 0.5f) {
+            assertEquals(expected(0, x), mModel.heightAt(0, x), tolerance());
+        }
+        float crest = mModel.getWaterLevel() - 0.5f * mModel.getAmplitude();
+        assertEquals(crest, mModel.getCrest(), 1e-4f);
+    }
+
+    @Test
+    public void layersMovingTogether() {
+        WaveLayer layer = new WaveLayer(0xff0000ff, 0.5f, 2f, 3f, 0.25f);
+        assertTrue(layer.movesWith(new WaveLayer(0, 1f, 2f, 3f, 0f)));
+        assertFalse(layer.movesWith(new WaveLayer(0xff0000ff, 0.5f, 2f, 1f, 0.25f)));
+        assertFalse(layer.movesWith(new WaveLayer(0xff0000ff, 0.5f, 1f, 3f, 0.25f)));
+        assertEquals(layer, new WaveLayer(0xff0000ff, 0.5f, 2f, 3f, 0.25f));
+        assertEquals(layer.withColor(0xffff0000).color, 0xffff0000);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsUnknownLayer() {
+        mModel.heightAt(2, 0f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsShortBuffer() {
+        mModel.sampleLayers(new float[WIDTH], WIDTH);
+    }
+
+    private double expected(int index, float x) {
+        WaveLayer layer = mModel.getLayer(index);
+        double omega = 2 * Math.PI / (mModel.getWaveLength() * layer.waveLengthScale);
+        double phase = 2 * Math.PI * layer.offset;
+        return mModel.getAmplitude() * layer.amplitudeScale
+                * Math.sin(omega * (x - mModel.getWaveShift() * layer.speed) + phase)
+                + mModel.getWaterLevel();
+    }
+
+    //table error scaled by the amplitude,plus float rounding of the angle
+    private float tolerance() {
+        return mModel.getAmplitude() * 4 * SineTable.DEFAULT_MAX_ERROR + 2e-3f;
+    }
+}
@@ -0,0 +1,126 @@
+package com.zxm.wavelibrary.MathHelper;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Check {@link WaveSurface} steps at a fixed rate, stays stable and calms down.
+ */
+public class WaveSurfaceTest {
+    private static final long FRAME_60_NANOS = 1000000000L / 60;
+    private static final long FRAME_120_NANOS = 1000000000L / 120;
+
+    @Test
+    public void stepRateIsWholeStepsPerFrame() {
+        for (int columns = 64; columns <= 2048; columns *= 2) {
+            WaveSurface surface = new WaveSurface(columns);
+            int rate = surface.getStepRate();
+            assertEquals(0, rate % 120);
+            //a ripple moves less than a column per step
+            assertTrue(surface.getWaveSpeed() * columns / rate < 1f);
+        }
+    }
+
+    @Test
+    public void atRestUntilDisturbed() {
+        WaveSurface surface = new WaveSurface(64);
+        assertTrue(surface.isAtRest());
+        assertEquals(0, surface.advance(FRAME_60_NANOS));
+
+        surface.impulse(0.5f, -1f, 0.1f);
+        assertFalse(surface.isAtRest());
+        assertTrue(surface.advance(FRAME_60_NANOS) > 0);
+        assertTrue(surface.heightAt(32) < 0f);
+    }
+
+    @Test
+    public void changeCountFollowsTheHeights() {
+        WaveSurface surface = new WaveSurface(64);
+        int count = surface.getChangeCount();
+        //nothing to step at rest
+        surface.advance(FRAME_60_NANOS);
+        assertEquals(count, surface.getChangeCount());
+
+        surface.impulse(0.5f, 1f, 0.1f);
+        assertEquals(count, surface.getChangeCount());
+        surface.advance(FRAME_60_NANOS);
+        assertTrue(surface.getChangeCount() != count);
+    }
+
+    @Test
+    public void carriesLeftoverTime() {
+        WaveSurface surface = new WaveSurface(64);
+        surface.impulse(0.5f, 1f, 0.1f);
+        int rate = surface.getStepRate();
+        int steps = 0;
+        for (int i = 0; i < 120; i++) {
+            steps += surface.advance(FRAME_120_NANOS);
+        }
+        //one second of frames,at most one step short
+        assertTrue(steps >= rate - 1 && steps <= rate);
+    }
+
+    @Test
+    public void rippleSpreadsSymmetrically() {
+        WaveSurface surface = new WaveSurface(129);
+        surface.setDamping(0f);
+        surface.impulse(0.5f, 1f, 0.05f);
+        for (int i = 0; i < 20; i++) {
+            surface.advance(FRAME_60_NANOS);
+        }
+        for (int i = 0; i < 64; i++) {
+            assertEquals(surface.heightAt(64 - i), surface.heightAt(64 + i), 1e-5f);
+        }
+    }
+
+    @Test
+    public void stableAndBoundedAtEverySize() {
+        for (int columns = 64; columns <= 2048; columns *= 2) {
+            WaveSurface surface = new WaveSurface(columns);
+            surface.setWaveSpeed(2f);
+            surface.impulse(0.3f, -5f, 0.02f);
+            surface.impulse(0.8f, 5f, 0.2f);
+            for (int frame = 0; frame < 120; frame++) {
+                surface.advance(FRAME_120_NANOS);
+            }
+            for (int i = 0; i < columns; i++) {
+                float height = surface.heightAt(i);
+                assertFalse(Float.isNaN(height));
+                assertTrue(Math.abs(height) <= surface.getMaxHeight());
+            }
+        }
+    }
+
+    @Test
+    public void dampedSurfaceComesToRest() {
+        WaveSurface surface = new WaveSurface(256);
+        surface.impulse(0.25f, 0.5f, 0.1f);
+        int frames = 0;
+        while (!surface.isAtRest() && frames < 60 * 30) {
+            surface.advance(FRAME_60_NANOS);
+            frames++;
+        }
+        assertTrue(surface.isAtRest());
+        for (int i = 0; i < 256; i++) {
+            assertEquals(0f, surface.heightAt(i), 0f);
+        }
+    }
+
+    @Test
+    public void tiltSlopesTheRestShape() {
+        WaveSurface surface = new WaveSurface(101);
+        surface.setTilt(0.1f);
+        int frames = 0;
+        while (!surface.isAtRest() && frames < 60 * 30) {
+            surface.advance(FRAME_60_NANOS);
+            frames++;
+        }
+        assertTrue(surface.isAtRest());
+        assertEquals(-0.05f, surface.heightAt(0), 1e-4f);
+        assertEquals(0f, surface.heightAt(50), 1e-4f);
+        assertEquals(0.05f, surface.heightAt(100), 1e-4f);
+    }
+}
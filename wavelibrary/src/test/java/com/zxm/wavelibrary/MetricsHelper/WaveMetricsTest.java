@@ -0,0 +1,94 @@
+package com.zxm.wavelibrary.MetricsHelper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Counters, draw buckets and percentiles of {@link WaveMetrics}.
+ */
+public class WaveMetricsTest {
+    private WaveMetrics mMetrics;
+
+    @Before
+    public void setUp() {
+        mMetrics = WaveMetrics.getInstance();
+        mMetrics.reset();
+        mMetrics.setEnabled(true);
+    }
+
+    @After
+    public void tearDown() {
+        mMetrics.setEnabled(false);
+        mMetrics.setListener(null);
+        mMetrics.reset();
+    }
+
+    @Test
+    public void bucketsAreInclusiveUpperBounds() {
+        assertEquals(0, WaveMetrics.bucketOf(0));
+        assertEquals(0, WaveMetrics.bucketOf(125000));
+        assertEquals(1, WaveMetrics.bucketOf(125001));
+        assertEquals(3, WaveMetrics.bucketOf(1000000));
+        assertEquals(WaveMetrics.DRAW_BUCKET_COUNT - 1, WaveMetrics.bucketOf(16000001));
+        assertEquals(Long.MAX_VALUE,
+                WaveMetrics.getDrawBucketBoundNanos(WaveMetrics.DRAW_BUCKET_COUNT - 1));
+    }
+
+    @Test
+    public void drawPercentiles() {
+        //90 fast draws and 10 janky ones
+        for (int i = 0; i < 90; i++) {
+            mMetrics.recordDraw(100000);
+        }
+        for (int i = 0; i < 10; i++) {
+            mMetrics.recordDraw(20000000);
+        }
+        WaveMetrics.Snapshot snapshot = mMetrics.snapshot();
+        assertEquals(100, snapshot.drawCount);
+        assertEquals(90, snapshot.getDrawCount(0));
+        assertEquals(10, snapshot.getDrawCount(WaveMetrics.DRAW_BUCKET_COUNT - 1));
+        assertEquals(125000, snapshot.getDrawPercentileNanos(0.9f));
+        //the unbounded bucket reports the slowest draw
+        assertEquals(20000000, snapshot.getDrawPercentileNanos(0.99f));
+        assertEquals(20000000, snapshot.maxDrawNanos);
+    }
+
+    @Test
+    public void tilesReachTheListener() {
+        final long[] seen = new long[2];
+        mMetrics.setListener(new WaveMetrics.Listener() {
+            @Override
+            public void onTileGenerated(long durationNanos, long bytes) {
+                seen[0] += durationNanos;
+                seen[1] += bytes;
+            }
+        });
+        mMetrics.recordTile(500, 4096);
+        mMetrics.recordTile(700, 1024);
+        WaveMetrics.Snapshot snapshot = mMetrics.snapshot();
+        assertEquals(2, snapshot.tileCount);
+        assertEquals(5120, snapshot.tileBytes);
+        assertEquals(1200, seen[0]);
+        assertEquals(5120, seen[1]);
+    }
+
+    @Test
+    public void snapshotIsDetachedAndResetClears() {
+        mMetrics.recordCacheLookup(true);
+        mMetrics.recordCacheLookup(true);
+        mMetrics.recordCacheLookup(false);
+        mMetrics.recordFrameDrawn();
+        mMetrics.recordFramesSkipped(3);
+        WaveMetrics.Snapshot snapshot = mMetrics.snapshot();
+        mMetrics.reset();
+
+        assertEquals(2f / 3f, snapshot.getCacheHitRate(), 1e-6f);
+        assertEquals(1, snapshot.framesDrawn);
+        assertEquals(3, snapshot.framesSkipped);
+        assertEquals(0, mMetrics.snapshot().cacheHits);
+        assertEquals(0f, mMetrics.snapshot().getCacheHitRate(), 0f);
+    }
+}
@@ -0,0 +1,149 @@
+package com.zxm.wavelibrary.ShaderHelper;
+
+import com.zxm.wavelibrary.MathHelper.WaveLayer;
+import com.zxm.wavelibrary.MathHelper.WaveModel;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Validate {@link WaveAgsl#SOURCE} and the uniform layout without a device.
+ */
+public class WaveAgslTest {
+    private static final Pattern UNIFORM =
+            Pattern.compile("uniform\\s+(\\w+)\\s+(\\w+)\\s*(?:\\[(\\d+)])?\\s*;");
+
+    @Test
+    public void declaresEveryUniformOnce() {
+        Map<String, String> uniforms = parseUniforms();
+        assertEquals(7, uniforms.size());
+        assertEquals("float", uniforms.get(WaveAgsl.UNIFORM_AMPLITUDE));
+        assertEquals("float", uniforms.get(WaveAgsl.UNIFORM_WAVE_LENGTH));
+        assertEquals("float", uniforms.get(WaveAgsl.UNIFORM_SHIFT));
+        assertEquals("float", uniforms.get(WaveAgsl.UNIFORM_WATER_LEVEL));
+        assertEquals("int", uniforms.get(WaveAgsl.UNIFORM_LAYER_COUNT));
+        assertEquals("float4[" + WaveAgsl.MAX_LAYERS + "]", uniforms.get(WaveAgsl.UNIFORM_LAYERS));
+        assertEquals("float4[" + WaveAgsl.MAX_LAYERS + "]", uniforms.get(WaveAgsl.UNIFORM_COLORS));
+        //float4 arrays are uploaded as flat float[]
+        assertEquals(4, WaveAgsl.LAYER_STRIDE);
+    }
+
+    @Test
+    public void everyUniformIsUsed() {
+        String body = WaveAgsl.SOURCE.substring(WaveAgsl.SOURCE.indexOf("half4 main("));
+        for (String name : parseUniforms().keySet()) {
+            Pattern usage = Pattern.compile("\\b" + name + "\\b");
+            assertTrue(name + " unused", usage.matcher(body).find());
+        }
+    }
+
+    @Test
+    public void sourceIsWellFormed() {
+        String source = WaveAgsl.SOURCE;
+        assertTrue(source.contains("half4 main(float2 fragCoord)"));
+        assertEquals(count(source, '{'), count(source, '}'));
+        assertEquals(count(source, '('), count(source, ')'));
+        assertEquals(count(source, '['), count(source, ']'));
+        //AGSL loops need a constant bound
+        assertTrue(source.contains("for (int i = 0; i < " + WaveAgsl.MAX_LAYERS + "; i++)"));
+        //AGSL has no preprocessor
+        assertFalse(source.contains("#"));
+    }
+
+    @Test
+    public void packsLayersInOrder() {
+        WaveModel model = new WaveModel();
+        model.setLayers(new WaveLayer(0x80ff0000, 0.5f, 2f, -1f, 0.25f),
+                new WaveLayer(0xff00ff00, 0.2f));
+        float[] layers = new float[WaveAgsl.MAX_LAYERS * WaveAgsl.LAYER_STRIDE];
+        float[] colors = new float[WaveAgsl.MAX_LAYERS * WaveAgsl.LAYER_STRIDE];
+        WaveAgsl.packLayers(model, layers, colors);
+
+        assertArrayEquals(new float[]{0.5f, 2f, -1f, 0.25f}, layers, 0);
+        assertArrayEquals(new float[]{1f, 1f, 1f, 0.2f}, layers, 4);
+        //premultiplied
+        float alpha = 0x80 / 255f;
+        assertArrayEquals(new float[]{alpha, 0f, 0f, alpha}, colors, 0);
+        assertArrayEquals(new float[]{0f, 1f, 0f, 1f}, colors, 4);
+        for (int i = 2 * WaveAgsl.LAYER_STRIDE; i < colors.length; i++) {
+            assertEquals(0f, colors[i], 0f);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTooManyLayers() {
+        WaveModel model = new WaveModel();
+        WaveLayer[] layers = new WaveLayer[WaveAgsl.MAX_LAYERS + 1];
+        for (int i = 0; i < layers.length; i++) {
+            layers[i] = new WaveLayer(0xff000000, 0f);
+        }
+        model.setLayers(layers);
+        float[] out = new float[WaveAgsl.MAX_LAYERS * WaveAgsl.LAYER_STRIDE];
+        WaveAgsl.packLayers(model, out, out);
+    }
+
+    @Test
+    public void shaderMathMatchesModel() {
+        WaveModel model = new WaveModel();
+        model.setSize(480, 320);
+        model.setAmplitudeRatio(0.04f);
+        model.setWaterLevelRatio(0.6f);
+        model.setWaveLengthRatio(0.8f);
+        model.setWaveShiftRatio(0.37f);
+        model.setLayers(new WaveLayer(0, 1f, 1.5f, 1f, 0f),
+                new WaveLayer(0, 0.6f, 1f, 2f, 0.2f));
+        float[] layers = new float[WaveAgsl.MAX_LAYERS * WaveAgsl.LAYER_STRIDE];
+        float[] colors = new float[WaveAgsl.MAX_LAYERS * WaveAgsl.LAYER_STRIDE];
+        WaveAgsl.packLayers(model, layers, colors);
+
+        for (int i = 0; i < model.getLayerCount(); i++) {
+            for (float x = 0.5f; x < model.getWidth(); x += 7f) {
+                assertEquals(model.heightAt(i, x), surface(model, layers, i, x), 0.01f);
+            }
+        }
+    }
+
+    //the surface line of main(),transcribed
+    private static float surface(WaveModel model, float[] layers, int i, float x) {
+        int base = i * WaveAgsl.LAYER_STRIDE;
+        double cycles = (x - model.getWaveShift() * layers[base + 2])
+                / (model.getWaveLength() * layers[base + 1]) + layers[base + 3];
+        double fract = cycles - Math.floor(cycles);
+        return (float) (model.getAmplitude() * layers[base] * Math.sin(2 * Math.PI * fract)
+                + model.getWaterLevel());
+    }
+
+    private static Map<String, String> parseUniforms() {
+        Map<String, String> uniforms = new HashMap<>();
+        Matcher matcher = UNIFORM.matcher(WaveAgsl.SOURCE);
+        while (matcher.find()) {
+            String type = matcher.group(3) == null ?
+                    matcher.group(1) : matcher.group(1) + "[" + matcher.group(3) + "]";
+            assertEquals("declared twice: " + matcher.group(2),
+                    null, uniforms.put(matcher.group(2), type));
+        }
+        return uniforms;
+    }
+
+    private static int count(String source, char c) {
+        int count = 0;
+        for (int i = 0; i < source.length(); i++) {
+            if (source.charAt(i) == c) count++;
+        }
+        return count;
+    }
+
+    private static void assertArrayEquals(float[] expected, float[] actual, int offset) {
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], actual[offset + i], 1e-6f);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.zxm.wavelibrary.ShaderHelper;
+
+import com.zxm.wavelibrary.MathHelper.WaveLayer;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Frames are one wavelength wide where the layers share it, stack within the texture
+ * size, and the shift picks the nearest frame of the period.
+ */
+public class WaveAtlasKeyTest {
+    private static final WaveLayer[] LAYERS = {
+            new WaveLayer(0x40ff0000, 0f),
+            new WaveLayer(0xff0000ff, 0.25f)};
+
+    private static WaveAtlasKey key(int width, int height, int frameCount) {
+        return new WaveAtlasKey(width, height, LAYERS, 0.05f, 1f, frameCount);
+    }
+
+    @Test
+    public void framesAreOneWaveLengthStackedInAColumn() {
+        WaveAtlasKey key = new WaveAtlasKey(600, 400, LAYERS, 0.05f, 0.25f, 24);
+        assertTrue(key.isCompact());
+        //a transparent row above the crest and a solid one below the trough
+        assertEquals(21, key.getReach());
+        assertEquals(42, key.getFrameHeight());
+        assertEquals(150, key.getFrameWidth());
+        assertEquals(150, key.getAtlasWidth());
+        assertEquals(24 * 42, key.getAtlasHeight());
+        assertTrue(key.fitsTexture());
+
+        for (int frame = 0; frame < key.frameCount; frame++) {
+            assertEquals(frame * 42, key.getFrameTop(frame));
+            assertTrue(key.getFrameTop(frame) + key.getFrameHeight() <= key.getAtlasHeight());
+        }
+        assertEquals(150 * 24 * 42 * 4L, key.getByteCount());
+    }
+
+    @Test
+    public void framesWithoutACommonWaveLengthSpanTheView() {
+        //a wavelength as wide as the view
+        WaveAtlasKey key = key(600, 400, 24);
+        assertFalse(key.isCompact());
+        assertEquals(600, key.getFrameWidth());
+        //the layers repeat at different widths
+        key = new WaveAtlasKey(600, 400, new WaveLayer[]{
+                LAYERS[0], new WaveLayer(0xff0000ff, 1f, 0.5f, 1f, 0f)}, 0.05f, 0.25f, 24);
+        assertFalse(key.isCompact());
+        assertEquals(600, key.getFrameWidth());
+    }
+
+    @Test
+    public void largeAtlasesDoNotFit() {
+        assertTrue(key(4096, 100, 1).fitsTexture());
+        assertFalse(key(4097, 100, 1).fitsTexture());
+        //the column runs out
+        assertFalse(key(300, 2000, 30).fitsTexture());
+        assertFalse(key(0, 100, 24).fitsTexture());
+    }
+
+    @Test
+    public void shiftPicksTheNearestFrame() {
+        WaveAtlasKey key = key(100, 100, 20);
+        assertEquals(0, key.getFrame(0f));
+        assertEquals(1, key.getFrame(0.05f));
+        assertEquals(10, key.getFrame(0.51f));
+        //the period wraps
+        assertEquals(0, key.getFrame(0.99f));
+        assertEquals(0, key.getFrame(1f));
+        assertEquals(5, key.getFrame(2.25f));
+        assertEquals(15, key.getFrame(-0.25f));
+
+        //a period of a compact atlas is one wavelength of 25px
+        key = new WaveAtlasKey(100, 100, LAYERS, 0.05f, 0.25f, 20);
+        assertEquals(0, key.getFrame(0.25f));
+        assertEquals(10, key.getFrame(0.125f));
+        assertEquals(2, key.getFrame(0.775f));
+    }
+
+    @Test
+    public void waterColorStacksTheLayers() {
+        //the opaque front layer covers the behind one
+        assertEquals(0xff0000ff, key(100, 100, 1).getWaterColor());
+        WaveAtlasKey key = new WaveAtlasKey(100, 100, new WaveLayer[]{
+                new WaveLayer(0xffffffff, 0f), new WaveLayer(0x80000000, 0f)},
+                0.05f, 1f, 1);
+        assertEquals(0xff7f7f7f, key.getWaterColor());
+    }
+
+    @Test
+    public void equalParamsShareAKey() {
+        assertEquals(key(300, 200, 24), key(300, 200, 24));
+        assertEquals(key(300, 200, 24).hashCode(), key(300, 200, 24).hashCode());
+        assertNotEquals(key(300, 200, 24), key(300, 200, 12));
+        assertNotEquals(key(300, 200, 24), new WaveAtlasKey(300, 200,
+                new WaveLayer[]{LAYERS[0], LAYERS[1].withColor(0xff00ff00)}, 0.05f, 1f, 24));
+    }
+}